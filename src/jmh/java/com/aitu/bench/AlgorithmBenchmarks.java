@@ -0,0 +1,50 @@
+package com.aitu.bench;
+
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.graph.topo.TopologicalSortResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linear-time stages of the pipeline, one benchmark per algorithm.
+ * Each call builds a fresh algorithm object, the same way Main.processGraph does.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class AlgorithmBenchmarks {
+
+    @Benchmark
+    public SCCResult tarjanFindSCC(GraphState state) {
+        return new TarjanSCC().findSCC(state.input.graph);
+    }
+
+    @Benchmark
+    public CondensationGraph condensation(GraphState state) {
+        return new CondensationGraph(state.input.graph, state.input.sccResult);
+    }
+
+    @Benchmark
+    public TopologicalSortResult kahnSort(GraphState state) {
+        return new KahnTopologicalSort().sort(state.input.dag);
+    }
+
+    @Benchmark
+    public PathResult shortestPaths(GraphState state) {
+        return new DAGShortestPath().computeShortestPaths(state.input.dag, state.input.dagSource);
+    }
+}
@@ -0,0 +1,28 @@
+package com.aitu.bench;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.utils.GraphFamilies;
+
+/**
+ * One generated benchmark input plus its SCC result and condensation,
+ * so later pipeline stages can be measured on their own.
+ */
+public class BenchmarkGraph {
+    public final DirectedGraph graph;
+    public final SCCResult sccResult;
+    public final DirectedGraph dag;
+    public final int dagSource;
+
+    /**
+     * Seed is fixed so every fork sees the same input.
+     */
+    public BenchmarkGraph(int n, double avgDegree, String variant) {
+        graph = new GraphFamilies(42).generate(n, variant, avgDegree);
+        sccResult = new TarjanSCC().findSCC(graph);
+        dag = new CondensationGraph(graph, sccResult).getCondensation();
+        dagSource = sccResult.getComponentId()[GraphFamilies.defaultSource(n, variant)];
+    }
+}
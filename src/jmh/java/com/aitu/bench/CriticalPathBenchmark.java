@@ -0,0 +1,54 @@
+package com.aitu.bench;
+
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Critical path tries every condensed vertex as a source, O(V * (V + E)),
+ * so it gets its own, smaller size sweep than the linear-time stages.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class CriticalPathBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SmallGraphState {
+        @Param({"1000", "2000", "4000"})
+        public int n;
+
+        @Param({"1.5", "8"})
+        public double avgDegree;
+
+        @Param({"pure_dag", "one_cycle", "two_cycles", "mixed", "many_sccs"})
+        public String variant;
+
+        public BenchmarkGraph input;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            input = new BenchmarkGraph(n, avgDegree, variant);
+        }
+    }
+
+    @Benchmark
+    public CriticalPathResult findCriticalPath(SmallGraphState state) {
+        return new DAGLongestPath().findCriticalPath(state.input.dag);
+    }
+}
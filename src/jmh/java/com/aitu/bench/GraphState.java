@@ -0,0 +1,30 @@
+package com.aitu.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark input swept over size, average out-degree and structural variant.
+ * Override the sweep from the command line, e.g. -p n=1000,100000 -p variant=mixed.
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int n;
+
+    @Param({"1.5", "8"})
+    public double avgDegree;
+
+    @Param({"pure_dag", "one_cycle", "two_cycles", "mixed", "many_sccs"})
+    public String variant;
+
+    public BenchmarkGraph input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = new BenchmarkGraph(n, avgDegree, variant);
+    }
+}
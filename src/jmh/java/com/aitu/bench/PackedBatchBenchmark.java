@@ -0,0 +1,83 @@
+package com.aitu.bench;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.batch.PackedBatch;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.utils.GraphFamilies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many tiny graphs analyzed one at a time versus packed into one {@link PackedBatch}.
+ * One operation is the whole batch of graphCount graphs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PackedBatchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TinyGraphsState {
+        @Param({"10000"})
+        public int graphCount;
+
+        @Param({"8", "32"})
+        public int n;
+
+        @Param({"mixed", "many_sccs"})
+        public String variant;
+
+        public List<DirectedGraph> graphs;
+        public int[] sources;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            GraphFamilies families = new GraphFamilies(42);
+            graphs = new ArrayList<>(graphCount);
+            sources = new int[graphCount];
+            for (int k = 0; k < graphCount; k++) {
+                graphs.add(families.generate(n, variant, 2));
+                sources[k] = GraphFamilies.defaultSource(n, variant);
+            }
+        }
+    }
+
+    @Benchmark
+    public void perGraph(TinyGraphsState state, Blackhole bh) {
+        for (int k = 0; k < state.graphCount; k++) {
+            DirectedGraph graph = state.graphs.get(k);
+            SCCResult scc = new TarjanSCC().findSCC(graph);
+            DirectedGraph dag = new CondensationGraph(graph, scc).getCondensation();
+            bh.consume(new KahnTopologicalSort().sort(dag));
+            bh.consume(new DAGShortestPath().computeShortestPaths(dag, scc.getComponentId()[state.sources[k]]));
+            bh.consume(new DAGLongestPath().findCriticalPath(dag));
+        }
+    }
+
+    @Benchmark
+    public PackedBatch packed(TinyGraphsState state) {
+        return PackedBatch.analyze(state.graphs, state.sources);
+    }
+}
@@ -1,75 +1,243 @@
 package com.aitu;
 
+import com.aitu.core.DenseGraph;
 import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
 import com.aitu.graph.scc.*;
 import com.aitu.graph.topo.*;
 import com.aitu.graph.dagsp.*;
 import com.aitu.utils.InputReader;
 import com.aitu.utils.InputReader.GraphData;
 import com.aitu.utils.Metrics;
+import com.aitu.utils.PhaseProfiler;
+import com.aitu.utils.Pipeline;
+import com.aitu.utils.ResultWriter;
 import com.aitu.core.Edge;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
-import java.io.FileWriter;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class Main {
 
+    static final String SCC_CSV = "scc";
+    static final String TOPO_CSV = "topo";
+    static final String SHORT_PATH_CSV = "short_path";
+    static final String CRITICAL_PATH_CSV = "critical_path";
+    static final String SUMMARY_CSV = "summary";
+
+    private static final String USAGE = "Usage: Main [--threads N] [--window W] [--stats] [--benchmark]";
+
+    /**
+     * Options:
+     *   --threads N   analysis threads for batch mode (default: available processors)
+     *   --window W    graphs read ahead and scheduled together, largest first (default 16 per thread)
+     *   --stats       print per-stage throughput, utilization and queue depth after a batch run
+     *   --benchmark   process graphs one at a time after a JIT warm-up, with a GC and 10 ms pause
+     *                 before every phase, so the reported per-algorithm times are comparable
+     */
     public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int window = -1;
+        boolean benchmark = false;
+        boolean stats = false;
         try {
-            List<String[]> sccCsvData = new ArrayList<>();
-            List<String[]> topoCsvData = new ArrayList<>();
-            List<String[]> spCsvData = new ArrayList<>();
-            List<String[]> cpCsvData = new ArrayList<>();
-            List<String[]> summaryCsvData = new ArrayList<>();
-
-            JsonArray sparseResults = new JsonArray();
-            JsonArray denseResults = new JsonArray();
-
-            warmupJIT();
-
-
-            List<GraphData> sparseGraphs = InputReader.loadAllGraphs("data/input_sparse.json");
-            for (GraphData gd : sparseGraphs) {
-                JsonObject graphResult = processGraph(gd, sccCsvData, topoCsvData, spCsvData, cpCsvData, summaryCsvData);
-                sparseResults.add(graphResult);
-            }
-
-            List<GraphData> denseGraphs = InputReader.loadAllGraphs("data/input_dense.json");
-            for (GraphData gd : denseGraphs) {
-                JsonObject graphResult = processGraph(gd, sccCsvData, topoCsvData, spCsvData, cpCsvData, summaryCsvData);
-                denseResults.add(graphResult);
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--benchmark")) {
+                    benchmark = true;
+                } else if (arg.equals("--stats")) {
+                    stats = true;
+                } else if (arg.equals("--threads") && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--window") && i + 1 < args.length) {
+                    window = Integer.parseInt(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + arg);
+                }
             }
+            if (threads <= 0) throw new IllegalArgumentException("--threads must be > 0");
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if (window <= 0) window = threads * 16;
 
-            writeTaskCsv("data/output_scc.csv", sccCsvData,
+        // Each graph's rows and JSON line are written as soon as it finishes, then dropped
+        try (ResultWriter writer = new ResultWriter()) {
+            writer.addCsv(SCC_CSV, "data/output_scc.csv",
                 "graph_id;vertices;edges;density;variant;operations_count;num_scc;execution_time_ms");
-            writeTaskCsv("data/output_topo.csv", topoCsvData,
+            writer.addCsv(TOPO_CSV, "data/output_topo.csv",
                 "graph_id;vertices;edges;density;variant;operations_count;execution_time_ms");
-            writeTaskCsv("data/output_short_path.csv", spCsvData,
+            writer.addCsv(SHORT_PATH_CSV, "data/output_short_path.csv",
                 "graph_id;vertices;edges;density;variant;operations_count;path_length;execution_time_ms");
-            writeTaskCsv("data/output_critical_path.csv", cpCsvData,
+            writer.addCsv(CRITICAL_PATH_CSV, "data/output_critical_path.csv",
                 "graph_id;vertices;edges;density;variant;operations_count;path_length;execution_time_ms");
-            writeTaskCsv("data/output_summary.csv", summaryCsvData,
+            writer.addCsv(SUMMARY_CSV, "data/output_summary.csv",
                 "graph_id;vertices;edges;density;variant;num_sccs;shortest_path_length;critical_path_length;total_operations_count;total_execution_time_ms");
-
-            writeJson("data/output_sparse.json", sparseResults);
-            writeJson("data/output_dense.json", denseResults);
+            writer.addNdjson("sparse", "data/output_sparse.ndjson");
+            writer.addNdjson("dense", "data/output_dense.ndjson");
+
+            if (benchmark) {
+                warmupJIT();
+                processSequential("data/input_sparse.json", "sparse", writer);
+                processSequential("data/input_dense.json", "dense", writer);
+            } else {
+                String[][] inputs = {{"data/input_sparse.json", "sparse"}, {"data/input_dense.json", "dense"}};
+                List<Pipeline.StageStats> stageStats = processBatch(inputs, writer, threads, window);
+                if (stats) {
+                    for (Pipeline.StageStats stage : stageStats) System.out.println(stage);
+                }
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private static JsonObject processGraph(GraphData graphData,
-                                         List<String[]> sccCsvData,
-                                         List<String[]> topoCsvData,
-                                         List<String[]> spCsvData,
-                                         List<String[]> cpCsvData,
-                                         List<String[]> summaryCsvData) {
+    /**
+     * Benchmark mode: one graph at a time, each phase isolated by a GC and a short pause.
+     */
+    private static void processSequential(String inputPath, String jsonSink, ResultWriter writer) throws IOException {
+        // Graphs are parsed one at a time, so only the graph being analysed is in memory
+        try (InputReader.GraphIterator graphs = InputReader.iterateGraphs(inputPath)) {
+            while (graphs.hasNext()) {
+                writer.submit(processGraph(graphs.next(), jsonSink, new PhaseProfiler(), true));
+            }
+        }
+    }
+
+    /**
+     * Batch mode as a staged pipeline: one thread parses graphs (load), a pool of threads runs the
+     * algorithms (analyze), a smaller pool builds CSV rows and JSON (serialize) and the result writer
+     * takes them in input order (write). Stages are connected by bounded queues, so parsing, analysis
+     * and output overlap while memory stays bounded.
+     *
+     * The loader reads up to window graphs of a file at a time and emits them largest first, so a
+     * big graph does not end up alone at the tail; the write stage restores input order, making the
+     * output files identical to a sequential run apart from timings.
+     *
+     * @param inputs pairs of {input path, NDJSON sink name}
+     */
+    static List<Pipeline.StageStats> processBatch(String[][] inputs, ResultWriter writer,
+                                                  int threads, int window) throws IOException {
+        int serializeThreads = Math.max(1, threads / 4);
+        try (BatchSource source = new BatchSource(inputs, window)) {
+            return Pipeline.source("load", source, window * 2)
+                    .then("analyze", threads, window, (BatchItem item) -> {
+                        item.results = analyzeGraph(item.graphData, new PhaseProfiler(), false);
+                        return item;
+                    })
+                    .then("serialize", serializeThreads, window, (BatchItem item) -> {
+                        item.record = serializeResults(item.results, item.jsonSink);
+                        item.results = null;
+                        return item;
+                    })
+                    .run("write", item -> item.seq, item -> writer.submit(item.record));
+        }
+    }
+
+    private static class BatchItem {
+        final long seq;
+        final GraphData graphData;
+        final String jsonSink;
+        GraphResults results;
+        ResultWriter.Record record;
+
+        BatchItem(long seq, GraphData graphData, String jsonSink) {
+            this.seq = seq;
+            this.graphData = graphData;
+            this.jsonSink = jsonSink;
+        }
+    }
+
+    /**
+     * Streams the input files window by window, each window largest graph first.
+     * Items are numbered in input order across all files.
+     */
+    private static class BatchSource implements Iterator<BatchItem>, Closeable {
+        private final String[][] inputs;
+        private final int window;
+        private final ArrayDeque<BatchItem> buffered = new ArrayDeque<>();
+        private InputReader.GraphIterator current;
+        private int nextInput;
+        private long nextSeq;
+
+        BatchSource(String[][] inputs, int window) {
+            this.inputs = inputs;
+            this.window = window;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (buffered.isEmpty()) fill();
+            return !buffered.isEmpty();
+        }
+
+        @Override
+        public BatchItem next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return buffered.poll();
+        }
+
+        private void fill() {
+            try {
+                while (current == null || !current.hasNext()) {
+                    if (current != null) current.close();
+                    current = null;
+                    if (nextInput == inputs.length) return;
+                    current = InputReader.iterateGraphs(inputs[nextInput++][0]);
+                }
+                String jsonSink = inputs[nextInput - 1][1];
+                List<BatchItem> batch = new ArrayList<>(window);
+                while (batch.size() < window && current.hasNext()) {
+                    batch.add(new BatchItem(nextSeq++, current.next(), jsonSink));
+                }
+                batch.sort((a, b) -> Long.compare(graphSize(b.graphData), graphSize(a.graphData)));
+                buffered.addAll(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) current.close();
+        }
+    }
+
+    private static long graphSize(GraphData graphData) {
+        return (long) graphData.getGraph().getN() + graphData.getGraph().getEdgeCount();
+    }
+
+    /**
+     * Runs the full pipeline on one graph, recording time and allocation of each phase
+     * (scc, condensation, topo, shortest_path, critical_path, serialize) in the profiler.
+     * Returns the CSV rows (one per task sink) and the JSON result under jsonSink.
+     * With isolate set, a GC and 10 ms pause precede every phase (benchmark mode).
+     */
+    static ResultWriter.Record processGraph(GraphData graphData, String jsonSink, PhaseProfiler profiler,
+                                            boolean isolate) {
+        GraphResults results = analyzeGraph(graphData, profiler, isolate);
+
+        profiler.begin("serialize");
+        ResultWriter.Record record = serializeResults(results, jsonSink);
+        profiler.end();
+
+        return record;
+    }
+
+    /**
+     * Runs the algorithm phases (scc, condensation, topo, shortest_path, critical_path) on one graph.
+     */
+    static GraphResults analyzeGraph(GraphData graphData, PhaseProfiler profiler, boolean isolate) {
 
         DirectedGraph graph = graphData.getGraph();
         int id = graphData.getId();
@@ -81,42 +249,63 @@ public class Main {
         results.graphData = graphData;
         results.source = source;
 
-        cleanMemory();
-        TarjanSCC tarjan = new TarjanSCC();
-        results.sccResult = tarjan.findSCC(graph);
-        results.tarjanMetrics = tarjan.getMetrics();
+        if (isolate) cleanMemory();
+        profiler.begin("scc");
+        Graph analysisGraph = graphData.getAnalysisGraph();
+        if (analysisGraph instanceof DenseGraph) {
+            // Same numbering and operation counts as TarjanSCC on graph; see DenseGraph.chooseFor
+            BitsetSCC bitset = new BitsetSCC();
+            results.sccResult = bitset.findSCC((DenseGraph) analysisGraph);
+            results.tarjanMetrics = bitset.getMetrics();
+        } else {
+            TarjanSCC tarjan = new TarjanSCC();
+            results.sccResult = tarjan.findSCC(graph);
+            results.tarjanMetrics = tarjan.getMetrics();
+        }
+        profiler.end();
 
-        cleanMemory();
+        if (isolate) cleanMemory();
+        profiler.begin("condensation");
         CondensationGraph condensation = new CondensationGraph(graph, results.sccResult);
         results.dag = condensation.getCondensation();
+        profiler.end();
 
-        cleanMemory();
+        if (isolate) cleanMemory();
+        profiler.begin("topo");
         KahnTopologicalSort topoSort = new KahnTopologicalSort();
         results.topoResult = topoSort.sort(results.dag);
         results.topoMetrics = topoSort.getMetrics();
+        profiler.end();
 
-        cleanMemory();
+        if (isolate) cleanMemory();
+        profiler.begin("shortest_path");
         DAGShortestPath shortestPath = new DAGShortestPath();
         int dagSource = results.sccResult.getComponentId()[source];
         results.spResult = shortestPath.computeShortestPaths(results.dag, dagSource);
         results.spMetrics = shortestPath.getMetrics();
+        profiler.end();
 
-        cleanMemory();
+        if (isolate) cleanMemory();
+        profiler.begin("critical_path");
         DAGLongestPath longestPath = new DAGLongestPath();
         results.cpResult = longestPath.findCriticalPath(results.dag);
         results.lpMetrics = longestPath.getMetrics();
+        profiler.end();
 
-        collectTaskSpecificCsvData(sccCsvData, topoCsvData, spCsvData, cpCsvData, summaryCsvData, results);
+        return results;
+    }
 
-        return buildJsonResult(results);
+    /**
+     * Builds the CSV rows and the JSON result for an analysed graph.
+     */
+    static ResultWriter.Record serializeResults(GraphResults results, String jsonSink) {
+        ResultWriter.Record record = new ResultWriter.Record();
+        collectTaskSpecificCsvData(record, results);
+        record.addJson(jsonSink, buildJsonResult(results));
+        return record;
     }
 
-    private static void collectTaskSpecificCsvData(List<String[]> sccCsvData,
-                                                 List<String[]> topoCsvData,
-                                                 List<String[]> spCsvData,
-                                                 List<String[]> cpCsvData,
-                                                 List<String[]> summaryCsvData,
-                                                 GraphResults r) {
+    private static void collectTaskSpecificCsvData(ResultWriter.Record record, GraphResults r) {
 
         int vertices = r.graph.getN();
         int edges = r.graph.getAllEdges().size();
@@ -124,7 +313,7 @@ public class Main {
         String variant = r.graphData.getVariant();
         int graphId = r.id;
 
-        sccCsvData.add(new String[]{
+        record.addRow(SCC_CSV, new String[]{
             String.valueOf(graphId),
             String.valueOf(vertices),
             String.valueOf(edges),
@@ -135,7 +324,7 @@ public class Main {
             String.format("%.3f", r.tarjanMetrics.getExecutionTimeMs())
         });
 
-        topoCsvData.add(new String[]{
+        record.addRow(TOPO_CSV, new String[]{
             String.valueOf(graphId),
             String.valueOf(vertices),
             String.valueOf(edges),
@@ -152,7 +341,7 @@ public class Main {
             spLength = calculatePathLength(r.dag, spPath);
         }
 
-        spCsvData.add(new String[]{
+        record.addRow(SHORT_PATH_CSV, new String[]{
             String.valueOf(graphId),
             String.valueOf(vertices),
             String.valueOf(edges),
@@ -165,7 +354,7 @@ public class Main {
 
         double cpLength = r.cpResult != null ? r.cpResult.getLength() : 0;
 
-        cpCsvData.add(new String[]{
+        record.addRow(CRITICAL_PATH_CSV, new String[]{
             String.valueOf(graphId),
             String.valueOf(vertices),
             String.valueOf(edges),
@@ -186,7 +375,7 @@ public class Main {
                           r.spMetrics.getExecutionTimeMs() +
                           r.lpMetrics.getExecutionTimeMs();
 
-        summaryCsvData.add(new String[]{
+        record.addRow(SUMMARY_CSV, new String[]{
             String.valueOf(graphId),
             String.valueOf(vertices),
             String.valueOf(edges),
@@ -200,17 +389,6 @@ public class Main {
         });
     }
 
-    private static void writeTaskCsv(String filepath, List<String[]> csvData, String header) throws IOException {
-        try (FileWriter writer = new FileWriter(filepath)) {
-            writer.write(header + "\n");
-
-            for (String[] row : csvData) {
-                writer.write(String.join(";", row) + "\n");
-            }
-        }
-    }
-
-
     private static void cleanMemory() {
         System.gc();
         try {
@@ -252,61 +430,6 @@ public class Main {
         }
     }
 
-    private static void collectCsvData(List<String[]> csvData, GraphResults r) {
-        int id = r.id;
-
-        int vertices = r.graph.getN();
-        int edges = r.graph.getAllEdges().size();
-
-        String density = r.graphData.getDensity();
-        String variant = r.graphData.getVariant();
-
-        long spTotalOps = r.tarjanMetrics.getTotalOperations() +
-                r.topoMetrics.getTotalOperations() +
-                r.spMetrics.getTotalOperations();
-        double spTotalTime = r.tarjanMetrics.getExecutionTimeMs() +
-                r.topoMetrics.getExecutionTimeMs() +
-                r.spMetrics.getExecutionTimeMs();
-
-        long lpTotalOps = r.tarjanMetrics.getTotalOperations() +
-                r.topoMetrics.getTotalOperations() +
-                r.lpMetrics.getTotalOperations();
-        double lpTotalTime = r.tarjanMetrics.getExecutionTimeMs() +
-                r.topoMetrics.getExecutionTimeMs() +
-                r.lpMetrics.getExecutionTimeMs();
-
-        if (r.spResult != null) {
-            int dagSource = r.sccResult.getComponentId()[r.source];
-            List<Integer> spPath = buildPathFromSource(r.spResult, dagSource);
-            double spLength = calculatePathLength(r.dag, spPath);
-
-            csvData.add(new String[]{
-                    String.valueOf(id),
-                    String.valueOf(vertices),
-                    String.valueOf(edges),
-                    density,
-                    variant,
-                    "DAG-ShortestPath",
-                    String.valueOf(spTotalOps),
-                    String.format("%.2f", spLength),
-                    String.format("%.3f", spTotalTime)
-            });
-        }
-
-        csvData.add(new String[]{
-                String.valueOf(id),
-                String.valueOf(vertices),
-                String.valueOf(edges),
-                density,
-                variant,
-                "DAG-LongestPath",
-                String.valueOf(lpTotalOps),
-                String.format("%.2f", r.cpResult.getLength()),
-                String.format("%.3f", lpTotalTime)
-
-        });
-    }
-
     private static JsonObject buildJsonResult(GraphResults r) {
         JsonObject graphJson = new JsonObject();
         graphJson.addProperty("graph_id", r.id);
@@ -489,16 +612,7 @@ public class Main {
         return length;
     }
 
-    private static void writeJson(String filepath, JsonArray results) throws IOException {
-        JsonObject root = new JsonObject();
-        root.add("results", results);
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try (FileWriter writer = new FileWriter(filepath)) {
-            gson.toJson(root, writer);
-        }
-    }
-
-    private static class GraphResults {
+    static class GraphResults {
         int id;
         DirectedGraph graph;
         GraphData graphData;
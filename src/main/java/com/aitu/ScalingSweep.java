@@ -0,0 +1,373 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.utils.GraphFamilies;
+import com.aitu.utils.GraphStreamGenerator;
+import com.aitu.utils.InputReader.GraphData;
+import com.aitu.utils.PhaseProfiler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line scaling sweep with a regression gate.
+ * Generates each graph family at doubling sizes, runs the full {@link Main} pipeline,
+ * fits ns/edge and bytes/edge per phase and compares them with a baseline CSV.
+ *
+ * Exit codes: 0 = ok, 1 = regression or non-linear scaling, 2 = bad arguments or I/O error.
+ * Wall-clock time is noisier than allocation, so it has its own, wider threshold; growth between
+ * the two thresholds is printed as a warning.
+ *
+ * Options:
+ *   --families a,b      variants to sweep (default: all GraphFamilies.VARIANTS); the workload
+ *                       models in GraphStreamGenerator.MODELS are accepted too
+ *   --min-n N           smallest vertex count (default 1000)
+ *   --steps K           number of doublings (default 5)
+ *   --degree D          average out-degree (default 2)
+ *   --repeats R         runs per size, fastest one is kept (default 5)
+ *   --warmup W          untimed pipeline runs per family before measuring (default 30)
+ *   --warmup-ms M       keep warming up until at least M milliseconds have passed (default 1000)
+ *   --threshold T       allowed relative growth in bytes/edge, e.g. 0.5 = +50% (default 0.5);
+ *                       slower phases past it get a warning
+ *   --time-threshold T  allowed relative growth in ns/edge (default 1.0)
+ *   --exponent-slack S  allowed excess of the fitted log-log exponent (default 0.3)
+ *   --noise-floor F     ignore growth smaller than F ns/edge (or bytes/edge), default 5
+ *   --baseline FILE     baseline CSV (default data/bench_baseline.csv)
+ *   --update-baseline   write the measured fits to the baseline file instead of comparing
+ */
+public class ScalingSweep {
+    private static final String HEADER = "family;avg_degree;phase;max_n;ns_per_edge;bytes_per_edge;exponent";
+
+    private List<String> families = Arrays.asList(GraphFamilies.VARIANTS);
+    private int minN = 1000;
+    private int steps = 5;
+    private double degree = 2;
+    private int repeats = 5;
+    private int warmup = 30;
+    private long warmupMillis = 1000;
+    private double threshold = 0.5;
+    private double timeThreshold = 1.0;
+    private double exponentSlack = 0.3;
+    private double noiseFloor = 5;
+    private String baselinePath = "data/bench_baseline.csv";
+    private boolean updateBaseline = false;
+
+    public static void main(String[] args) {
+        ScalingSweep sweep = new ScalingSweep();
+        try {
+            sweep.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        }
+
+        System.exit(sweep.run());
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--update-baseline")) {
+                updateBaseline = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--families":
+                    families = Arrays.asList(value.split(","));
+                    break;
+                case "--min-n":
+                    minN = Integer.parseInt(value);
+                    break;
+                case "--steps":
+                    steps = Integer.parseInt(value);
+                    break;
+                case "--degree":
+                    degree = Double.parseDouble(value);
+                    break;
+                case "--repeats":
+                    repeats = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--warmup-ms":
+                    warmupMillis = Long.parseLong(value);
+                    break;
+                case "--threshold":
+                    threshold = Double.parseDouble(value);
+                    break;
+                case "--time-threshold":
+                    timeThreshold = Double.parseDouble(value);
+                    break;
+                case "--exponent-slack":
+                    exponentSlack = Double.parseDouble(value);
+                    break;
+                case "--noise-floor":
+                    noiseFloor = Double.parseDouble(value);
+                    break;
+                case "--baseline":
+                    baselinePath = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (minN < 2 || steps < 2 || repeats < 1 || warmup < 0 || warmupMillis < 0) {
+            throw new IllegalArgumentException("Need --min-n >= 2, --steps >= 2, --repeats >= 1, --warmup >= 0 and --warmup-ms >= 0");
+        }
+    }
+
+    private int run() {
+        try {
+            warmUp();
+
+            List<PhaseFit> fits = new ArrayList<>();
+            for (String family : families) {
+                fits.addAll(sweepFamily(family));
+            }
+
+            if (updateBaseline) {
+                writeBaseline(fits);
+                System.out.println("Baseline written to " + baselinePath);
+                return 0;
+            }
+            return compare(fits, readBaseline()) ? 0 : 1;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Sweep failed: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Runs the pipeline on mid-sized graphs of every family so the timed runs see compiled code,
+     * whichever families were selected. Warm-up runs skip the forced GCs between phases, so
+     * rounds are cheap; five isolated rounds used to end before the JIT had compiled the
+     * condensation phase, which the sweep then timed at about twice its steady-state cost.
+     */
+    private void warmUp() {
+        long deadline = System.nanoTime() + warmupMillis * 1_000_000;
+        for (int i = 0; i < warmup || System.nanoTime() < deadline; i++) {
+            for (String family : GraphFamilies.VARIANTS) {
+                DirectedGraph graph = new GraphFamilies(i).generate(minN, family, degree);
+                GraphData graphData = new GraphData(0, graph, GraphFamilies.defaultSource(minN, family),
+                        String.valueOf(degree), family);
+                Main.processGraph(graphData, family, new PhaseProfiler(), false);
+            }
+        }
+    }
+
+    /**
+     * Builds one graph of a GraphFamilies variant or a GraphStreamGenerator workload model.
+     */
+    private GraphData generate(int id, int n, String family) {
+        if (Arrays.asList(GraphStreamGenerator.MODELS).contains(family)) {
+            GraphStreamGenerator generator = new GraphStreamGenerator(n, degree, family, 42);
+            return new GraphData(id, generator.generateGraph(), generator.getSource(), String.valueOf(degree), family);
+        }
+        DirectedGraph graph = new GraphFamilies(42).generate(n, family, degree);
+        return new GraphData(id, graph, GraphFamilies.defaultSource(n, family), String.valueOf(degree), family);
+    }
+
+    /**
+     * Runs one family at minN, 2*minN, ... and fits every phase.
+     */
+    private List<PhaseFit> sweepFamily(String family) {
+        Map<String, List<double[]>> samples = new LinkedHashMap<>(); // phase -> {edges, nanos, bytes}
+        int n = minN;
+        int maxN = minN;
+
+        for (int step = 0; step < steps; step++, n *= 2) {
+            GraphData graphData = generate(step + 1, n, family);
+            DirectedGraph graph = graphData.getGraph();
+            int edges = graph.getAllEdges().size();
+            Map<String, double[]> best = new LinkedHashMap<>();
+
+            for (int r = 0; r < repeats; r++) {
+                PhaseProfiler profiler = new PhaseProfiler();
+                Main.processGraph(graphData, family, profiler, true);
+                for (String phase : profiler.getPhases()) {
+                    double[] sample = {edges, profiler.getNanos(phase), profiler.getAllocatedBytes(phase)};
+                    double[] current = best.get(phase);
+                    if (current == null || sample[1] < current[1]) {
+                        best.put(phase, sample);
+                    }
+                }
+            }
+            for (Map.Entry<String, double[]> entry : best.entrySet()) {
+                samples.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(entry.getValue());
+            }
+            maxN = n;
+            System.out.printf(Locale.ROOT, "%-10s n=%-9d edges=%d%n", family, n, edges);
+        }
+
+        List<PhaseFit> fits = new ArrayList<>();
+        for (Map.Entry<String, List<double[]>> entry : samples.entrySet()) {
+            fits.add(PhaseFit.of(family, degree, entry.getKey(), maxN, entry.getValue()));
+        }
+        return fits;
+    }
+
+    /**
+     * Prints a comparison table; returns false if any phase regressed or stopped scaling as expected.
+     */
+    private boolean compare(List<PhaseFit> fits, Map<String, PhaseFit> baseline) {
+        boolean ok = true;
+        System.out.printf(Locale.ROOT, "%-12s %-14s %12s %12s %12s %12s %8s  %s%n",
+                "family", "phase", "ns/edge", "base", "bytes/edge", "base", "exp", "status");
+
+        for (PhaseFit fit : fits) {
+            List<String> failures = new ArrayList<>();
+            List<String> warnings = new ArrayList<>();
+            PhaseFit base = baseline.get(fit.key());
+
+            // Phases below the noise floor are all jitter, their exponent means nothing
+            if (fit.nsPerEdge > noiseFloor && fit.exponent > expectedExponent(fit.phase) + exponentSlack) {
+                failures.add(String.format(Locale.ROOT, "non-linear (exponent %.2f)", fit.exponent));
+            }
+            if (base == null) {
+                warnings.add("no baseline");
+            } else {
+                if (base.maxN != fit.maxN) {
+                    failures.add("baseline measured up to n=" + base.maxN);
+                }
+                if (regressed(fit.bytesPerEdge, base.bytesPerEdge, threshold)) {
+                    failures.add(String.format(Locale.ROOT, "alloc +%.0f%%", (fit.bytesPerEdge / base.bytesPerEdge - 1) * 100));
+                }
+                String time = String.format(Locale.ROOT, "time +%.0f%%", (fit.nsPerEdge / base.nsPerEdge - 1) * 100);
+                if (regressed(fit.nsPerEdge, base.nsPerEdge, timeThreshold)) {
+                    failures.add(time);
+                } else if (regressed(fit.nsPerEdge, base.nsPerEdge, threshold)) {
+                    warnings.add(time);
+                }
+            }
+
+            ok &= failures.isEmpty();
+            String status = "OK";
+            if (!failures.isEmpty()) {
+                failures.addAll(warnings);
+                status = "FAIL: " + String.join(", ", failures);
+            } else if (!warnings.isEmpty()) {
+                status = "WARN: " + String.join(", ", warnings);
+            }
+            System.out.printf(Locale.ROOT, "%-12s %-14s %12.1f %12s %12.1f %12s %8.2f  %s%n",
+                    fit.family, fit.phase, fit.nsPerEdge,
+                    base == null ? "-" : String.format(Locale.ROOT, "%.1f", base.nsPerEdge),
+                    fit.bytesPerEdge,
+                    base == null ? "-" : String.format(Locale.ROOT, "%.1f", base.bytesPerEdge),
+                    fit.exponent, status);
+        }
+        return ok;
+    }
+
+    /**
+     * A measure regressed if it grew by more than the given threshold and by more than the noise
+     * floor, so near-zero phases (e.g. topo on a single-SCC graph) do not trip the gate on jitter.
+     */
+    private boolean regressed(double measured, double base, double limit) {
+        double growth = measured - base;
+        return growth > base * limit && growth > noiseFloor;
+    }
+
+    /**
+     * Critical path tries every condensed vertex as a source, so it is expected to be quadratic.
+     */
+    private static double expectedExponent(String phase) {
+        return phase.equals("critical_path") ? 2.0 : 1.0;
+    }
+
+    private Map<String, PhaseFit> readBaseline() throws IOException {
+        Map<String, PhaseFit> baseline = new LinkedHashMap<>();
+        if (!new File(baselinePath).exists()) {
+            System.err.println("Warning: baseline " + baselinePath + " not found, only checking linearity");
+            return baseline;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(baselinePath))) {
+            String line = reader.readLine(); // header
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] f = line.split(";");
+                PhaseFit fit = new PhaseFit(f[0], Double.parseDouble(f[1]), f[2], Integer.parseInt(f[3]),
+                        Double.parseDouble(f[4]), Double.parseDouble(f[5]), Double.parseDouble(f[6]));
+                baseline.put(fit.key(), fit);
+            }
+        }
+        return baseline;
+    }
+
+    private void writeBaseline(List<PhaseFit> fits) throws IOException {
+        try (FileWriter writer = new FileWriter(baselinePath)) {
+            writer.write(HEADER + "\n");
+            for (PhaseFit fit : fits) {
+                writer.write(String.format(Locale.ROOT, "%s;%s;%s;%d;%.3f;%.3f;%.3f%n",
+                        fit.family, fit.avgDegree, fit.phase, fit.maxN, fit.nsPerEdge, fit.bytesPerEdge, fit.exponent));
+            }
+        }
+    }
+
+    /**
+     * Least-squares fit of one phase over the sweep.
+     * ns/edge and bytes/edge are slopes through the origin (dominated by the largest sizes),
+     * exponent is the slope of log(time) against log(edges).
+     */
+    private static class PhaseFit {
+        final String family;
+        final double avgDegree;
+        final String phase;
+        final int maxN;
+        final double nsPerEdge;
+        final double bytesPerEdge;
+        final double exponent;
+
+        PhaseFit(String family, double avgDegree, String phase, int maxN,
+                 double nsPerEdge, double bytesPerEdge, double exponent) {
+            this.family = family;
+            this.avgDegree = avgDegree;
+            this.phase = phase;
+            this.maxN = maxN;
+            this.nsPerEdge = nsPerEdge;
+            this.bytesPerEdge = bytesPerEdge;
+            this.exponent = exponent;
+        }
+
+        static PhaseFit of(String family, double avgDegree, String phase, int maxN, List<double[]> samples) {
+            double sxx = 0, sxt = 0, sxb = 0;
+            double lx = 0, lt = 0, lxx = 0, lxt = 0;
+            int k = 0;
+            for (double[] s : samples) {
+                sxx += s[0] * s[0];
+                sxt += s[0] * s[1];
+                sxb += s[0] * s[2];
+                if (s[0] > 0 && s[1] > 0) {
+                    double x = Math.log(s[0]);
+                    double t = Math.log(s[1]);
+                    lx += x;
+                    lt += t;
+                    lxx += x * x;
+                    lxt += x * t;
+                    k++;
+                }
+            }
+            double denom = k * lxx - lx * lx;
+            double exponent = (k >= 2 && denom != 0) ? (k * lxt - lx * lt) / denom : 0;
+            return new PhaseFit(family, avgDegree, phase, maxN,
+                    sxx == 0 ? 0 : sxt / sxx, sxx == 0 ? 0 : sxb / sxx, exponent);
+        }
+
+        String key() {
+            return family + ";" + avgDegree + ";" + phase;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.aitu.core;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Read-only CSR graph over NIO buffers, e.g. sections of a memory-mapped file.
+ * Neighbours of v are targets[offsets[v] .. offsets[v + 1]), nothing is parsed or copied.
+ */
+public class BufferGraph implements Graph {
+    private final int n;
+    private final IntBuffer offsets; // n + 1 entries
+    private final IntBuffer targets;
+    private final DoubleBuffer weights;
+
+    public BufferGraph(int n, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights) {
+        if (offsets.limit() != n + 1) {
+            throw new IllegalArgumentException("Offsets must have n + 1 entries");
+        }
+        if (targets.limit() != weights.limit() || targets.limit() != offsets.get(n)) {
+            throw new IllegalArgumentException("Targets and weights must have one entry per edge");
+        }
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.limit();
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return targets.get(offsets.get(v) + i);
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return weights.get(offsets.get(v) + i);
+    }
+}
@@ -0,0 +1,111 @@
+package com.aitu.core;
+
+/**
+ * CSR graph with float weights and, for graphs of at most 65,536 vertices, 16-bit targets.
+ * An edge takes 8 bytes (6 with narrow targets) instead of CsrGraph's 12. Our weights are
+ * durations with one decimal place, which a float holds to about seven significant digits;
+ * {@link #getWeight(int, int)} widens the stored float, so algorithms on the Graph interface
+ * see the rounded weights.
+ *
+ * The path engines have float overloads taking this class, which relax directly in float
+ * and return a FloatPathResult.
+ */
+public final class CompactCsrGraph implements Graph {
+    /** Largest vertex count whose ids fit in the 16-bit target array. */
+    public static final int MAX_NARROW_VERTICES = 1 << 16;
+
+    private final int n;
+    private final int[] offsets;
+    private final char[] narrowTargets; // used when n <= MAX_NARROW_VERTICES, else null
+    private final int[] wideTargets;    // used otherwise, else null
+    private final float[] weights;
+
+    private CompactCsrGraph(int n, int[] offsets, char[] narrowTargets, int[] wideTargets, float[] weights) {
+        this.n = n;
+        this.offsets = offsets;
+        this.narrowTargets = narrowTargets;
+        this.wideTargets = wideTargets;
+        this.weights = weights;
+    }
+
+    /**
+     * Copies any graph, keeping each neighbour list's order and rounding weights to float.
+     * Time complexity: O(V + E)
+     */
+    public static CompactCsrGraph copyOf(Graph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (graph instanceof CompactCsrGraph) return (CompactCsrGraph) graph;
+        int n = graph.getN();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + graph.getOutDegree(v);
+        }
+        int m = offsets[n];
+        boolean narrow = n <= MAX_NARROW_VERTICES;
+        char[] narrowTargets = narrow ? new char[m] : null;
+        int[] wideTargets = narrow ? null : new int[m];
+        float[] weights = new float[m];
+        for (int v = 0; v < n; v++) {
+            for (int i = 0, deg = graph.getOutDegree(v), e = offsets[v]; i < deg; i++, e++) {
+                int target = graph.getTarget(v, i);
+                if (narrow) {
+                    narrowTargets[e] = (char) target;
+                } else {
+                    wideTargets[e] = target;
+                }
+                weights[e] = (float) graph.getWeight(v, i);
+            }
+        }
+        return new CompactCsrGraph(n, offsets, narrowTargets, wideTargets, weights);
+    }
+
+    /**
+     * Returns true if targets are stored in 16 bits.
+     */
+    public boolean hasNarrowTargets() {
+        return narrowTargets != null;
+    }
+
+    /**
+     * Returns the weight of the i-th outgoing edge of v as stored.
+     */
+    public float getFloatWeight(int v, int i) {
+        return weights[offsets[v] + i];
+    }
+
+    /**
+     * Returns the bytes held by the offset, target and weight arrays.
+     */
+    public long getMemoryBytes() {
+        long m = weights.length;
+        return 4L * (n + 1) + (narrowTargets != null ? 2 : 4) * m + 4 * m;
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return weights.length;
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        int e = offsets[v] + i;
+        return narrowTargets != null ? narrowTargets[e] : wideTargets[e];
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return weights[offsets[v] + i];
+    }
+}
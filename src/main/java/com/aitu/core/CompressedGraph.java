@@ -0,0 +1,270 @@
+package com.aitu.core;
+
+import java.util.Arrays;
+
+/**
+ * Read-only graph with gap-encoded adjacency, for graphs too large to hold as CSR.
+ *
+ * Neighbour lists are sorted by target and stored back to back. The first target of a list is
+ * stored as a zigzag varint of its distance from the source, and every later target as the
+ * varint gap from the previous one. Each target is followed by its weight as a varint count of
+ * resolution units. On graphs with locality most gaps fit in one byte; weights of 1.0 to 10.0
+ * in tenths take one byte too. Edges are numbered globally, and every BLOCK-th edge restarts
+ * the gap coding and has its byte position indexed. Edge i of v is therefore found by decoding
+ * fewer than 2 * BLOCK entries, usually within one cache line. The index costs 4 bytes per
+ * vertex plus 2 bits per edge. Decoding keeps no state, so any number of threads can read at once.
+ *
+ * Neighbours are in increasing target order (parallel edges by weight), which is also the
+ * native edge order; algorithms may therefore number results differently than on the graph
+ * this was copied from, with the same meaning. The encoded data is limited to 2 GB.
+ */
+public final class CompressedGraph implements Graph {
+    /** Edges per indexed block. */
+    public static final int BLOCK = 16;
+    private static final int BLOCK_SHIFT = 4;
+
+    private final int n;
+    private final double resolution;
+    private final double divisor; // 1 / resolution when that is whole, so tenths decode exactly
+    private final int[] edgeOffsets; // first edge index of v, n + 1 entries
+    private final int[] blockPos;    // byte position of edge b * BLOCK, for each block b
+    private final byte[] data;
+
+    private CompressedGraph(int n, double resolution, int[] edgeOffsets, int[] blockPos, byte[] data) {
+        this.n = n;
+        this.resolution = resolution;
+        double inverse = Math.rint(1 / resolution);
+        this.divisor = resolution < 1 && Math.abs(inverse * resolution - 1) < 1e-12 ? inverse : 0;
+        this.edgeOffsets = edgeOffsets;
+        this.blockPos = blockPos;
+        this.data = data;
+    }
+
+    /**
+     * Compresses a graph whose weights are tenths, as generated for our inputs.
+     */
+    public static CompressedGraph copyOf(Graph graph) {
+        return copyOf(graph, 0.1);
+    }
+
+    /**
+     * Compresses a graph, storing each weight as a whole number of resolution units. The source
+     * is read one vertex at a time, so it can be a file-backed graph larger than the heap.
+     * Time complexity: O(E log d), d the largest out-degree
+     * @throws IllegalArgumentException if a weight is negative or not a multiple of the resolution
+     */
+    public static CompressedGraph copyOf(Graph graph, double resolution) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("Resolution must be positive");
+        }
+        int n = graph.getN();
+        int[] edgeOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            edgeOffsets[v + 1] = edgeOffsets[v] + graph.getOutDegree(v);
+        }
+        int[] blockPos = new int[(edgeOffsets[n] + BLOCK - 1) >>> BLOCK_SHIFT];
+        byte[] data = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, 2L * edgeOffsets[n]))];
+        int pos = 0;
+        long[] entries = new long[16];
+
+        for (int v = 0; v < n; v++) {
+            int degree = graph.getOutDegree(v);
+            if (entries.length < degree) entries = new long[Math.max(degree, entries.length * 2)];
+            for (int i = 0; i < degree; i++) {
+                entries[i] = ((long) graph.getTarget(v, i) << 32) | units(graph.getWeight(v, i), resolution);
+            }
+            Arrays.sort(entries, 0, degree);
+
+            int previous = 0;
+            for (int i = 0, e = edgeOffsets[v]; i < degree; i++, e++) {
+                if (data.length - pos < 10) {
+                    if (data.length == Integer.MAX_VALUE - 8) {
+                        throw new IllegalArgumentException("Compressed graph too large");
+                    }
+                    data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, data.length * 2L));
+                }
+                int target = (int) (entries[i] >>> 32);
+                if ((e & (BLOCK - 1)) == 0) {
+                    blockPos[e >>> BLOCK_SHIFT] = pos;
+                }
+                if (i == 0 || (e & (BLOCK - 1)) == 0) {
+                    int delta = target - v;
+                    pos = writeVarint(data, pos, (delta << 1) ^ (delta >> 31));
+                } else {
+                    pos = writeVarint(data, pos, target - previous);
+                }
+                pos = writeVarint(data, pos, (int) entries[i]);
+                previous = target;
+            }
+        }
+        return new CompressedGraph(n, resolution, edgeOffsets, blockPos, Arrays.copyOf(data, pos));
+    }
+
+    private static int units(double weight, double resolution) {
+        double scaled = Math.rint(weight / resolution);
+        if (!(scaled >= 0 && scaled <= Integer.MAX_VALUE)
+                || Math.abs(scaled * resolution - weight) > 1e-9 * Math.max(1, Math.abs(weight))) {
+            throw new IllegalArgumentException("Weights must be non-negative multiples of the resolution");
+        }
+        return (int) scaled;
+    }
+
+    private double weight(int units) {
+        return divisor != 0 ? units / divisor : units * resolution;
+    }
+
+    private static int writeVarint(byte[] data, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[pos++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        data[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Reads the varint at pos; returns the value in the high 32 bits and the next position in the low 32.
+     */
+    private static long readVarint(byte[] data, int pos) {
+        int b = data[pos++];
+        int value = b & 0x7F;
+        for (int shift = 7; b < 0; shift += 7) {
+            b = data[pos++];
+            value |= (b & 0x7F) << shift;
+        }
+        return ((long) value << 32) | pos;
+    }
+
+    private static int skipVarint(byte[] data, int pos) {
+        while (data[pos++] < 0) {
+            // continuation byte
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the weight resolution.
+     */
+    public double getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Returns the bytes held by the encoded data and its index.
+     */
+    public long getMemoryBytes() {
+        return data.length + 4L * (edgeOffsets.length + blockPos.length);
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeOffsets[n];
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return edgeOffsets[v + 1] - edgeOffsets[v];
+    }
+
+    /**
+     * Byte position of the entry where decoding for edge i of v starts: edge i's block start or,
+     * if the list starts later in that block, the list start.
+     */
+    private int restartPosition(int v, int i) {
+        int first = edgeOffsets[v];
+        int e = first + i;
+        int blockStart = e & -BLOCK;
+        int pos = blockPos[blockStart >>> BLOCK_SHIFT];
+        // Skip the tail of earlier lists in this block
+        for (int k = first - blockStart; k > 0; k--) {
+            pos = skipVarint(data, skipVarint(data, pos));
+        }
+        return pos;
+    }
+
+    /**
+     * Decodes from the last restart before edge i. Time complexity: O(BLOCK)
+     */
+    @Override
+    public int getTarget(int v, int i) {
+        int e = edgeOffsets[v] + i;
+        int restart = Math.max(edgeOffsets[v], e & -BLOCK);
+        long r = readVarint(data, restartPosition(v, i));
+        int zigzag = (int) (r >>> 32);
+        int target = v + ((zigzag >>> 1) ^ -(zigzag & 1));
+        int pos = (int) r;
+        for (int k = e - restart; k > 0; k--) {
+            r = readVarint(data, skipVarint(data, pos));
+            target += (int) (r >>> 32);
+            pos = (int) r;
+        }
+        return target;
+    }
+
+    /**
+     * Decodes from the last restart before edge i. Time complexity: O(BLOCK)
+     */
+    @Override
+    public double getWeight(int v, int i) {
+        int e = edgeOffsets[v] + i;
+        int pos = restartPosition(v, i);
+        for (int k = e - Math.max(edgeOffsets[v], e & -BLOCK); k > 0; k--) {
+            pos = skipVarint(data, skipVarint(data, pos));
+        }
+        return weight((int) (readVarint(data, skipVarint(data, pos)) >>> 32));
+    }
+
+    /**
+     * Decodes the list in one pass. Time complexity: O(BLOCK + d)
+     */
+    @Override
+    public int getTargets(int v, int[] buffer) {
+        int first = edgeOffsets[v];
+        int degree = edgeOffsets[v + 1] - first;
+        int pos = degree == 0 ? 0 : restartPosition(v, 0);
+        int target = 0;
+        for (int i = 0, e = first; i < degree; i++, e++) {
+            long r = readVarint(data, pos);
+            int value = (int) (r >>> 32);
+            target = i == 0 || (e & (BLOCK - 1)) == 0 ? v + ((value >>> 1) ^ -(value & 1)) : target + value;
+            buffer[i] = target;
+            pos = skipVarint(data, (int) r);
+        }
+        return degree;
+    }
+
+    /**
+     * Decodes every list once, front to back. Time complexity: O(V + E)
+     */
+    @Override
+    public void forEachEdge(EdgeVisitor visitor) {
+        int pos = 0;
+        for (int v = 0; v < n; v++) {
+            int target = 0;
+            for (int e = edgeOffsets[v], end = edgeOffsets[v + 1]; e < end; e++) {
+                long r = readVarint(data, pos);
+                int value = (int) (r >>> 32);
+                boolean restart = e == edgeOffsets[v] || (e & (BLOCK - 1)) == 0;
+                target = restart ? v + ((value >>> 1) ^ -(value & 1)) : target + value;
+                r = readVarint(data, (int) r);
+                pos = (int) r;
+                visitor.visit(v, target, weight((int) (r >>> 32)));
+            }
+        }
+    }
+
+    @Override
+    public int[] getInDegrees() {
+        int[] inDegree = new int[n];
+        forEachEdge((from, to, weight) -> inDegree[to]++);
+        return inDegree;
+    }
+}
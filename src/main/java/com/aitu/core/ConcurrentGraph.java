@@ -0,0 +1,209 @@
+package com.aitu.core;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Directed graph that ingestion threads can append to while other threads query it.
+ *
+ * Appends never wait. Each vertex keeps its edges in chunks that double in size, so existing
+ * slots never move. An append joins the current epoch, claims the next slot of its vertex with
+ * an atomic increment, installs a missing chunk with a CAS and writes the edge stamped with its
+ * epoch.
+ *
+ * Queries run on a {@link Snapshot}, a consistent cut of the appends. snapshot() starts a new
+ * epoch and waits for the appends still running in the old one; each vertex then keeps its
+ * prefix of slots stamped with an old epoch. Those slots never change again, so TarjanSCC,
+ * KahnTopologicalSort or the path engines see one fixed graph while appends go on. A snapshot
+ * holds every append that finished before snapshot() was called, and whenever it holds an
+ * append it also holds every append that finished before that one started, on any vertex.
+ */
+public class ConcurrentGraph {
+    private static final int FIRST_CHUNK = 4;
+
+    private final int n;
+    private final AtomicIntegerArray reserved; // slots claimed per vertex
+    private final AtomicReferenceArray<Chunk[]> chunks; // directory per vertex, replaced when it grows
+    private final AtomicInteger epoch = new AtomicInteger();
+    // Appends in flight, by epoch parity; a snapshot drains the old epoch's counter
+    private final AtomicInteger[] active = {new AtomicInteger(), new AtomicInteger()};
+
+    /**
+     * Constructs a concurrent graph with n vertices.
+     * @throws IllegalArgumentException if n is negative
+     */
+    public ConcurrentGraph(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Vertex count must be >= 0");
+        }
+        this.n = n;
+        this.reserved = new AtomicIntegerArray(n);
+        this.chunks = new AtomicReferenceArray<>(n);
+    }
+
+    /**
+     * Appends a weighted edge; safe to call from any number of threads. Never waits for other
+     * writers or for snapshots.
+     * @throws IllegalArgumentException if vertex is out of bounds
+     */
+    public void addEdge(int from, int to, double weight) {
+        if (from < 0 || from >= n || to < 0 || to >= n) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+        // Join the epoch before claiming the slot: a snapshot that missed this append then
+        // also misses every later slot of the vertex
+        int e;
+        AtomicInteger counter;
+        while (true) {
+            e = epoch.get();
+            counter = active[e & 1];
+            counter.incrementAndGet();
+            if (epoch.get() == e) break;
+            counter.decrementAndGet(); // a snapshot started in between; join the new epoch
+        }
+        try {
+            int slot = reserved.getAndIncrement(from);
+            int k = chunkIndex(slot);
+            Chunk chunk = chunk(from, k);
+            int offset = slot - chunkStart(k);
+            chunk.weights[offset] = weight;
+            chunk.epochs[offset] = e;
+            // Target is stored + 1 with a volatile write, so a non-zero target marks a finished slot
+            chunk.targets.set(offset, to + 1);
+        } finally {
+            counter.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns true if slot of v is finished and belongs to an epoch up to cut.
+     */
+    private boolean isBefore(Chunk[] directory, int slot, int cut) {
+        int k = chunkIndex(slot);
+        if (directory == null || k >= directory.length) return false;
+        Chunk chunk = directory[k];
+        int offset = slot - chunkStart(k);
+        return chunk.targets.get(offset) != 0 && chunk.epochs[offset] - cut <= 0;
+    }
+
+    /**
+     * Returns chunk k of v, installing it (and any before it) if needed.
+     */
+    private Chunk chunk(int v, int k) {
+        while (true) {
+            Chunk[] directory = chunks.get(v);
+            if (directory != null && k < directory.length) {
+                return directory[k];
+            }
+            int length = directory == null ? 0 : directory.length;
+            Chunk[] grown = directory == null ? new Chunk[k + 1] : Arrays.copyOf(directory, k + 1);
+            for (int i = length; i <= k; i++) grown[i] = new Chunk(FIRST_CHUNK << i);
+            // On a lost race the other writer's directory is at least as long; retry against it
+            chunks.compareAndSet(v, directory, grown);
+        }
+    }
+
+    /**
+     * Chunk k holds slots [FIRST_CHUNK * (2^k - 1), FIRST_CHUNK * (2^(k+1) - 1)).
+     */
+    private static int chunkIndex(int slot) {
+        return 31 - Integer.numberOfLeadingZeros(slot / FIRST_CHUNK + 1);
+    }
+
+    private static int chunkStart(int k) {
+        return FIRST_CHUNK * ((1 << k) - 1);
+    }
+
+    /**
+     * Takes a consistent cut. Starts a new epoch, waits for the appends of the old one to
+     * finish, then gives each vertex its prefix of old-epoch slots. Slots claimed before the
+     * epoch changed are all old, so only the slots claimed while the snapshot runs are checked.
+     * Snapshots are taken one at a time. Time complexity: O(V) plus the appends that race with it
+     */
+    public synchronized Snapshot snapshot() {
+        int[] degree = new int[n];
+        for (int v = 0; v < n; v++) {
+            degree[v] = reserved.get(v);
+        }
+        int cut = epoch.getAndIncrement();
+        AtomicInteger old = active[cut & 1];
+        while (old.get() != 0) {
+            Thread.onSpinWait();
+        }
+
+        Chunk[][] directories = new Chunk[n][];
+        long edges = 0;
+        for (int v = 0; v < n; v++) {
+            // Read after the wait, so the directory covers every old-epoch slot
+            Chunk[] directory = chunks.get(v);
+            int end = reserved.get(v);
+            int d = degree[v];
+            while (d < end && isBefore(directory, d, cut)) d++;
+            degree[v] = d;
+            directories[v] = directory;
+            edges += d;
+        }
+        return new Snapshot(degree, directories, (int) Math.min(edges, Integer.MAX_VALUE));
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * A fixed view of the graph at one point in time. Any number of threads may read it.
+     */
+    public static final class Snapshot implements Graph {
+        private final int[] degree;
+        private final Chunk[][] directories;
+        private final int edgeCount;
+
+        private Snapshot(int[] degree, Chunk[][] directories, int edgeCount) {
+            this.degree = degree;
+            this.directories = directories;
+            this.edgeCount = edgeCount;
+        }
+
+        @Override
+        public int getN() {
+            return degree.length;
+        }
+
+        @Override
+        public int getEdgeCount() {
+            return edgeCount;
+        }
+
+        @Override
+        public int getOutDegree(int v) {
+            return degree[v];
+        }
+
+        @Override
+        public int getTarget(int v, int i) {
+            int k = chunkIndex(i);
+            // Plain read: the snapshot's wait for the old epoch already ordered it
+            return directories[v][k].targets.getPlain(i - chunkStart(k)) - 1;
+        }
+
+        @Override
+        public double getWeight(int v, int i) {
+            int k = chunkIndex(i);
+            return directories[v][k].weights[i - chunkStart(k)];
+        }
+    }
+
+    private static final class Chunk {
+        final AtomicIntegerArray targets;
+        final double[] weights;
+        final int[] epochs;
+
+        Chunk(int capacity) {
+            this.targets = new AtomicIntegerArray(capacity);
+            this.weights = new double[capacity];
+            this.epochs = new int[capacity];
+        }
+    }
+}
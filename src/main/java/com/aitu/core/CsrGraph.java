@@ -0,0 +1,490 @@
+package com.aitu.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Immutable weighted directed graph in compressed sparse row (CSR) form.
+ * Neighbours of v are targets[offsets[v] .. offsets[v + 1]), kept in the order edges were given.
+ */
+public class CsrGraph implements Graph {
+    // Below this many edges a parallel build costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    /**
+     * Wraps existing CSR arrays without copying.
+     * @throws IllegalArgumentException if array sizes do not match
+     */
+    public CsrGraph(int n, int[] offsets, int[] targets, double[] weights) {
+        if (offsets.length != n + 1 || offsets[0] != 0) {
+            throw new IllegalArgumentException("Offsets must have n + 1 entries starting at 0");
+        }
+        if (targets.length != offsets[n] || weights.length != offsets[n]) {
+            throw new IllegalArgumentException("Targets and weights must have one entry per edge");
+        }
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds a CSR graph from the first m entries of parallel edge arrays.
+     * Uses a stable counting sort by source, so each neighbour list keeps input order;
+     * large inputs are sorted in parallel on the common ForkJoinPool.
+     * @throws IllegalArgumentException if a vertex is out of bounds
+     */
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, double[] weights, int m) {
+        return fromEdges(n, from, to, weights, m, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #fromEdges(int, int[], int[], double[], int)} on the given pool.
+     */
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, double[] weights, int m, ForkJoinPool pool) {
+        checkBounds(n, from, to, m, pool);
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        double[] w = new double[m];
+
+        int parallelism = pool.getParallelism();
+        if (m < PARALLEL_THRESHOLD || parallelism < 2 || n < 2) {
+            countingSort(from, to, weights, 0, m, 0, n, offsets, targets, w);
+        } else {
+            parallelCountingSort(n, from, to, weights, m, pool, offsets, targets, w);
+        }
+        offsets[n] = m;
+        return new CsrGraph(n, offsets, targets, w);
+    }
+
+    /**
+     * Copies any graph into CSR form.
+     */
+    public static CsrGraph copyOf(Graph graph) {
+        if (graph instanceof CsrGraph) return (CsrGraph) graph;
+        int n = graph.getN();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + graph.getOutDegree(v);
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            for (int i = 0, deg = graph.getOutDegree(v), base = offsets[v]; i < deg; i++) {
+                targets[base + i] = graph.getTarget(v, i);
+                weights[base + i] = graph.getWeight(v, i);
+            }
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Builds the transpose: vertex v's neighbours are the sources of its incoming edges, with
+     * the same weights, in the graph's native edge order (insertion order for DirectedGraph).
+     * Time complexity: O(V + E)
+     */
+    public static CsrGraph transposeOf(Graph graph) {
+        int n = graph.getN();
+        int[] offsets = new int[n + 1];
+        int[] inDegree = graph.getInDegrees();
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + inDegree[v];
+        }
+        int[] sources = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int[] next = Arrays.copyOf(offsets, n);
+        graph.forEachEdge((from, to, weight) -> {
+            int pos = next[to]++;
+            sources[pos] = from;
+            weights[pos] = weight;
+        });
+        return new CsrGraph(n, offsets, sources, weights);
+    }
+
+    /**
+     * Throws if any of the first m edges has an endpoint outside [0, n). The per-edge test is
+     * branch-free (sign bits ORed together), so the loop vectorizes; large inputs are split
+     * over the pool.
+     */
+    private static void checkBounds(int n, int[] from, int[] to, int m, ForkJoinPool pool) {
+        boolean ok;
+        if (m < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            ok = inBounds(n, from, to, 0, m);
+        } else {
+            int chunks = pool.getParallelism() * 4;
+            boolean[] chunkOk = new boolean[chunks];
+            invokeAll(pool, chunks, c -> chunkOk[c] = inBounds(n, from, to,
+                    (int) ((long) m * c / chunks), (int) ((long) m * (c + 1) / chunks)));
+            ok = true;
+            for (boolean b : chunkOk) ok &= b;
+        }
+        if (!ok) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+    }
+
+    private static boolean inBounds(int n, int[] from, int[] to, int lo, int hi) {
+        int bits = 0;
+        for (int e = lo; e < hi; e++) {
+            bits |= from[e] | to[e] | (n - 1 - from[e]) | (n - 1 - to[e]);
+        }
+        return bits >= 0;
+    }
+
+    /**
+     * Bulk loader: collects edges as chunks of primitive arrays and builds the CSR in one go.
+     * Chunks are kept by reference (the caller must not modify them until build() returns) and
+     * concatenated in parallel, then validated and counting-sorted as in fromEdges. Optionally
+     * each neighbour list is sorted by target and parallel edges are dropped, keeping the first
+     * one added; these passes run in parallel over vertex ranges.
+     */
+    public static class Builder {
+        private final int n;
+        private final List<int[]> fromChunks = new ArrayList<>();
+        private final List<int[]> toChunks = new ArrayList<>();
+        private final List<double[]> weightChunks = new ArrayList<>();
+        private final List<Integer> chunkSizes = new ArrayList<>();
+        private long edgeCount;
+        private int[] pendingFrom = new int[0];
+        private int[] pendingTo = new int[0];
+        private double[] pendingWeights = new double[0];
+        private int pending;
+        private boolean sorted;
+        private boolean distinct;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        /**
+         * @throws IllegalArgumentException if n is negative
+         */
+        public Builder(int n) {
+            if (n < 0) {
+                throw new IllegalArgumentException("Vertex count must be >= 0");
+            }
+            this.n = n;
+        }
+
+        /**
+         * Adds the first count entries of the arrays as edges, without copying them.
+         * @throws IllegalArgumentException if an array is shorter than count
+         */
+        public Builder addEdges(int[] from, int[] to, double[] weights, int count) {
+            if (from == null || to == null || weights == null) {
+                throw new IllegalArgumentException("Arrays cannot be null");
+            }
+            if (count < 0 || from.length < count || to.length < count || weights.length < count) {
+                throw new IllegalArgumentException("Arrays must hold count entries");
+            }
+            flush();
+            addChunk(from, to, weights, count);
+            return this;
+        }
+
+        /**
+         * Adds one edge; single edges are buffered into chunks.
+         */
+        public Builder addEdge(int from, int to, double weight) {
+            if (pending == pendingFrom.length) {
+                int capacity = Math.max(1024, pending * 2);
+                pendingFrom = Arrays.copyOf(pendingFrom, capacity);
+                pendingTo = Arrays.copyOf(pendingTo, capacity);
+                pendingWeights = Arrays.copyOf(pendingWeights, capacity);
+            }
+            pendingFrom[pending] = from;
+            pendingTo[pending] = to;
+            pendingWeights[pending++] = weight;
+            return this;
+        }
+
+        /**
+         * Lists each vertex's neighbours in increasing target order; parallel edges keep the
+         * order they were added in.
+         */
+        public Builder sorted() {
+            this.sorted = true;
+            return this;
+        }
+
+        /**
+         * Keeps only the first edge added between each pair of vertices. Implies sorted().
+         */
+        public Builder distinct() {
+            this.sorted = true;
+            this.distinct = true;
+            return this;
+        }
+
+        /**
+         * Runs the build on the given pool instead of the common pool.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            if (pool == null) {
+                throw new IllegalArgumentException("Pool cannot be null");
+            }
+            this.pool = pool;
+            return this;
+        }
+
+        private void flush() {
+            if (pending > 0) {
+                addChunk(pendingFrom, pendingTo, pendingWeights, pending);
+                pendingFrom = new int[0];
+                pendingTo = new int[0];
+                pendingWeights = new double[0];
+                pending = 0;
+            }
+        }
+
+        private void addChunk(int[] from, int[] to, double[] weights, int count) {
+            if (edgeCount + count > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many edges");
+            }
+            fromChunks.add(from);
+            toChunks.add(to);
+            weightChunks.add(weights);
+            chunkSizes.add(count);
+            edgeCount += count;
+        }
+
+        /**
+         * Builds the graph. Time complexity: O(V + E), plus O(d log d) per vertex of out-degree d
+         * when sorting
+         * @throws IllegalArgumentException if a vertex is out of bounds
+         */
+        public CsrGraph build() {
+            flush();
+            int m = (int) edgeCount;
+            int[] from;
+            int[] to;
+            double[] weights;
+            if (fromChunks.size() == 1) {
+                from = fromChunks.get(0);
+                to = toChunks.get(0);
+                weights = weightChunks.get(0);
+            } else {
+                from = new int[m];
+                to = new int[m];
+                weights = new double[m];
+                int[] at = new int[fromChunks.size()];
+                for (int c = 1; c < at.length; c++) at[c] = at[c - 1] + chunkSizes.get(c - 1);
+                invokeAll(pool, at.length, c -> {
+                    System.arraycopy(fromChunks.get(c), 0, from, at[c], chunkSizes.get(c));
+                    System.arraycopy(toChunks.get(c), 0, to, at[c], chunkSizes.get(c));
+                    System.arraycopy(weightChunks.get(c), 0, weights, at[c], chunkSizes.get(c));
+                });
+            }
+            CsrGraph graph = fromEdges(n, from, to, weights, m, pool);
+            return sorted ? sortNeighbours(graph, distinct, pool) : graph;
+        }
+    }
+
+    /**
+     * Sorts every neighbour list by target (stable) and, if distinct, drops all but the first
+     * edge to each target. Vertex ranges are handled in parallel.
+     */
+    private static CsrGraph sortNeighbours(CsrGraph graph, boolean distinct, ForkJoinPool pool) {
+        int n = graph.n;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        double[] weights = graph.weights;
+        int[] kept = new int[n];
+        int ranges = n < 2 || graph.getEdgeCount() < PARALLEL_THRESHOLD ? 1 : Math.min(n, pool.getParallelism() * 8);
+        invokeAll(pool, ranges, r -> {
+            long[] keys = new long[16];
+            double[] scratch = new double[16];
+            for (int v = (int) ((long) n * r / ranges), end = (int) ((long) n * (r + 1) / ranges); v < end; v++) {
+                int lo = offsets[v];
+                int degree = offsets[v + 1] - lo;
+                if (keys.length < degree) {
+                    keys = new long[Math.max(degree, keys.length * 2)];
+                    scratch = new double[keys.length];
+                }
+                // Key: target, then position, so equal targets keep their order
+                for (int i = 0; i < degree; i++) keys[i] = ((long) targets[lo + i] << 32) | i;
+                Arrays.sort(keys, 0, degree);
+                System.arraycopy(weights, lo, scratch, 0, degree);
+                int count = 0;
+                for (int i = 0; i < degree; i++) {
+                    int target = (int) (keys[i] >>> 32);
+                    if (distinct && count > 0 && targets[lo + count - 1] == target) continue;
+                    targets[lo + count] = target;
+                    weights[lo + count++] = scratch[(int) keys[i]];
+                }
+                kept[v] = count;
+            }
+        });
+        if (!distinct) return graph;
+
+        int[] newOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) newOffsets[v + 1] = newOffsets[v] + kept[v];
+        if (newOffsets[n] == offsets[n]) return graph;
+        int[] newTargets = new int[newOffsets[n]];
+        double[] newWeights = new double[newOffsets[n]];
+        invokeAll(pool, ranges, r -> {
+            for (int v = (int) ((long) n * r / ranges), end = (int) ((long) n * (r + 1) / ranges); v < end; v++) {
+                System.arraycopy(targets, offsets[v], newTargets, newOffsets[v], kept[v]);
+                System.arraycopy(weights, offsets[v], newWeights, newOffsets[v], kept[v]);
+            }
+        });
+        return new CsrGraph(n, newOffsets, newTargets, newWeights);
+    }
+
+    /**
+     * Stable counting sort of edges [lo, hi) whose sources all lie in [vLo, vHi).
+     * Those edges occupy output positions [lo, hi); only offsets[vLo .. vHi) are written.
+     */
+    private static void countingSort(int[] from, int[] to, double[] weights, int lo, int hi,
+                                     int vLo, int vHi, int[] offsets, int[] targets, double[] w) {
+        int[] next = new int[vHi - vLo];
+        for (int e = lo; e < hi; e++) {
+            next[from[e] - vLo]++;
+        }
+        int running = lo;
+        for (int v = vLo; v < vHi; v++) {
+            int count = next[v - vLo];
+            next[v - vLo] = running;
+            offsets[v] = running;
+            running += count;
+        }
+        for (int e = lo; e < hi; e++) {
+            int pos = next[from[e] - vLo]++;
+            targets[pos] = to[e];
+            w[pos] = weights[e];
+        }
+    }
+
+    /**
+     * Two-pass parallel counting sort.
+     * Pass 1: edge chunks are scattered (stably) into B buckets of consecutive source vertices.
+     * Pass 2: each bucket is counting-sorted by source on its own; buckets are disjoint CSR ranges.
+     */
+    private static void parallelCountingSort(int n, int[] from, int[] to, double[] weights, int m,
+                                             ForkJoinPool pool, int[] offsets, int[] targets, double[] w) {
+        int chunks = pool.getParallelism() * 4;
+        int buckets = Math.min(n, pool.getParallelism() * 8);
+        int bucketWidth = (n + buckets - 1) / buckets;
+        buckets = (n + bucketWidth - 1) / bucketWidth;
+        int[] chunkStart = new int[chunks + 1];
+        for (int c = 0; c <= chunks; c++) {
+            chunkStart[c] = (int) ((long) m * c / chunks);
+        }
+
+        // Pass 1a: per-chunk bucket histograms
+        int[][] counts = new int[chunks][buckets];
+        invokeAll(pool, chunks, c -> {
+            int[] local = counts[c];
+            for (int e = chunkStart[c]; e < chunkStart[c + 1]; e++) {
+                local[from[e] / bucketWidth]++;
+            }
+        });
+
+        // Bucket-major, chunk-minor prefix sums keep the scatter stable
+        int[] bucketStart = new int[buckets + 1];
+        int[][] cursor = new int[chunks][buckets];
+        int running = 0;
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b] = running;
+            for (int c = 0; c < chunks; c++) {
+                cursor[c][b] = running;
+                running += counts[c][b];
+            }
+        }
+        bucketStart[buckets] = running;
+
+        // Pass 1b: scatter into bucket order
+        int[] from2 = new int[m];
+        int[] to2 = new int[m];
+        double[] w2 = new double[m];
+        invokeAll(pool, chunks, c -> {
+            int[] next = cursor[c];
+            for (int e = chunkStart[c]; e < chunkStart[c + 1]; e++) {
+                int pos = next[from[e] / bucketWidth]++;
+                from2[pos] = from[e];
+                to2[pos] = to[e];
+                w2[pos] = weights[e];
+            }
+        });
+
+        // Pass 2: each bucket owns vertices [b * width, (b + 1) * width) and edges bucketStart[b..b+1]
+        invokeAll(pool, buckets, b -> {
+            int vLo = b * bucketWidth;
+            int vHi = Math.min(n, vLo + bucketWidth);
+            countingSort(from2, to2, w2, bucketStart[b], bucketStart[b + 1], vLo, vHi, offsets, targets, w);
+        });
+    }
+
+    private interface IndexTask {
+        void run(int index);
+    }
+
+    private static void invokeAll(ForkJoinPool pool, int count, IndexTask task) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(pool.submit(() -> task.run(index)));
+        }
+        for (ForkJoinTask<?> t : tasks) {
+            t.join();
+        }
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return targets[offsets[v] + i];
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return weights[offsets[v] + i];
+    }
+
+    @Override
+    public int getTargets(int v, int[] buffer) {
+        int degree = offsets[v + 1] - offsets[v];
+        System.arraycopy(targets, offsets[v], buffer, 0, degree);
+        return degree;
+    }
+
+    /**
+     * Returns the internal offsets array (n + 1 entries). Do not modify.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the internal targets array (one entry per edge). Do not modify.
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * Returns the internal weights array (one entry per edge). Do not modify.
+     */
+    public double[] getWeights() {
+        return weights;
+    }
+}
@@ -0,0 +1,178 @@
+package com.aitu.core;
+
+import java.util.BitSet;
+
+/**
+ * Adjacency-matrix backend for dense graphs: one bitset row per vertex plus an n x n weight
+ * matrix. Kernels walk rows 64 vertices at a time, using Long.numberOfTrailingZeros to pick
+ * out neighbours, so skipping visited vertices costs one AND per word instead of one pointer
+ * per edge. Rows and weights take n^2 / 8 + 8 n^2 bytes whatever the edge count, which beats
+ * adjacency lists once a good fraction of all pairs are edges; see {@link #chooseFor(Graph)}.
+ *
+ * Each vertex has at most one edge to each target. Neighbours are listed in increasing target
+ * order, which is also the native edge order.
+ */
+public class DenseGraph implements Graph {
+    /** Edge count / n^2 at or above which {@link #chooseFor(Graph)} picks this backend. */
+    public static final double DENSITY_THRESHOLD = 0.25;
+    /** Smallest n for which {@link #chooseFor(Graph)} picks this backend; below it a row is one word. */
+    public static final int MIN_VERTICES = 64;
+    /** Largest n whose weight matrix fits in one array. */
+    public static final int MAX_VERTICES = 46_340;
+
+    private final int n;
+    private final int words; // longs per row
+    private final long[] rows;
+    private final double[] weights;
+    private final int[] offsets;
+    private final int[] targets;
+
+    /**
+     * Copies a graph into matrix form. Time complexity: O(V^2 / 64 + E)
+     * @throws IllegalArgumentException if the graph has parallel edges or more than MAX_VERTICES vertices
+     */
+    public DenseGraph(Graph graph) {
+        this.n = graph.getN();
+        if (n > MAX_VERTICES) {
+            throw new IllegalArgumentException("Graph too large for the dense backend");
+        }
+        this.words = (n + 63) >>> 6;
+        this.rows = new long[n * words];
+        this.weights = new double[n * n];
+        boolean[] parallel = new boolean[1];
+        graph.forEachEdge((from, to, weight) -> {
+            int word = from * words + (to >>> 6);
+            long bit = 1L << to;
+            if ((rows[word] & bit) != 0) {
+                parallel[0] = true;
+            }
+            rows[word] |= bit;
+            weights[from * n + to] = weight;
+        });
+        if (parallel[0]) {
+            throw new IllegalArgumentException("Dense backend does not allow parallel edges");
+        }
+
+        // Neighbour lists for indexed access, decoded from the rows
+        this.offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            int degree = 0;
+            for (int w = 0; w < words; w++) degree += Long.bitCount(rows[v * words + w]);
+            offsets[v + 1] = offsets[v] + degree;
+        }
+        this.targets = new int[offsets[n]];
+        for (int v = 0, e = 0; v < n; v++) {
+            for (int w = 0; w < words; w++) {
+                for (long bits = rows[v * words + w]; bits != 0; bits &= bits - 1) {
+                    targets[e++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks the backend for analysing a graph: a DenseGraph if edges / n^2 is at least
+     * DENSITY_THRESHOLD, n is at least MIN_VERTICES and every vertex lists its targets in
+     * strictly increasing order, otherwise the graph itself. In that order the matrix walks the
+     * edges as the graph does, so BitsetSCC numbers components exactly as TarjanSCC would.
+     * Time complexity: O(E) to decide, plus O(V^2 / 64 + E) to build
+     */
+    public static Graph chooseFor(Graph graph) {
+        int n = graph.getN();
+        if (n < MIN_VERTICES || n > MAX_VERTICES || graph.getEdgeCount() < DENSITY_THRESHOLD * n * n) {
+            return graph;
+        }
+        for (int v = 0; v < n; v++) {
+            for (int i = 1; i < graph.getOutDegree(v); i++) {
+                // Also rules out parallel edges
+                if (graph.getTarget(v, i - 1) >= graph.getTarget(v, i)) return graph;
+            }
+        }
+        return new DenseGraph(graph);
+    }
+
+    public boolean hasEdge(int from, int to) {
+        return (rows[from * words + (to >>> 6)] & (1L << to)) != 0;
+    }
+
+    /**
+     * Returns the weight of the edge from -> to (0 if there is none).
+     */
+    public double getEdgeWeight(int from, int to) {
+        return weights[from * n + to];
+    }
+
+    /**
+     * Returns the number of longs per row.
+     */
+    public int getWordsPerRow() {
+        return words;
+    }
+
+    /**
+     * Returns the rows: bit t of word v * getWordsPerRow() + t / 64 is set for an edge v -> t
+     * (shared, do not modify).
+     */
+    public long[] getRows() {
+        return rows;
+    }
+
+    /**
+     * Vertices reachable from source, found by BFS that takes each vertex's unvisited
+     * neighbours a word at a time. Time complexity: O(V^2 / 64)
+     */
+    public BitSet reachableFrom(int source) {
+        if (source < 0 || source >= n) {
+            throw new IllegalArgumentException("Source out of bounds");
+        }
+        long[] visited = new long[words];
+        int[] queue = new int[n];
+        int tail = 0;
+        visited[source >>> 6] |= 1L << source;
+        queue[tail++] = source;
+        for (int head = 0; head < tail; head++) {
+            int base = queue[head] * words;
+            for (int w = 0; w < words; w++) {
+                long fresh = rows[base + w] & ~visited[w];
+                if (fresh == 0) continue;
+                visited[w] |= fresh;
+                for (; fresh != 0; fresh &= fresh - 1) {
+                    queue[tail++] = (w << 6) + Long.numberOfTrailingZeros(fresh);
+                }
+            }
+        }
+        return BitSet.valueOf(visited);
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return targets[offsets[v] + i];
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return weights[v * n + targets[offsets[v] + i]];
+    }
+
+    @Override
+    public int[] getInDegrees() {
+        int[] inDegree = new int[n];
+        for (int t : targets) inDegree[t]++;
+        return inDegree;
+    }
+}
@@ -4,11 +4,16 @@ import java.util.*;
 
 /**
  * Represents a weighted directed graph using adjacency list representation.
+ * Not thread-safe for changes; reads never modify the graph, so concurrent readers are safe
+ * once the last addEdge or removeEdge has been published.
  */
-public class DirectedGraph {
+public class DirectedGraph implements Graph {
     private final int n;
     private final List<List<Edge>> adj; // Adjacency list
     private final List<Edge> allEdges; // All edges in graph
+    private final Set<Edge> removedEdges = Collections.newSetFromMap(new IdentityHashMap<>()); // Still in allEdges, skipped on read
+    // Built on demand, dropped on every change; CsrGraph's final fields make a racy first build by readers safe
+    private CsrGraph transpose;
 
     /**
      * Constructs a directed graph with n vertices.
@@ -35,6 +40,41 @@ public class DirectedGraph {
         Edge edge = new Edge(from, to, weight);
         adj.get(from).add(edge);
         allEdges.add(edge);
+        transpose = null;
+    }
+
+    /**
+     * Removes the earliest inserted edge from source to destination; returns false if there is
+     * none. The edge leaves the adjacency list at once; in the full edge list it is only marked,
+     * and the list is compacted here once half of it is removed edges, so reads never write.
+     * Time complexity: O(deg(from)) amortized
+     * @throws IllegalArgumentException if vertex is out of bounds
+     */
+    public boolean removeEdge(int from, int to) {
+        if (from < 0 || from >= n || to < 0 || to >= n) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+        List<Edge> edges = adj.get(from);
+        for (int i = 0; i < edges.size(); i++) {
+            if (edges.get(i).getTo() == to) {
+                removedEdges.add(edges.remove(i));
+                if (2 * removedEdges.size() > allEdges.size()) {
+                    compactEdges();
+                }
+                transpose = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void compactEdges() {
+        allEdges.removeIf(removedEdges::contains);
+        removedEdges.clear();
+    }
+
+    private boolean isLive(Edge e) {
+        return removedEdges.isEmpty() || !removedEdges.contains(e);
     }
 
     /**
@@ -47,24 +87,107 @@ public class DirectedGraph {
     /**
      * Returns the number of vertices.
      */
+    @Override
     public int getN() {
         return n;
     }
 
+    @Override
+    public int getEdgeCount() {
+        return allEdges.size() - removedEdges.size();
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return adj.get(v).size();
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return adj.get(v).get(i).getTo();
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return adj.get(v).get(i).getWeight();
+    }
+
     /**
      * Returns all edges in the graph.
      */
     public List<Edge> getAllEdges() {
-        return new ArrayList<>(allEdges);
+        if (removedEdges.isEmpty()) {
+            return new ArrayList<>(allEdges);
+        }
+        List<Edge> edges = new ArrayList<>(getEdgeCount());
+        for (Edge e : allEdges) {
+            if (isLive(e)) edges.add(e);
+        }
+        return edges;
+    }
+
+    /**
+     * Visits edges in insertion order without copying the edge list.
+     */
+    @Override
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (Edge e : allEdges) {
+            if (isLive(e)) visitor.visit(e.getFrom(), e.getTo(), e.getWeight());
+        }
     }
 
     /**
-     * Returns in-degrees for all vertices (used in Kahn's algorithm).
+     * Returns the reversed graph: its vertex v lists the sources of v's incoming edges with
+     * their weights, in insertion order. Built on first use and cached until the next addEdge
+     * or removeEdge, so predecessor queries and backward passes (e.g. longest paths to a target,
+     * by running DAGLongestPath on the transpose) share one O(V + E) build.
      */
+    public CsrGraph getTranspose() {
+        CsrGraph t = transpose;
+        if (t == null) {
+            t = CsrGraph.transposeOf(this);
+            transpose = t;
+        }
+        return t;
+    }
+
+    /**
+     * Returns the sources of v's incoming edges, in insertion order (a copy).
+     * @throws IllegalArgumentException if vertex is out of bounds
+     */
+    public int[] getPredecessors(int v) {
+        if (v < 0 || v >= n) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+        CsrGraph t = getTranspose();
+        return Arrays.copyOfRange(t.getTargets(), t.getOffsets()[v], t.getOffsets()[v + 1]);
+    }
+
+    /**
+     * Returns the in-degree of v from the transpose. Time complexity: O(1) once the transpose is built
+     * @throws IllegalArgumentException if vertex is out of bounds
+     */
+    public int getInDegree(int v) {
+        if (v < 0 || v >= n) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+        return getTranspose().getOutDegree(v);
+    }
+
+    /**
+     * Returns in-degrees for all vertices (used in Kahn's algorithm); read off the transpose
+     * when it is cached, otherwise counted over the edge list.
+     */
+    @Override
     public int[] getInDegrees() {
         int[] inDegree = new int[n];
+        CsrGraph t = transpose;
+        if (t != null) {
+            for (int v = 0; v < n; v++) inDegree[v] = t.getOutDegree(v);
+            return inDegree;
+        }
         for (Edge e : allEdges) {
-            inDegree[e.getTo()]++;
+            if (isLive(e)) inDegree[e.getTo()]++;
         }
         return inDegree;
     }
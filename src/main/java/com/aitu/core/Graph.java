@@ -0,0 +1,80 @@
+package com.aitu.core;
+
+/**
+ * Read-only view of a weighted directed graph, implemented by every graph backend.
+ * Out-neighbours of v are addressed by position 0 .. getOutDegree(v) - 1, so algorithms
+ * can walk adjacency stored in lists, flat arrays or mapped files without creating Edge objects.
+ */
+public interface Graph {
+
+    /**
+     * Returns the number of vertices.
+     */
+    int getN();
+
+    /**
+     * Returns the number of edges.
+     */
+    int getEdgeCount();
+
+    /**
+     * Returns the number of outgoing edges of vertex v.
+     */
+    int getOutDegree(int v);
+
+    /**
+     * Returns the target of the i-th outgoing edge of v.
+     */
+    int getTarget(int v, int i);
+
+    /**
+     * Returns the weight of the i-th outgoing edge of v.
+     */
+    double getWeight(int v, int i);
+
+    /**
+     * Copies the targets of v, in neighbour order, into buffer[0 .. getOutDegree(v)) and returns
+     * the out-degree. Backends that decode their lists override this to decode in one pass.
+     */
+    default int getTargets(int v, int[] buffer) {
+        int degree = getOutDegree(v);
+        for (int i = 0; i < degree; i++) {
+            buffer[i] = getTarget(v, i);
+        }
+        return degree;
+    }
+
+    /**
+     * Visits every edge in the graph's native order: insertion order for DirectedGraph,
+     * grouped by source vertex for array-backed graphs.
+     */
+    default void forEachEdge(EdgeVisitor visitor) {
+        for (int u = 0, n = getN(); u < n; u++) {
+            for (int i = 0, deg = getOutDegree(u); i < deg; i++) {
+                visitor.visit(u, getTarget(u, i), getWeight(u, i));
+            }
+        }
+    }
+
+    /**
+     * Returns in-degrees for all vertices (used in Kahn's algorithm).
+     */
+    default int[] getInDegrees() {
+        int n = getN();
+        int[] inDegree = new int[n];
+        for (int u = 0; u < n; u++) {
+            for (int i = 0, deg = getOutDegree(u); i < deg; i++) {
+                inDegree[getTarget(u, i)]++;
+            }
+        }
+        return inDegree;
+    }
+
+    /**
+     * Receives edges from {@link #forEachEdge(EdgeVisitor)}.
+     */
+    @FunctionalInterface
+    interface EdgeVisitor {
+        void visit(int from, int to, double weight);
+    }
+}
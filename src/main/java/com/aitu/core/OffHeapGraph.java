@@ -0,0 +1,171 @@
+package com.aitu.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * CSR graph held in direct ByteBuffers, outside the Java heap. The collector sees a handful of
+ * buffer objects however large the graph is, so GC pauses no longer grow with the edge count.
+ *
+ * Edge arrays are split into chunks of 2^27 entries, since one buffer cannot exceed 2 GB.
+ * {@link #close()} frees the memory right away where the JDK allows it (otherwise when the
+ * buffers are collected); afterwards every accessor throws IllegalStateException. Closing while
+ * another thread still reads the graph is not allowed: the reader may touch freed memory.
+ */
+public class OffHeapGraph implements Graph, AutoCloseable {
+    private static final int CHUNK_SHIFT = 27;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not available: memory is freed when the buffers are collected
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final int n;
+    private final int m;
+    private ByteBuffer[] blocks; // every allocation, for close(); null once closed
+    private IntBuffer offsets;
+    private IntBuffer[] targets;
+    private DoubleBuffer[] weights;
+
+    private OffHeapGraph(int n, int m) {
+        this.n = n;
+        this.m = m;
+        int chunks = (m + CHUNK_MASK) >>> CHUNK_SHIFT;
+        this.blocks = new ByteBuffer[1 + 2 * chunks];
+        this.blocks[0] = allocate(4L * (n + 1));
+        this.offsets = blocks[0].asIntBuffer();
+        this.targets = new IntBuffer[chunks];
+        this.weights = new DoubleBuffer[chunks];
+        for (int c = 0; c < chunks; c++) {
+            int size = Math.min(CHUNK_MASK + 1, m - (c << CHUNK_SHIFT));
+            blocks[1 + 2 * c] = allocate(4L * size);
+            blocks[2 + 2 * c] = allocate(8L * size);
+            targets[c] = blocks[1 + 2 * c].asIntBuffer();
+            weights[c] = blocks[2 + 2 * c].asDoubleBuffer();
+        }
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph too large for off-heap storage");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Copies any graph off the heap, one vertex at a time, keeping neighbour order.
+     * Time complexity: O(V + E)
+     */
+    public static OffHeapGraph copyOf(Graph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        OffHeapGraph copy = new OffHeapGraph(graph.getN(), graph.getEdgeCount());
+        try {
+            int e = 0;
+            for (int v = 0; v < copy.n; v++) {
+                copy.offsets.put(v, e);
+                for (int i = 0, degree = graph.getOutDegree(v); i < degree; i++, e++) {
+                    copy.targets[e >>> CHUNK_SHIFT].put(e & CHUNK_MASK, graph.getTarget(v, i));
+                    copy.weights[e >>> CHUNK_SHIFT].put(e & CHUNK_MASK, graph.getWeight(v, i));
+                }
+            }
+            copy.offsets.put(copy.n, e);
+        } catch (RuntimeException ex) {
+            copy.close();
+            throw ex;
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the off-heap bytes held, 0 once closed.
+     */
+    public long getMemoryBytes() {
+        ByteBuffer[] held = blocks;
+        long bytes = 0;
+        if (held != null) {
+            for (ByteBuffer block : held) bytes += block.capacity();
+        }
+        return bytes;
+    }
+
+    public boolean isClosed() {
+        return blocks == null;
+    }
+
+    /**
+     * Frees the off-heap memory. Calling it again has no effect.
+     */
+    @Override
+    public synchronized void close() {
+        ByteBuffer[] held = blocks;
+        if (held == null) return;
+        blocks = null;
+        offsets = null;
+        targets = null;
+        weights = null;
+        if (INVOKE_CLEANER == null) return;
+        for (ByteBuffer block : held) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, block);
+            } catch (ReflectiveOperationException e) {
+                return;
+            }
+        }
+    }
+
+    private IntBuffer offsets() {
+        IntBuffer o = offsets;
+        if (o == null) {
+            throw new IllegalStateException("Graph is closed");
+        }
+        return o;
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return m;
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        IntBuffer o = offsets();
+        return o.get(v + 1) - o.get(v);
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        int e = offsets().get(v) + i;
+        return targets[e >>> CHUNK_SHIFT].get(e & CHUNK_MASK);
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        int e = offsets().get(v) + i;
+        return weights[e >>> CHUNK_SHIFT].get(e & CHUNK_MASK);
+    }
+}
@@ -0,0 +1,137 @@
+package com.aitu.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Disjoint union of many graphs in one CSR structure. Member k owns the vertex range
+ * getVertexOffset(k) .. getVertexOffset(k + 1); its neighbour lists keep their order and
+ * only have the offset added, so an algorithm that visits vertices in index order treats
+ * every member exactly as it would on its own.
+ */
+public class PackedGraph implements Graph {
+    private final List<Graph> members;
+    private final int[] vertexOffsets;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    /**
+     * Packs the graphs in list order.
+     * @throws IllegalArgumentException if the list is empty or the union is too large
+     */
+    public PackedGraph(List<? extends Graph> graphs) {
+        if (graphs == null || graphs.isEmpty()) {
+            throw new IllegalArgumentException("At least one graph is required");
+        }
+        this.members = new ArrayList<>(graphs);
+        this.vertexOffsets = new int[members.size() + 1];
+        long n = 0;
+        long m = 0;
+        for (int k = 0; k < members.size(); k++) {
+            Graph g = members.get(k);
+            n += g.getN();
+            m += g.getEdgeCount();
+            if (n > Integer.MAX_VALUE - 8 || m > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Packed graph too large");
+            }
+            vertexOffsets[k + 1] = (int) n;
+        }
+
+        this.offsets = new int[(int) n + 1];
+        this.targets = new int[(int) m];
+        this.weights = new double[(int) m];
+        int e = 0;
+        for (int k = 0; k < members.size(); k++) {
+            Graph g = members.get(k);
+            int base = vertexOffsets[k];
+            for (int v = 0, size = g.getN(); v < size; v++) {
+                for (int i = 0, degree = g.getOutDegree(v); i < degree; i++) {
+                    targets[e] = base + g.getTarget(v, i);
+                    weights[e++] = g.getWeight(v, i);
+                }
+                offsets[base + v + 1] = e;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of packed graphs.
+     */
+    public int getGraphCount() {
+        return members.size();
+    }
+
+    /**
+     * Returns the first packed vertex of graph k; k == getGraphCount() gives getN().
+     */
+    public int getVertexOffset(int k) {
+        return vertexOffsets[k];
+    }
+
+    /**
+     * Returns the vertex offset table, getGraphCount() + 1 entries (shared, do not modify).
+     */
+    public int[] getVertexOffsets() {
+        return vertexOffsets;
+    }
+
+    /**
+     * Returns the index of the graph that owns packed vertex v. O(log k).
+     */
+    public int graphOf(int v) {
+        if (v < 0 || v >= getN()) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+        int k = Arrays.binarySearch(vertexOffsets, v);
+        if (k < 0) return -k - 2;
+        // Skip empty members that share the same offset
+        while (vertexOffsets[k + 1] == v) k++;
+        return k;
+    }
+
+    /**
+     * Returns the original graph k.
+     */
+    public Graph getGraph(int k) {
+        return members.get(k);
+    }
+
+    @Override
+    public int getN() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return targets[offsets[v] + i];
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return weights[offsets[v] + i];
+    }
+
+    /**
+     * Visits each member in its own native order, shifted by its offset, so the condensation
+     * of the union picks the same first edge between two components as each member would.
+     */
+    @Override
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int k = 0; k < members.size(); k++) {
+            int base = vertexOffsets[k];
+            members.get(k).forEachEdge((from, to, weight) -> visitor.visit(base + from, base + to, weight));
+        }
+    }
+}
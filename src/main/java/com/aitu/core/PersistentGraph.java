@@ -0,0 +1,301 @@
+package com.aitu.core;
+
+import java.util.Arrays;
+
+/**
+ * Immutable graph version that shares unchanged adjacency with the versions it was forked from.
+ *
+ * Vertices are the leaves of a trie with 64 children per node; each leaf slot holds one vertex's
+ * neighbour arrays. An edit copies only the nodes on the path to the edited vertex and that
+ * vertex's arrays, so a fork with k edits costs O(k * (log64(V) + degree)) memory whatever the
+ * graph size, and its parent stays untouched. Versions are never modified after build(), so
+ * any number of threads can analyse old and new versions at the same time without locks.
+ *
+ * The price is a few pointer hops per adjacency lookup compared with CsrGraph. Native edge
+ * order is grouped by source vertex, each vertex's edges in insertion order.
+ */
+public final class PersistentGraph implements Graph {
+    private static final int BITS = 6;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private final int n;
+    private final int edgeCount;
+    private final int shift; // bit offset of the root level; 0 when the root is a leaf
+    private final Node root;
+
+    private PersistentGraph(int n, int edgeCount, int shift, Node root) {
+        this.n = n;
+        this.edgeCount = edgeCount;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /**
+     * Returns a version with n vertices and no edges. Time complexity: O(1)
+     * @throws IllegalArgumentException if n is negative
+     */
+    public static PersistentGraph empty(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Vertex count must be >= 0");
+        }
+        int shift = 0;
+        while (((long) WIDTH << shift) < n) shift += BITS;
+        return new PersistentGraph(n, 0, shift, new Node(null, new Object[WIDTH]));
+    }
+
+    /**
+     * Copies any graph into a first version, keeping each vertex's edge order.
+     * Time complexity: O(V + E)
+     */
+    public static PersistentGraph copyOf(Graph graph) {
+        Editor editor = empty(graph.getN()).edit();
+        for (int v = 0, n = graph.getN(); v < n; v++) {
+            for (int i = 0, degree = graph.getOutDegree(v); i < degree; i++) {
+                editor.addEdge(v, graph.getTarget(v, i), graph.getWeight(v, i));
+            }
+        }
+        return editor.build();
+    }
+
+    /**
+     * Starts a batch of edits on top of this version. The batch copies each touched node once,
+     * however many of its vertices are edited.
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Returns a new version with the edge from -> to added.
+     * @throws IllegalArgumentException if vertex is out of bounds
+     */
+    public PersistentGraph withEdge(int from, int to, double weight) {
+        return edit().addEdge(from, to, weight).build();
+    }
+
+    /**
+     * Returns a new version without the earliest edge from -> to, or this version if there is none.
+     * @throws IllegalArgumentException if vertex is out of bounds
+     */
+    public PersistentGraph withoutEdge(int from, int to) {
+        Editor editor = edit();
+        return editor.removeEdge(from, to) ? editor.build() : this;
+    }
+
+    private Adjacency adjacency(int v) {
+        return find(root, shift, v);
+    }
+
+    private static Adjacency find(Node root, int shift, int v) {
+        Node node = root;
+        for (int level = shift; level > 0 && node != null; level -= BITS) {
+            node = (Node) node.slots[(v >>> level) & MASK];
+        }
+        return node == null ? null : (Adjacency) node.slots[v & MASK];
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        Adjacency adjacency = adjacency(v);
+        return adjacency == null ? 0 : adjacency.size;
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return adjacency(v).targets[i];
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return adjacency(v).weights[i];
+    }
+
+    /**
+     * Walks the trie once instead of looking up every vertex from the root.
+     */
+    @Override
+    public void forEachEdge(EdgeVisitor visitor) {
+        visit(root, shift, 0, visitor);
+    }
+
+    private void visit(Node node, int level, int base, EdgeVisitor visitor) {
+        for (int slot = 0; slot < WIDTH; slot++) {
+            Object child = node.slots[slot];
+            if (child == null) continue;
+            int first = base + (slot << level);
+            if (level > 0) {
+                visit((Node) child, level - BITS, first, visitor);
+            } else {
+                Adjacency adjacency = (Adjacency) child;
+                for (int i = 0; i < adjacency.size; i++) {
+                    visitor.visit(first, adjacency.targets[i], adjacency.weights[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int[] getInDegrees() {
+        int[] inDegree = new int[n];
+        forEachEdge((from, to, weight) -> inDegree[to]++);
+        return inDegree;
+    }
+
+    /**
+     * A batch of edits producing one new version. Nodes and neighbour arrays the editor copied
+     * belong to it and are edited in place until build(); everything else is shared and copied
+     * on first write. An editor is single-threaded and cannot be used after build().
+     */
+    public final class Editor {
+        // Marks nodes this editor copied; a plain object, so shared nodes never keep old versions alive
+        private final Object token = new Object();
+        private Node root = PersistentGraph.this.root;
+        private int edgeCount = PersistentGraph.this.edgeCount;
+        private boolean built;
+
+        private Editor() {
+        }
+
+        /**
+         * Appends the edge from -> to to from's neighbours.
+         * @throws IllegalArgumentException if vertex is out of bounds
+         */
+        public Editor addEdge(int from, int to, double weight) {
+            checkVertex(from);
+            checkVertex(to);
+            editable(from).append(to, weight);
+            edgeCount++;
+            return this;
+        }
+
+        /**
+         * Removes the earliest edge from -> to; returns false if there is none.
+         * @throws IllegalArgumentException if vertex is out of bounds
+         */
+        public boolean removeEdge(int from, int to) {
+            checkVertex(from);
+            checkVertex(to);
+            Adjacency current = find(root, shift, from);
+            if (current == null) {
+                return false;
+            }
+            for (int i = 0; i < current.size; i++) {
+                if (current.targets[i] == to) {
+                    editable(from).remove(i);
+                    edgeCount--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the new version and closes the editor.
+         * @throws IllegalStateException if build() was already called
+         */
+        public PersistentGraph build() {
+            checkOpen();
+            built = true;
+            return new PersistentGraph(n, edgeCount, shift, root);
+        }
+
+        /**
+         * Copies the path to v where it is still shared and returns v's neighbours, owned by
+         * this editor.
+         */
+        private Adjacency editable(int v) {
+            checkOpen();
+            root = own(root);
+            Node node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                int slot = (v >>> level) & MASK;
+                Node child = (Node) node.slots[slot];
+                child = child == null ? new Node(token, new Object[WIDTH]) : own(child);
+                node.slots[slot] = child;
+                node = child;
+            }
+            Adjacency adjacency = (Adjacency) node.slots[v & MASK];
+            if (adjacency == null) {
+                adjacency = new Adjacency(token, new int[2], new double[2], 0);
+            } else if (adjacency.owner != token) {
+                int capacity = adjacency.size + 1;
+                adjacency = new Adjacency(token, Arrays.copyOf(adjacency.targets, capacity),
+                        Arrays.copyOf(adjacency.weights, capacity), adjacency.size);
+            }
+            node.slots[v & MASK] = adjacency;
+            return adjacency;
+        }
+
+        private Node own(Node node) {
+            return node.owner == token ? node : new Node(token, node.slots.clone());
+        }
+
+        private void checkVertex(int v) {
+            if (v < 0 || v >= n) {
+                throw new IllegalArgumentException("Vertex out of bounds");
+            }
+        }
+
+        private void checkOpen() {
+            if (built) {
+                throw new IllegalStateException("Editor already built");
+            }
+        }
+    }
+
+    /**
+     * Trie node: children at inner levels, Adjacency at the leaf level, null for empty ranges.
+     */
+    private static final class Node {
+        final Object owner;
+        final Object[] slots;
+
+        Node(Object owner, Object[] slots) {
+            this.owner = owner;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * One vertex's neighbours. Arrays may have spare capacity past size.
+     */
+    private static final class Adjacency {
+        final Object owner;
+        int[] targets;
+        double[] weights;
+        int size;
+
+        Adjacency(Object owner, int[] targets, double[] weights, int size) {
+            this.owner = owner;
+            this.targets = targets;
+            this.weights = weights;
+            this.size = size;
+        }
+
+        void append(int to, double weight) {
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            targets[size] = to;
+            weights[size++] = weight;
+        }
+
+        void remove(int i) {
+            System.arraycopy(targets, i + 1, targets, i, size - i - 1);
+            System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.aitu.graph.batch;
+
+import com.aitu.core.CsrGraph;
+import com.aitu.core.Graph;
+import com.aitu.core.PackedGraph;
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.graph.topo.TopologicalSortResult;
+import com.aitu.utils.GraphWorkspace;
+import com.aitu.utils.Metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analyzes many small graphs in one pass: the graphs are packed into a {@link PackedGraph},
+ * SCC, condensation, topological sort, shortest paths and critical paths each run once over
+ * the union, and the results are split back out per graph with local vertex ids.
+ *
+ * The split results equal those of analyzing each graph on its own. Tarjan starts DFS roots
+ * in vertex order, so every graph's components form one contiguous block in standalone order;
+ * Kahn's FIFO keeps every graph's vertices in their standalone relative order; and the path
+ * algorithms relax each graph along its own slice of that order. Metrics cover the whole batch.
+ */
+public class PackedBatch {
+    private final PackedGraph packed;
+    private final int[] sources;
+    private final int[] componentId;
+    private final int[] members;
+    private final int[] componentOffsets;
+    private final CsrGraph dag;
+    private final int[] topoOrder;
+    private final PathResult[] shortestPaths;
+    private final CriticalPathResult[] criticalPaths;
+    private final List<Metrics> metrics;
+
+    private PackedBatch(PackedGraph packed, int[] sources, GraphWorkspace workspace) {
+        this.packed = packed;
+        this.sources = sources;
+        int n = packed.getN();
+        int graphs = packed.getGraphCount();
+
+        // Array forms throughout: boxed lists and Edge objects for the whole union would
+        // live long enough to be copied by the collector, outweighing the saved calls
+        TarjanSCC tarjan = new TarjanSCC();
+        componentId = new int[n];
+        members = new int[n];
+        int numComponents = tarjan.labelComponents(packed, componentId, members, workspace);
+        componentOffsets = componentOffsets(packed, componentId, members);
+
+        dag = CondensationGraph.condense(packed, componentId, numComponents);
+
+        KahnTopologicalSort topo = new KahnTopologicalSort();
+        topoOrder = groupByGraph(topo.sort(dag, workspace).getOrder(), componentOffsets);
+
+        // Each graph's source, as a component id local to that graph
+        int[] dagSources = new int[graphs];
+        for (int k = 0; k < graphs; k++) {
+            dagSources[k] = componentId[packed.getVertexOffset(k) + sources[k]] - componentOffsets[k];
+        }
+        DAGShortestPath shortestPath = new DAGShortestPath();
+        shortestPaths = shortestPath.computeShortestPaths(dag, componentOffsets, dagSources, workspace);
+
+        DAGLongestPath longestPath = new DAGLongestPath();
+        criticalPaths = longestPath.findCriticalPaths(dag, componentOffsets, workspace);
+
+        metrics = Arrays.asList(tarjan.getMetrics(), topo.getMetrics(),
+                shortestPath.getMetrics(), longestPath.getMetrics());
+    }
+
+    /**
+     * Analyzes the graphs with the calling thread's workspace; sources[k] is the
+     * shortest-path source of graph k.
+     * @throws IllegalArgumentException if the lists do not match or a source is out of bounds
+     */
+    public static PackedBatch analyze(List<? extends Graph> graphs, int[] sources) {
+        return analyze(graphs, sources, GraphWorkspace.current());
+    }
+
+    /**
+     * Same as {@link #analyze(List, int[])}, using the given workspace.
+     */
+    public static PackedBatch analyze(List<? extends Graph> graphs, int[] sources, GraphWorkspace workspace) {
+        PackedGraph packed = new PackedGraph(graphs);
+        if (sources == null || sources.length != packed.getGraphCount()) {
+            throw new IllegalArgumentException("One source per graph is required");
+        }
+        for (int k = 0; k < sources.length; k++) {
+            if (sources[k] < 0 || sources[k] >= packed.getGraph(k).getN()) {
+                throw new IllegalArgumentException("Source out of bounds in graph " + k);
+            }
+        }
+        return new PackedBatch(packed, sources.clone(), workspace);
+    }
+
+    /**
+     * Each graph's vertices are popped as one block, so graph k owns members
+     * getVertexOffset(k) .. getVertexOffset(k + 1) and component ids offsets[k] .. offsets[k + 1].
+     */
+    private static int[] componentOffsets(PackedGraph packed, int[] componentId, int[] members) {
+        int graphs = packed.getGraphCount();
+        int[] offsets = new int[graphs + 1];
+        for (int k = 0; k < graphs; k++) {
+            int end = packed.getVertexOffset(k + 1);
+            offsets[k + 1] = end > packed.getVertexOffset(k) ? componentId[members[end - 1]] + 1 : offsets[k];
+        }
+        return offsets;
+    }
+
+    /**
+     * Stable regrouping of the union's topological order by owning graph.
+     */
+    private static int[] groupByGraph(List<Integer> order, int[] componentOffsets) {
+        int graphs = componentOffsets.length - 1;
+        int[] graphOf = new int[componentOffsets[graphs]];
+        for (int k = 0; k < graphs; k++) {
+            Arrays.fill(graphOf, componentOffsets[k], componentOffsets[k + 1], k);
+        }
+        int[] cursor = Arrays.copyOf(componentOffsets, graphs);
+        int[] grouped = new int[order.size()];
+        for (int c : order) grouped[cursor[graphOf[c]]++] = c;
+        return grouped;
+    }
+
+    /**
+     * Returns the number of graphs in the batch.
+     */
+    public int getGraphCount() {
+        return packed.getGraphCount();
+    }
+
+    /**
+     * Returns the union of all graphs.
+     */
+    public PackedGraph getPackedGraph() {
+        return packed;
+    }
+
+    /**
+     * Returns the shortest-path source of graph k.
+     */
+    public int getSource(int k) {
+        return sources[k];
+    }
+
+    /**
+     * Returns the SCCs of graph k in local ids; built on each call.
+     */
+    public SCCResult getSCCResult(int k) {
+        int base = packed.getVertexOffset(k);
+        int end = packed.getVertexOffset(k + 1);
+        int firstComponent = componentOffsets[k];
+
+        List<List<Integer>> components = new ArrayList<>(componentOffsets[k + 1] - firstComponent);
+        for (int p = base; p < end; ) {
+            int c = componentId[members[p]];
+            List<Integer> component = new ArrayList<>();
+            while (p < end && componentId[members[p]] == c) component.add(members[p++] - base);
+            components.add(component);
+        }
+        int[] localIds = new int[end - base];
+        for (int v = 0; v < localIds.length; v++) {
+            localIds[v] = componentId[base + v] - firstComponent;
+        }
+        return new SCCResult(components, localIds);
+    }
+
+    /**
+     * Returns the condensation DAG of graph k, with the same neighbour lists as
+     * {@link CondensationGraph#getCondensation()} on that graph; built on each call.
+     */
+    public CsrGraph getCondensation(int k) {
+        int base = componentOffsets[k];
+        int size = componentOffsets[k + 1] - base;
+        int[] packedOffsets = dag.getOffsets();
+        int first = packedOffsets[base];
+        int[] offsets = new int[size + 1];
+        for (int c = 0; c <= size; c++) {
+            offsets[c] = packedOffsets[base + c] - first;
+        }
+        int[] targets = Arrays.copyOfRange(dag.getTargets(), first, first + offsets[size]);
+        for (int e = 0; e < targets.length; e++) targets[e] -= base;
+        double[] weights = Arrays.copyOfRange(dag.getWeights(), first, first + offsets[size]);
+        return new CsrGraph(size, offsets, targets, weights);
+    }
+
+    /**
+     * Returns the topological order of graph k's condensation, in local component ids.
+     */
+    public TopologicalSortResult getTopologicalOrder(int k) {
+        int base = componentOffsets[k];
+        List<Integer> order = new ArrayList<>(componentOffsets[k + 1] - base);
+        for (int p = base; p < componentOffsets[k + 1]; p++) {
+            order.add(topoOrder[p] - base);
+        }
+        return new TopologicalSortResult(order, true);
+    }
+
+    /**
+     * Returns shortest paths in graph k's condensation from the component of its source.
+     */
+    public PathResult getShortestPaths(int k) {
+        return shortestPaths[k];
+    }
+
+    /**
+     * Returns the critical path of graph k's condensation.
+     */
+    public CriticalPathResult getCriticalPath(int k) {
+        return criticalPaths[k];
+    }
+
+    /**
+     * Returns batch-wide metrics of Tarjan, Kahn, shortest path and critical path, in that order.
+     */
+    public List<Metrics> getMetrics() {
+        return metrics;
+    }
+}
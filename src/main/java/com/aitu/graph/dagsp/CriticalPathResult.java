@@ -26,6 +26,20 @@ public class CriticalPathResult {
         return pathResult.getPath(endVertex);
     }
 
+    /**
+     * Returns the longest-path arrays of the winning source (null if no path exists).
+     */
+    public PathResult getPathResult() {
+        return pathResult;
+    }
+
+    /**
+     * Returns the last vertex of the critical path (-1 if no path exists).
+     */
+    public int getEndVertex() {
+        return endVertex;
+    }
+
     /**
      * Returns the total length of the critical path.
      */
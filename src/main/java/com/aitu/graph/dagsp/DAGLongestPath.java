@@ -1,9 +1,10 @@
 package com.aitu.graph.dagsp;
 
-import com.aitu.core.DirectedGraph;
-import com.aitu.core.Edge;
-import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.core.CompactCsrGraph;
+import com.aitu.core.Graph;
 import com.aitu.graph.topo.TopologicalSortResult;
+import com.aitu.utils.GraphWorkspace;
+import com.aitu.utils.GraphWorkspace.Slot;
 import com.aitu.utils.Metrics;
 
 import java.util.Arrays;
@@ -26,7 +27,80 @@ public class DAGLongestPath {
      * Returns null if graph is not a DAG.
      * Time complexity: O(V + E)
      */
-    public PathResult computeLongestPaths(DirectedGraph graph, int source) {
+    public PathResult computeLongestPaths(Graph graph, int source) {
+        return computeLongestPaths(graph, source, GraphWorkspace.current());
+    }
+
+    /**
+     * Same as {@link #computeLongestPaths(Graph, int)}, running the DAG check in the workspace.
+     */
+    public PathResult computeLongestPaths(Graph graph, int source, GraphWorkspace workspace) {
+        return computeLongestPaths(graph, source, null, workspace);
+    }
+
+    /**
+     * Same as {@link #computeLongestPaths(Graph, int)}, but relaxes along a topological order
+     * the caller already has (e.g. from a DynamicDAG) instead of sorting the graph again.
+     * @throws IllegalArgumentException if the order does not cover every vertex
+     */
+    public PathResult computeLongestPaths(Graph graph, int source, TopologicalSortResult topo) {
+        if (topo == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        return computeLongestPaths(graph, source, topo, GraphWorkspace.current());
+    }
+
+    /**
+     * Float specialization of {@link #computeLongestPaths(Graph, int)}: relaxes the stored
+     * float weights into float distances. Returns null if graph is not a DAG.
+     * Time complexity: O(V + E)
+     */
+    public FloatPathResult computeLongestPaths(CompactCsrGraph graph, int source) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (source < 0 || source >= graph.getN()) {
+            throw new IllegalArgumentException("Source out of bounds");
+        }
+        int n = graph.getN();
+        float[] dist = new float[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, Float.NEGATIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        dist[source] = 0;
+
+        metrics.reset();
+        metrics.startTimer();
+
+        GraphWorkspace workspace = GraphWorkspace.current();
+        TopologicalSortResult TSResult = Parts.topologicalOrder(graph, null, workspace);
+        if (!TSResult.isDAG()) {
+            metrics.stopTimer();
+            return null;
+        }
+        int[] order = Parts.groupOrder(TSResult.getOrder(), new int[]{0, n}, workspace);
+
+        for (int p = 0; p < n; p++) {
+            int u = order[p];
+            if (dist[u] == Float.NEGATIVE_INFINITY) continue;
+            for (int i = 0, degree = graph.getOutDegree(u); i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                float newDist = dist[u] + graph.getFloatWeight(u, i);
+                metrics.incrementRelaxation();
+                metrics.incrementComparison();
+                if (newDist > dist[v]) {
+                    dist[v] = newDist;
+                    parent[v] = u;
+                    metrics.incrementDistanceUpdate();
+                }
+            }
+        }
+
+        metrics.stopTimer();
+        return new FloatPathResult(dist, parent, source);
+    }
+
+    private PathResult computeLongestPaths(Graph graph, int source, TopologicalSortResult topo, GraphWorkspace workspace) {
         if (graph == null) {
             throw new IllegalArgumentException("Graph cannot be null");
         }
@@ -40,9 +114,8 @@ public class DAGLongestPath {
         Arrays.fill(parent, -1);
         dist[source] = 0;
 
-        // Verify graph is DAG
-        KahnTopologicalSort TS = new KahnTopologicalSort();
-        TopologicalSortResult TSResult = TS.sort(graph);
+        // Verify graph is DAG, unless the caller supplied the order
+        TopologicalSortResult TSResult = Parts.topologicalOrder(graph, topo, workspace);
         if (!TSResult.isDAG()) {
             metrics.stopTimer();
             return null;
@@ -53,9 +126,9 @@ public class DAGLongestPath {
         for (int u : order) {
             // Only relax from vertices reachable from source
             if (dist[u] != Double.NEGATIVE_INFINITY) {
-                for (Edge edge : graph.getAdjacent(u)) {
-                    int v = edge.getTo();
-                    double newDist = dist[u] + edge.getWeight();
+                for (int i = 0, degree = graph.getOutDegree(u); i < degree; i++) {
+                    int v = graph.getTarget(u, i);
+                    double newDist = dist[u] + graph.getWeight(u, i);
                     metrics.incrementRelaxation();
                     metrics.incrementComparison();
 
@@ -74,38 +147,151 @@ public class DAGLongestPath {
     }
 
     /**
-     * Finds the critical path (longest path among all source-sink pairs).
+     * Finds the critical path (longest path among all source-sink pairs),
+     * using the calling thread's workspace.
      * Tries all vertices as sources and tracks the maximum distance found.
      * Time complexity: O(V * (V + E))
      */
-    public CriticalPathResult findCriticalPath(DirectedGraph graph) {
+    public CriticalPathResult findCriticalPath(Graph graph) {
+        return findCriticalPath(graph, GraphWorkspace.current());
+    }
+
+    /**
+     * Same as {@link #findCriticalPath(Graph)}. The topological order is computed once; each
+     * source then reuses stamped dist/parent buffers and only visits the vertices it reaches.
+     * The full path arrays are rebuilt once, for the winning source, at the end.
+     */
+    public CriticalPathResult findCriticalPath(Graph graph, GraphWorkspace workspace) {
+        return findCriticalPaths(graph, new int[]{0, graph.getN()}, null, workspace)[0];
+    }
+
+    /**
+     * Same as {@link #findCriticalPath(Graph)}, along a topological order the caller already has.
+     * @throws IllegalArgumentException if the order does not cover every vertex
+     */
+    public CriticalPathResult findCriticalPath(Graph graph, TopologicalSortResult topo) {
+        if (topo == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        return findCriticalPaths(graph, new int[]{0, graph.getN()}, topo, GraphWorkspace.current())[0];
+    }
+
+    /**
+     * Critical path of every part of a disjoint union, part k owning vertices
+     * partOffsets[k] .. partOffsets[k + 1]. Results use ids local to their part and equal
+     * what {@link #findCriticalPath(Graph)} returns for the part on its own; sources only
+     * try the vertices of their own part, so the cost is the sum of the per-part costs.
+     * @throws IllegalArgumentException if the offsets are invalid or an edge crosses parts
+     */
+    public CriticalPathResult[] findCriticalPaths(Graph graph, int[] partOffsets, GraphWorkspace workspace) {
+        return findCriticalPaths(graph, partOffsets, null, workspace);
+    }
+
+    private CriticalPathResult[] findCriticalPaths(Graph graph, int[] partOffsets, TopologicalSortResult supplied,
+                                                   GraphWorkspace workspace) {
         int n = graph.getN();
-        double maxLength = Double.NEGATIVE_INFINITY;
-        int endVertex = -1;
-        PathResult bestResult = null;
+        Parts.validate(partOffsets, n);
+        int parts = partOffsets.length - 1;
+        CriticalPathResult[] results = new CriticalPathResult[parts];
 
         metrics.reset();
         metrics.startTimer();
 
-        // Try each vertex as a source and find longest path
-        for (int source = 0; source < n; source++) {
-            PathResult result = computeLongestPaths(graph, source);
-            if (result != null) {
-                // Track the maximum distance found
-                for (int v = 0; v < n; v++) {
-                    if (result.getDistances()[v] > maxLength &&
-                            result.getDistances()[v] != Double.NEGATIVE_INFINITY) {
-                        maxLength = result.getDistances()[v];
+        TopologicalSortResult topo = Parts.topologicalOrder(graph, supplied, workspace);
+        int[] order = topo.isDAG() ? Parts.groupOrder(topo.getOrder(), partOffsets, workspace) : null;
+        int[] position = workspace.ints(Slot.PATH_POSITION, n);
+        if (order != null) {
+            for (int p = 0; p < n; p++) position[order[p]] = p;
+        }
+        double[] dist = workspace.doubles(Slot.PATH_DIST, n);
+        int[] touched = workspace.ints(Slot.PATH_TOUCHED, n);
+
+        for (int k = 0; k < parts; k++) {
+            int lo = partOffsets[k];
+            int hi = partOffsets[k + 1];
+            double maxLength = Double.NEGATIVE_INFINITY;
+            int endVertex = -1;
+            int bestSource = -1;
+
+            // Try each vertex as a source and find longest path
+            for (int source = lo; order != null && source < hi; source++) {
+                GraphWorkspace.Marks reached = workspace.marks(Slot.PATH_REACHED, n);
+                reached.add(source);
+                dist[source] = 0;
+                touched[0] = source;
+                int touchedCount = 1;
+
+                // Vertices before the source in topological order cannot be reached from it
+                for (int p = position[source]; p < hi; p++) {
+                    int u = order[p];
+                    if (!reached.contains(u)) continue;
+                    for (int i = 0, degree = graph.getOutDegree(u); i < degree; i++) {
+                        int v = graph.getTarget(u, i);
+                        if (v < lo || v >= hi) {
+                            throw new IllegalArgumentException("Edge crosses parts");
+                        }
+                        double newDist = dist[u] + graph.getWeight(u, i);
+                        metrics.incrementRelaxation();
+                        metrics.incrementComparison();
+
+                        // Update if found longer path
+                        if (!reached.contains(v)) {
+                            reached.add(v);
+                            touched[touchedCount++] = v;
+                            dist[v] = newDist;
+                            metrics.incrementDistanceUpdate();
+                        } else if (newDist > dist[v]) {
+                            dist[v] = newDist;
+                            metrics.incrementDistanceUpdate();
+                        }
+                    }
+                }
+
+                // Track the maximum distance found; ties go to the lowest vertex id
+                for (int t = 0; t < touchedCount; t++) {
+                    int v = touched[t];
+                    if (dist[v] > maxLength || (dist[v] == maxLength && bestSource == source && v < endVertex)) {
+                        maxLength = dist[v];
                         endVertex = v;
-                        bestResult = result;
+                        bestSource = source;
                     }
                 }
             }
+
+            results[k] = bestSource < 0
+                    ? new CriticalPathResult(null, -1, maxLength)
+                    : new CriticalPathResult(longestPathsFrom(graph, order, lo, hi, bestSource), endVertex - lo, maxLength);
         }
 
         metrics.stopTimer();
 
-        return new CriticalPathResult(bestResult, endVertex, maxLength);
+        return results;
+    }
+
+    /**
+     * Plain longest-path relaxation from one source along order[lo .. hi), the topological
+     * order of the part [lo, hi), without metrics. The result uses ids local to the part.
+     */
+    private static PathResult longestPathsFrom(Graph graph, int[] order, int lo, int hi, int source) {
+        int size = hi - lo;
+        double[] dist = new double[size];
+        int[] parent = new int[size];
+        Arrays.fill(dist, Double.NEGATIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        dist[source - lo] = 0;
+        for (int p = lo; p < hi; p++) {
+            int u = order[p];
+            if (dist[u - lo] == Double.NEGATIVE_INFINITY) continue;
+            for (int i = 0, degree = graph.getOutDegree(u); i < degree; i++) {
+                int v = graph.getTarget(u, i) - lo;
+                double newDist = dist[u - lo] + graph.getWeight(u, i);
+                if (newDist > dist[v]) {
+                    dist[v] = newDist;
+                    parent[v] = u - lo;
+                }
+            }
+        }
+        return new PathResult(dist, parent, source - lo);
     }
 
     public Metrics getMetrics() {
@@ -1,13 +1,12 @@
 package com.aitu.graph.dagsp;
 
-import com.aitu.core.DirectedGraph;
-import com.aitu.core.Edge;
-import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.core.CompactCsrGraph;
+import com.aitu.core.Graph;
 import com.aitu.graph.topo.TopologicalSortResult;
+import com.aitu.utils.GraphWorkspace;
 import com.aitu.utils.Metrics;
 
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * Computes shortest paths from a source in a DAG using topological sort + relaxation.
@@ -26,54 +25,169 @@ public class DAGShortestPath {
      * Returns null if graph contains cycle (not a DAG).
      * Time complexity: O(V + E)
      */
-    public PathResult computeShortestPaths(DirectedGraph graph, int source) {
+    public PathResult computeShortestPaths(Graph graph, int source) {
+        return computeShortestPaths(graph, source, GraphWorkspace.current());
+    }
+
+    /**
+     * Same as {@link #computeShortestPaths(Graph, int)}, running the DAG check in the workspace.
+     */
+    public PathResult computeShortestPaths(Graph graph, int source, GraphWorkspace workspace) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (source < 0 || source >= graph.getN()) {
+            throw new IllegalArgumentException("Source out of bounds");
+        }
+        PathResult[] results = computeShortestPaths(graph, new int[]{0, graph.getN()}, new int[]{source}, null, workspace);
+        return results == null ? null : results[0];
+    }
+
+    /**
+     * Same as {@link #computeShortestPaths(Graph, int)}, but relaxes along a topological order
+     * the caller already has (e.g. from a DynamicDAG) instead of sorting the graph again.
+     * Returns null if the order says the graph is not a DAG.
+     * @throws IllegalArgumentException if the order does not cover every vertex
+     */
+    public PathResult computeShortestPaths(Graph graph, int source, TopologicalSortResult topo) {
+        if (graph == null || topo == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        if (source < 0 || source >= graph.getN()) {
+            throw new IllegalArgumentException("Source out of bounds");
+        }
+        PathResult[] results = computeShortestPaths(graph, new int[]{0, graph.getN()}, new int[]{source}, topo,
+                GraphWorkspace.current());
+        return results == null ? null : results[0];
+    }
+
+    /**
+     * Float specialization of {@link #computeShortestPaths(Graph, int)}: relaxes the stored
+     * float weights into float distances, so distances take half the memory.
+     * Returns null if graph contains cycle (not a DAG).
+     * Time complexity: O(V + E)
+     */
+    public FloatPathResult computeShortestPaths(CompactCsrGraph graph, int source) {
         if (graph == null) {
             throw new IllegalArgumentException("Graph cannot be null");
         }
         if (source < 0 || source >= graph.getN()) {
             throw new IllegalArgumentException("Source out of bounds");
         }
-        int n = graph.getN();
-        double[] dist = new double[n];
-        int[] parent = new int[n];
-        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        metrics.reset();
+        metrics.startTimer();
+
+        GraphWorkspace workspace = GraphWorkspace.current();
+        TopologicalSortResult TSResult = Parts.topologicalOrder(graph, null, workspace);
+        if (!TSResult.isDAG()) {
+            metrics.stopTimer();
+            return null;
+        }
+        int[] order = Parts.groupOrder(TSResult.getOrder(), new int[]{0, graph.getN()}, workspace);
+
+        float[] dist = new float[graph.getN()];
+        int[] parent = new int[graph.getN()];
+        Arrays.fill(dist, Float.POSITIVE_INFINITY);
         Arrays.fill(parent, -1);
         dist[source] = 0;
+        for (int p = 0; p < graph.getN(); p++) {
+            int u = order[p];
+            if (dist[u] == Float.POSITIVE_INFINITY) continue;
+            for (int i = 0, degree = graph.getOutDegree(u); i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                float newDist = dist[u] + graph.getFloatWeight(u, i);
+                metrics.incrementRelaxation();
+                metrics.incrementComparison();
+                if (newDist < dist[v]) {
+                    dist[v] = newDist;
+                    parent[v] = u;
+                    metrics.incrementDistanceUpdate();
+                }
+            }
+        }
+
+        metrics.stopTimer();
+        return new FloatPathResult(dist, parent, source);
+    }
+
+    /**
+     * Shortest paths in a disjoint union of parts, one source per part. Part k owns vertices
+     * partOffsets[k] .. partOffsets[k + 1]; its source and its PathResult use ids local to the part.
+     * One topological sort covers every part, and each part is relaxed along its own slice of
+     * that order, so results match running the parts one at a time.
+     * Returns null if graph contains cycle (not a DAG).
+     * @throws IllegalArgumentException if the offsets are invalid, a source lies outside
+     *                                  its part or an edge crosses parts
+     */
+    public PathResult[] computeShortestPaths(Graph graph, int[] partOffsets, int[] sources, GraphWorkspace workspace) {
+        return computeShortestPaths(graph, partOffsets, sources, null, workspace);
+    }
+
+    private PathResult[] computeShortestPaths(Graph graph, int[] partOffsets, int[] sources,
+                                              TopologicalSortResult topo, GraphWorkspace workspace) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        Parts.validate(partOffsets, graph.getN());
+        int parts = partOffsets.length - 1;
+        if (sources == null || sources.length != parts) {
+            throw new IllegalArgumentException("One source per part is required");
+        }
+        for (int k = 0; k < parts; k++) {
+            if (sources[k] < 0 || sources[k] >= partOffsets[k + 1] - partOffsets[k]) {
+                throw new IllegalArgumentException("Source out of bounds");
+            }
+        }
 
         metrics.reset();
         metrics.startTimer();
 
-        // Verify graph is DAG and get topological order
-        KahnTopologicalSort TS = new KahnTopologicalSort();
-        TopologicalSortResult TSResult = TS.sort(graph);
+        // Verify graph is DAG and get topological order, unless the caller supplied one
+        TopologicalSortResult TSResult = Parts.topologicalOrder(graph, topo, workspace);
         if (!TSResult.isDAG()) {
             metrics.stopTimer();
             return null;
         }
+        int[] order = Parts.groupOrder(TSResult.getOrder(), partOffsets, workspace);
+
+        PathResult[] results = new PathResult[parts];
+        for (int k = 0; k < parts; k++) {
+            int base = partOffsets[k];
+            int size = partOffsets[k + 1] - base;
+            double[] dist = new double[size];
+            int[] parent = new int[size];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(parent, -1);
+            dist[sources[k]] = 0;
+
+            // Relax edges in topological order
+            for (int p = base; p < base + size; p++) {
+                int u = order[p];
+                // Only relax from vertices that are reachable from source
+                if (dist[u - base] != Double.POSITIVE_INFINITY) {
+                    for (int i = 0, degree = graph.getOutDegree(u); i < degree; i++) {
+                        int v = graph.getTarget(u, i) - base;
+                        if (v < 0 || v >= size) {
+                            throw new IllegalArgumentException("Edge crosses parts");
+                        }
+                        double newDist = dist[u - base] + graph.getWeight(u, i);
+                        metrics.incrementRelaxation();
+                        metrics.incrementComparison();
 
-        // Relax edges in topological order
-        List<Integer> order = TSResult.getOrder();
-        for (int u : order) {
-            // Only relax from vertices that are reachable from source
-            if (dist[u] != Double.POSITIVE_INFINITY) {
-                for (Edge edge : graph.getAdjacent(u)) {
-                    int v = edge.getTo();
-                    double newDist = dist[u] + edge.getWeight();
-                    metrics.incrementRelaxation();
-                    metrics.incrementComparison();
-
-                    // Update if found shorter path
-                    if (newDist < dist[v]) {
-                        dist[v] = newDist;
-                        parent[v] = u;
-                        metrics.incrementDistanceUpdate();
+                        // Update if found shorter path
+                        if (newDist < dist[v]) {
+                            dist[v] = newDist;
+                            parent[v] = u - base;
+                            metrics.incrementDistanceUpdate();
+                        }
                     }
                 }
             }
+            results[k] = new PathResult(dist, parent, sources[k]);
         }
 
         metrics.stopTimer();
-        return new PathResult(dist, parent, source);
+        return results;
     }
 
     public Metrics getMetrics() {
@@ -0,0 +1,75 @@
+package com.aitu.graph.dagsp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single-source path result with float distances, returned by the path engines' overloads for
+ * {@link com.aitu.core.CompactCsrGraph}. Same layout as PathResult at half the bytes per distance.
+ */
+public class FloatPathResult {
+    private final float[] dist;
+    private final int[] parent;
+    private final int source;
+
+    public FloatPathResult(float[] dist, int[] parent, int source) {
+        if (dist == null || parent == null) {
+            throw new IllegalArgumentException("Arrays cannot be null");
+        }
+        if (dist.length != parent.length) {
+            throw new IllegalArgumentException("Array sizes must match");
+        }
+        if (source < 0 || source >= dist.length) {
+            throw new IllegalArgumentException("Source out of bounds");
+        }
+        this.dist = dist;
+        this.parent = parent;
+        this.source = source;
+    }
+
+    /**
+     * Returns distance array: dist[v] = shortest/longest distance from source to v.
+     */
+    public float[] getDistances() {
+        return dist;
+    }
+
+    /**
+     * Returns parent array: parent[v] = predecessor of v on the path (or -1).
+     */
+    public int[] getParent() {
+        return parent;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Reconstructs the path from source to target, or null if target is unreachable.
+     */
+    public List<Integer> getPath(int target) {
+        if (target < 0 || target >= dist.length) {
+            throw new IllegalArgumentException("Target out of bounds");
+        }
+        if (Float.isInfinite(dist[target])) {
+            return null;
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int v = target; v != -1; v = parent[v]) {
+            path.add(v);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Widens to a PathResult, for code written against double distances.
+     */
+    public PathResult toPathResult() {
+        double[] wide = new double[dist.length];
+        for (int v = 0; v < dist.length; v++) wide[v] = dist[v];
+        return new PathResult(wide, parent.clone(), source);
+    }
+}
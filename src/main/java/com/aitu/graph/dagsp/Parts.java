@@ -0,0 +1,71 @@
+package com.aitu.graph.dagsp;
+
+import com.aitu.core.Graph;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.graph.topo.TopologicalSortResult;
+import com.aitu.utils.GraphWorkspace;
+import com.aitu.utils.GraphWorkspace.Slot;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helpers for graphs that are a disjoint union of parts, part k owning the vertex range
+ * partOffsets[k] .. partOffsets[k + 1]. A plain graph is a single part {0, n}.
+ */
+final class Parts {
+    private Parts() {
+    }
+
+    /**
+     * Checks that the offsets start at 0, never decrease and end at n.
+     */
+    static void validate(int[] partOffsets, int n) {
+        if (partOffsets == null || partOffsets.length < 2 || partOffsets[0] != 0
+                || partOffsets[partOffsets.length - 1] != n) {
+            throw new IllegalArgumentException("Part offsets must run from 0 to n");
+        }
+        for (int k = 1; k < partOffsets.length; k++) {
+            if (partOffsets[k] < partOffsets[k - 1]) {
+                throw new IllegalArgumentException("Part offsets must not decrease");
+            }
+        }
+    }
+
+    /**
+     * Returns the caller's order if there is one, otherwise sorts the graph with Kahn's algorithm.
+     * @throws IllegalArgumentException if a supplied DAG order does not cover every vertex
+     */
+    static TopologicalSortResult topologicalOrder(Graph graph, TopologicalSortResult supplied, GraphWorkspace workspace) {
+        if (supplied == null) {
+            return new KahnTopologicalSort().sort(graph, workspace);
+        }
+        if (supplied.isDAG() && supplied.getOrder().size() != graph.getN()) {
+            throw new IllegalArgumentException("Topological order must cover every vertex");
+        }
+        return supplied;
+    }
+
+    /**
+     * Regroups a complete topological order so that part k's vertices fill positions
+     * partOffsets[k] .. partOffsets[k + 1], keeping their relative order. Returns the
+     * PATH_ORDER buffer of the workspace.
+     */
+    static int[] groupOrder(List<Integer> topoOrder, int[] partOffsets, GraphWorkspace workspace) {
+        int parts = partOffsets.length - 1;
+        int n = partOffsets[parts];
+        int[] order = workspace.ints(Slot.PATH_ORDER, n);
+        if (parts == 1) {
+            int p = 0;
+            for (int u : topoOrder) order[p++] = u;
+            return order;
+        }
+        int[] part = workspace.ints(Slot.PATH_PART, n);
+        for (int k = 0; k < parts; k++) {
+            Arrays.fill(part, partOffsets[k], partOffsets[k + 1], k);
+        }
+        int[] cursor = Arrays.copyOf(partOffsets, parts);
+        for (int u : topoOrder) order[cursor[part[u]]++] = u;
+        return order;
+    }
+}
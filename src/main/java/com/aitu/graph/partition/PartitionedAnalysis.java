@@ -0,0 +1,278 @@
+package com.aitu.graph.partition;
+
+import com.aitu.core.CsrGraph;
+import com.aitu.core.Graph;
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.utils.GraphWorkspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs SCC, condensation, topological sort and paths on every weak component of a graph
+ * concurrently, then merges the results back into global ids. Each task only touches its
+ * own component, so its working set stays small even when the whole graph is not.
+ *
+ * Merged SCC ids match a sequential {@link TarjanSCC} run on the whole graph: the outer DFS
+ * loop takes roots in vertex order and never leaves a weak component, so the global order
+ * is each component's DFS trees interleaved by root vertex. Because of that, the merged
+ * critical path and shortest paths also match a sequential run on the whole condensation.
+ */
+public class PartitionedAnalysis {
+    // Vertices plus edges per task; smaller components are analyzed together
+    private static final int GRAIN = 1 << 12;
+
+    private final WeakComponents weakComponents;
+    private final SCCResult sccResult;
+    private final int[] topoOrder;
+    private final PathResult shortestPaths;
+    private final CriticalPathResult criticalPath;
+
+    /**
+     * Per-component results in local ids.
+     */
+    private static class Part {
+        int[] componentId;
+        int[] members;
+        int numComponents;
+        List<Integer> topoOrder;
+        PathResult shortestPaths;
+        CriticalPathResult criticalPath;
+        // Local component id -> global component id, filled in by the merge
+        int[] globalComponent;
+    }
+
+    private PartitionedAnalysis(Graph graph, int source, ForkJoinPool pool) {
+        weakComponents = WeakComponents.find(graph, pool);
+        List<Subgraph> subgraphs = weakComponents.split(pool);
+        int sourcePart = weakComponents.getLabel(source);
+
+        Part[] parts = new Part[subgraphs.size()];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        int first = 0;
+        int work = 0;
+        for (int k = 0; k < parts.length; k++) {
+            work += subgraphs.get(k).getN() + subgraphs.get(k).getEdgeCount();
+            if (work < GRAIN && k < parts.length - 1) continue;
+            int lo = first;
+            int hi = k + 1;
+            tasks.add(pool.submit(() -> {
+                GraphWorkspace workspace = GraphWorkspace.current();
+                for (int p = lo; p < hi; p++) {
+                    int partSource = p == sourcePart ? weakComponents.getLocalId(source) : -1;
+                    parts[p] = analyze(subgraphs.get(p), partSource, workspace);
+                }
+            }));
+            first = k + 1;
+            work = 0;
+        }
+        for (ForkJoinTask<?> task : tasks) task.join();
+
+        sccResult = mergeComponents(subgraphs, parts, graph.getN());
+        int totalComponents = sccResult.getNumComponents();
+
+        // Partitions have no edges between them, so their orders can simply follow each other
+        topoOrder = new int[totalComponents];
+        int t = 0;
+        for (Part part : parts) {
+            for (int c : part.topoOrder) topoOrder[t++] = part.globalComponent[c];
+        }
+
+        int sourceComponent = sccResult.getComponentId()[source];
+        shortestPaths = toGlobal(parts[sourcePart].shortestPaths, parts[sourcePart].globalComponent,
+                totalComponents, sourceComponent, Double.POSITIVE_INFINITY);
+        criticalPath = mergeCriticalPaths(parts, totalComponents);
+    }
+
+    /**
+     * Analyzes the graph on the common ForkJoinPool; source is the shortest-path source vertex.
+     * @throws IllegalArgumentException if the source is out of bounds
+     */
+    public static PartitionedAnalysis analyze(Graph graph, int source) {
+        return analyze(graph, source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #analyze(Graph, int)} on the given pool.
+     */
+    public static PartitionedAnalysis analyze(Graph graph, int source, ForkJoinPool pool) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (source < 0 || source >= graph.getN()) {
+            throw new IllegalArgumentException("Source out of bounds");
+        }
+        return new PartitionedAnalysis(graph, source, pool);
+    }
+
+    private static Part analyze(Subgraph subgraph, int source, GraphWorkspace workspace) {
+        int n = subgraph.getN();
+        Part part = new Part();
+        part.componentId = new int[n];
+        part.members = new int[n];
+        part.numComponents = new TarjanSCC().labelComponents(subgraph, part.componentId, part.members, workspace);
+        CsrGraph dag = CondensationGraph.condense(subgraph, part.componentId, part.numComponents);
+        part.topoOrder = new KahnTopologicalSort().sort(dag, workspace).getOrder();
+        if (source >= 0) {
+            part.shortestPaths = new DAGShortestPath().computeShortestPaths(dag, part.componentId[source], workspace);
+        }
+        part.criticalPath = new DAGLongestPath().findCriticalPath(dag, workspace);
+        return part;
+    }
+
+    /**
+     * Renumbers components in sequential Tarjan order. Within a partition, the components of
+     * one DFS tree are consecutive and the tree's root is its lowest vertex, found in the
+     * tree's last component: a component ends a tree exactly when its lowest vertex is below
+     * every vertex of the components after it. Trees are then ordered by root.
+     */
+    private static SCCResult mergeComponents(List<Subgraph> subgraphs, Part[] parts, int n) {
+        // Tree records: root vertex, partition, first and end component
+        List<int[]> trees = new ArrayList<>();
+        for (int p = 0; p < parts.length; p++) {
+            Part part = parts[p];
+            int[] lowest = new int[part.numComponents];
+            Arrays.fill(lowest, Integer.MAX_VALUE);
+            for (int v = 0; v < part.componentId.length; v++) {
+                lowest[part.componentId[v]] = Math.min(lowest[part.componentId[v]], v);
+            }
+            int suffixMin = Integer.MAX_VALUE;
+            int end = part.numComponents;
+            for (int c = part.numComponents - 1; c >= 0; c--) {
+                if (lowest[c] < suffixMin && c + 1 < end) {
+                    trees.add(new int[]{subgraphs.get(p).getGlobalId(suffixMin), p, c + 1, end});
+                    end = c + 1;
+                }
+                suffixMin = Math.min(suffixMin, lowest[c]);
+            }
+            if (end > 0) trees.add(new int[]{subgraphs.get(p).getGlobalId(suffixMin), p, 0, end});
+            part.globalComponent = new int[part.numComponents];
+        }
+        trees.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        int next = 0;
+        for (int[] tree : trees) {
+            Part part = parts[tree[1]];
+            for (int c = tree[2]; c < tree[3]; c++) part.globalComponent[c] = next++;
+        }
+
+        List<List<Integer>> components = new ArrayList<>(next);
+        for (int c = 0; c < next; c++) components.add(null);
+        int[] componentId = new int[n];
+        for (int p = 0; p < parts.length; p++) {
+            Part part = parts[p];
+            Subgraph subgraph = subgraphs.get(p);
+            // Members run component by component in pop order
+            for (int i = 0; i < part.members.length; ) {
+                int c = part.componentId[part.members[i]];
+                List<Integer> component = new ArrayList<>();
+                while (i < part.members.length && part.componentId[part.members[i]] == c) {
+                    int v = subgraph.getGlobalId(part.members[i++]);
+                    component.add(v);
+                    componentId[v] = part.globalComponent[c];
+                }
+                components.set(part.globalComponent[c], component);
+            }
+        }
+        return new SCCResult(components, componentId);
+    }
+
+    /**
+     * The sequential search keeps the first source, in component order, that reaches the
+     * overall maximum; each partition already did so locally, and local order is global order.
+     */
+    private static CriticalPathResult mergeCriticalPaths(Part[] parts, int totalComponents) {
+        Part best = null;
+        int bestSource = -1;
+        for (Part part : parts) {
+            CriticalPathResult result = part.criticalPath;
+            if (result.getPathResult() == null) continue;
+            int source = part.globalComponent[result.getPathResult().getSource()];
+            if (best == null || result.getLength() > best.criticalPath.getLength()
+                    || (result.getLength() == best.criticalPath.getLength() && source < bestSource)) {
+                best = part;
+                bestSource = source;
+            }
+        }
+        if (best == null) {
+            return new CriticalPathResult(null, -1, Double.NEGATIVE_INFINITY);
+        }
+        CriticalPathResult local = best.criticalPath;
+        PathResult path = toGlobal(local.getPathResult(), best.globalComponent, totalComponents,
+                bestSource, Double.NEGATIVE_INFINITY);
+        return new CriticalPathResult(path, best.globalComponent[local.getEndVertex()], local.getLength());
+    }
+
+    /**
+     * Maps a partition's PathResult onto all components; the rest are unreachable.
+     */
+    private static PathResult toGlobal(PathResult local, int[] globalComponent, int totalComponents,
+                                       int source, double unreachable) {
+        double[] dist = new double[totalComponents];
+        int[] parent = new int[totalComponents];
+        Arrays.fill(dist, unreachable);
+        Arrays.fill(parent, -1);
+        double[] localDist = local.getDistances();
+        int[] localParent = local.getParent();
+        for (int c = 0; c < localDist.length; c++) {
+            dist[globalComponent[c]] = localDist[c];
+            parent[globalComponent[c]] = localParent[c] < 0 ? -1 : globalComponent[localParent[c]];
+        }
+        return new PathResult(dist, parent, source);
+    }
+
+    /**
+     * Returns the number of weak components the graph was split into.
+     */
+    public int getPartitionCount() {
+        return weakComponents.getCount();
+    }
+
+    /**
+     * Returns the weak component labelling.
+     */
+    public WeakComponents getWeakComponents() {
+        return weakComponents;
+    }
+
+    /**
+     * Returns the SCCs of the whole graph, numbered as a sequential Tarjan run numbers them.
+     */
+    public SCCResult getSCCResult() {
+        return sccResult;
+    }
+
+    /**
+     * Returns a topological order of the whole condensation: each partition's Kahn order,
+     * partitions one after another.
+     */
+    public List<Integer> getTopologicalOrder() {
+        List<Integer> order = new ArrayList<>(topoOrder.length);
+        for (int c : topoOrder) order.add(c);
+        return order;
+    }
+
+    /**
+     * Returns shortest paths over the whole condensation from the source's component.
+     */
+    public PathResult getShortestPaths() {
+        return shortestPaths;
+    }
+
+    /**
+     * Returns the critical path of the whole condensation, in global component ids.
+     */
+    public CriticalPathResult getCriticalPath() {
+        return criticalPath;
+    }
+}
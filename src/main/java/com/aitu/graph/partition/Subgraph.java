@@ -0,0 +1,75 @@
+package com.aitu.graph.partition;
+
+import com.aitu.core.CsrGraph;
+import com.aitu.core.Graph;
+
+/**
+ * One weak component as a standalone graph. Local vertex i is global vertex
+ * getGlobalId(i); local ids follow global order, and both the neighbour lists and
+ * {@link #forEachEdge(EdgeVisitor)} keep the order of the original graph, so algorithms
+ * see the component exactly as they would inside the whole graph.
+ */
+public class Subgraph implements Graph {
+    private final int[] localToGlobal;
+    private final int[] from;
+    private final int[] to;
+    private final double[] weights;
+    private final CsrGraph csr;
+
+    /**
+     * Takes ownership of the arrays; edges are in the original graph's native order.
+     */
+    Subgraph(int[] localToGlobal, int[] from, int[] to, double[] weights) {
+        this.localToGlobal = localToGlobal;
+        this.from = from;
+        this.to = to;
+        this.weights = weights;
+        this.csr = CsrGraph.fromEdges(localToGlobal.length, from, to, weights, from.length);
+    }
+
+    /**
+     * Returns the global id of local vertex v.
+     */
+    public int getGlobalId(int v) {
+        return localToGlobal[v];
+    }
+
+    /**
+     * Returns the local-to-global vertex map (shared, do not modify).
+     */
+    public int[] getLocalToGlobal() {
+        return localToGlobal;
+    }
+
+    @Override
+    public int getN() {
+        return csr.getN();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return csr.getEdgeCount();
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return csr.getOutDegree(v);
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return csr.getTarget(v, i);
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return csr.getWeight(v, i);
+    }
+
+    @Override
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int e = 0; e < from.length; e++) {
+            visitor.visit(from[e], to[e], weights[e]);
+        }
+    }
+}
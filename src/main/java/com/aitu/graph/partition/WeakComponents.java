@@ -0,0 +1,201 @@
+package com.aitu.graph.partition;
+
+import com.aitu.core.Graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Weakly connected components (edge direction ignored), found with a lock-free union-find
+ * over vertex chunks in parallel. Unions always hang the larger root under the smaller one,
+ * so every set's root is its lowest vertex and the labels do not depend on thread timing:
+ * partition k is the one whose lowest vertex is the k-th lowest.
+ */
+public class WeakComponents {
+    // Vertices per union task
+    private static final int CHUNK = 1 << 12;
+
+    private final Graph graph;
+    private final int[] labels;
+    private final int[] localIds;
+    private final int[] vertices;
+    private final int[] vertexOffsets;
+
+    private WeakComponents(Graph graph, int[] labels, int count) {
+        this.graph = graph;
+        this.labels = labels;
+        int n = labels.length;
+
+        // Group vertices by partition; ascending ids within a partition keep relative order
+        vertexOffsets = new int[count + 1];
+        for (int v = 0; v < n; v++) vertexOffsets[labels[v] + 1]++;
+        for (int k = 0; k < count; k++) vertexOffsets[k + 1] += vertexOffsets[k];
+        int[] cursor = Arrays.copyOf(vertexOffsets, count);
+        vertices = new int[n];
+        localIds = new int[n];
+        for (int v = 0; v < n; v++) {
+            int p = cursor[labels[v]]++;
+            vertices[p] = v;
+            localIds[v] = p - vertexOffsets[labels[v]];
+        }
+    }
+
+    /**
+     * Labels the weak components of the graph on the common ForkJoinPool.
+     */
+    public static WeakComponents find(Graph graph) {
+        return find(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #find(Graph)} on the given pool.
+     */
+    public static WeakComponents find(Graph graph, ForkJoinPool pool) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        int n = graph.getN();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) parent.set(v, v);
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int lo = 0; lo < n; lo += CHUNK) {
+            int from = lo;
+            int to = Math.min(n, lo + CHUNK);
+            tasks.add(pool.submit(() -> {
+                for (int u = from; u < to; u++) {
+                    for (int i = 0, degree = graph.getOutDegree(u); i < degree; i++) {
+                        union(parent, u, graph.getTarget(u, i));
+                    }
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) task.join();
+
+        // Roots are the lowest vertex of their set, so they are labelled before their members
+        int[] labels = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int root = find(parent, v);
+            labels[v] = root == v ? count++ : labels[root];
+        }
+        return new WeakComponents(graph, labels, count);
+    }
+
+    private static int find(AtomicIntegerArray parent, int v) {
+        while (true) {
+            int p = parent.get(v);
+            if (p == v) return v;
+            int grandparent = parent.get(p);
+            // Path halving; a failed CAS only means another thread got there first
+            if (grandparent != p) parent.compareAndSet(v, p, grandparent);
+            v = grandparent;
+        }
+    }
+
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) return;
+            if (a < b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            // Hang the larger root under the smaller; retry if a gained a parent meanwhile
+            if (parent.compareAndSet(a, a, b)) return;
+        }
+    }
+
+    /**
+     * Returns the number of weak components.
+     */
+    public int getCount() {
+        return vertexOffsets.length - 1;
+    }
+
+    /**
+     * Returns the partition of vertex v.
+     */
+    public int getLabel(int v) {
+        return labels[v];
+    }
+
+    /**
+     * Returns the index of v among its partition's vertices (ascending global order).
+     */
+    public int getLocalId(int v) {
+        return localIds[v];
+    }
+
+    /**
+     * Returns the number of vertices in partition k.
+     */
+    public int getSize(int k) {
+        return vertexOffsets[k + 1] - vertexOffsets[k];
+    }
+
+    /**
+     * Splits the graph into one {@link Subgraph} per partition on the common ForkJoinPool.
+     */
+    public List<Subgraph> split() {
+        return split(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #split()} on the given pool. Edges are routed in one pass over the
+     * graph's native order, then each partition builds its CSR form in parallel.
+     */
+    public List<Subgraph> split(ForkJoinPool pool) {
+        int count = getCount();
+        int[] edgeOffsets = new int[count + 1];
+        for (int v = 0, n = labels.length; v < n; v++) {
+            edgeOffsets[labels[v] + 1] += graph.getOutDegree(v);
+        }
+        for (int k = 0; k < count; k++) edgeOffsets[k + 1] += edgeOffsets[k];
+
+        int m = edgeOffsets[count];
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] weights = new double[m];
+        int[] cursor = Arrays.copyOf(edgeOffsets, count);
+        graph.forEachEdge((u, v, weight) -> {
+            int e = cursor[labels[u]]++;
+            from[e] = localIds[u];
+            to[e] = localIds[v];
+            weights[e] = weight;
+        });
+
+        Subgraph[] parts = new Subgraph[count];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        int first = 0;
+        for (int k = 0; k < count; k++) {
+            // Pack small partitions together so each task has a useful amount of work
+            boolean last = k == count - 1;
+            if (!last && vertexOffsets[k + 1] - vertexOffsets[first] + edgeOffsets[k + 1] - edgeOffsets[first] < CHUNK) {
+                continue;
+            }
+            int lo = first;
+            int hi = k + 1;
+            tasks.add(pool.submit(() -> {
+                for (int p = lo; p < hi; p++) {
+                    int e0 = edgeOffsets[p];
+                    int e1 = edgeOffsets[p + 1];
+                    parts[p] = new Subgraph(
+                            Arrays.copyOfRange(vertices, vertexOffsets[p], vertexOffsets[p + 1]),
+                            Arrays.copyOfRange(from, e0, e1),
+                            Arrays.copyOfRange(to, e0, e1),
+                            Arrays.copyOfRange(weights, e0, e1));
+                }
+            }));
+            first = k + 1;
+        }
+        for (ForkJoinTask<?> task : tasks) task.join();
+        return Arrays.asList(parts);
+    }
+}
@@ -0,0 +1,306 @@
+package com.aitu.graph.reorder;
+
+import com.aitu.core.CsrGraph;
+import com.aitu.core.Graph;
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.graph.topo.TopologicalSortResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A copy of a graph with its vertices relabeled for memory locality, plus the permutation back.
+ *
+ * Inputs whose ids come from external systems are effectively random, so a DFS or a relaxation
+ * loop touches a new cache line for almost every neighbour. Relabeling so that vertices visited
+ * together get nearby ids keeps those accesses in cache. Reordered vertex i is original vertex
+ * toOriginal(i). The analysis methods take and return original ids, translating every result;
+ * the toOriginal overloads do the same for results computed directly on this graph.
+ *
+ * Neighbour lists keep their original order, but native edge order becomes grouped by
+ * reordered source, so ties (e.g. among parallel condensation edges) may resolve differently.
+ */
+public class ReorderedGraph implements Graph {
+
+    /**
+     * How vertices are relabeled. Traversal orders follow edges in both directions.
+     */
+    public enum Strategy {
+        /** Breadth-first order, each weak component from its smallest id. */
+        BFS,
+        /** Reverse Cuthill-McKee: BFS from a low-degree vertex, neighbours by increasing degree, reversed. */
+        RCM,
+        /** Highest total degree first, so hubs share cache lines. */
+        DEGREE
+    }
+
+    private final CsrGraph graph;
+    private final int[] newToOld;
+    private final int[] oldToNew;
+
+    private ReorderedGraph(CsrGraph graph, int[] newToOld, int[] oldToNew) {
+        this.graph = graph;
+        this.newToOld = newToOld;
+        this.oldToNew = oldToNew;
+    }
+
+    /**
+     * Relabels the graph with the given strategy. Time complexity: O(V + E), plus sorting each
+     * vertex's neighbours by degree for RCM
+     */
+    public static ReorderedGraph reorder(Graph original, Strategy strategy) {
+        if (original == null || strategy == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        int n = original.getN();
+        int[] newToOld = strategy == Strategy.DEGREE ? byDegree(original) : traversal(original, strategy == Strategy.RCM);
+        int[] oldToNew = new int[n];
+        for (int i = 0; i < n; i++) oldToNew[newToOld[i]] = i;
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) offsets[i + 1] = offsets[i] + original.getOutDegree(newToOld[i]);
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int v = newToOld[i];
+            for (int j = 0, e = offsets[i], degree = original.getOutDegree(v); j < degree; j++, e++) {
+                targets[e] = oldToNew[original.getTarget(v, j)];
+                weights[e] = original.getWeight(v, j);
+            }
+        }
+        return new ReorderedGraph(new CsrGraph(n, offsets, targets, weights), newToOld, oldToNew);
+    }
+
+    /**
+     * Vertices by decreasing in + out degree, ties by id (counting sort).
+     */
+    private static int[] byDegree(Graph graph) {
+        int n = graph.getN();
+        int[] degree = totalDegrees(graph);
+        int max = 0;
+        for (int d : degree) max = Math.max(max, d);
+        int[] start = new int[max + 2];
+        for (int d : degree) start[max - d + 1]++;
+        for (int i = 1; i < start.length; i++) start[i] += start[i - 1];
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) order[start[max - degree[v]]++] = v;
+        return order;
+    }
+
+    /**
+     * BFS over the undirected view. For RCM each component starts at its lowest-degree vertex,
+     * neighbours are queued by increasing degree, and the final order is reversed.
+     */
+    private static int[] traversal(Graph graph, boolean cuthillMcKee) {
+        int n = graph.getN();
+        int[] degree = totalDegrees(graph);
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) offsets[v + 1] = offsets[v] + degree[v];
+        int[] neighbours = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int v = 0; v < n; v++) {
+            for (int i = 0, d = graph.getOutDegree(v); i < d; i++) {
+                int w = graph.getTarget(v, i);
+                neighbours[fill[v]++] = w;
+                neighbours[fill[w]++] = v;
+            }
+        }
+
+        int[] roots = cuthillMcKee ? reversed(byDegree(graph)) : null;
+        boolean[] visited = new boolean[n];
+        int[] order = new int[n];
+        int tail = 0;
+        for (int r = 0; r < n; r++) {
+            int root = cuthillMcKee ? roots[r] : r;
+            if (visited[root]) continue;
+            visited[root] = true;
+            order[tail++] = root;
+            for (int head = tail - 1; head < tail; head++) {
+                int v = order[head];
+                int first = tail;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = neighbours[e];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        order[tail++] = w;
+                    }
+                }
+                if (cuthillMcKee) sortByDegree(order, first, tail, degree);
+            }
+        }
+        return cuthillMcKee ? reversed(order) : order;
+    }
+
+    private static void sortByDegree(int[] vertices, int from, int to, int[] degree) {
+        if (to - from < 2) return;
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) keys[i - from] = ((long) degree[vertices[i]] << 32) | vertices[i];
+        Arrays.sort(keys);
+        for (int i = from; i < to; i++) vertices[i] = (int) keys[i - from];
+    }
+
+    private static int[] totalDegrees(Graph graph) {
+        int[] degree = graph.getInDegrees();
+        for (int v = 0; v < degree.length; v++) degree[v] += graph.getOutDegree(v);
+        return degree;
+    }
+
+    private static int[] reversed(int[] a) {
+        int[] r = new int[a.length];
+        for (int i = 0; i < a.length; i++) r[i] = a[a.length - 1 - i];
+        return r;
+    }
+
+    /**
+     * Returns the original id of reordered vertex v.
+     */
+    public int toOriginal(int v) {
+        return newToOld[v];
+    }
+
+    /**
+     * Returns the reordered id of original vertex v.
+     */
+    public int toReordered(int v) {
+        return oldToNew[v];
+    }
+
+    /**
+     * Returns the permutation: entry i is the original id of reordered vertex i (shared, do not modify).
+     */
+    public int[] getPermutation() {
+        return newToOld;
+    }
+
+    /**
+     * Translates an SCC result on this graph to original ids; component numbers are unchanged.
+     */
+    public SCCResult toOriginal(SCCResult result) {
+        List<List<Integer>> components = new ArrayList<>(result.getNumComponents());
+        for (List<Integer> component : result.getComponents()) components.add(toOriginal(component));
+        int[] id = result.getComponentId();
+        int[] componentId = new int[id.length];
+        for (int v = 0; v < id.length; v++) componentId[newToOld[v]] = id[v];
+        return new SCCResult(components, componentId);
+    }
+
+    public TopologicalSortResult toOriginal(TopologicalSortResult result) {
+        return new TopologicalSortResult(toOriginal(result.getOrder()), result.isDAG());
+    }
+
+    /**
+     * Returns null for a null result, which the path engines give on a cyclic graph.
+     */
+    public PathResult toOriginal(PathResult result) {
+        if (result == null) {
+            return null;
+        }
+        double[] dist = result.getDistances();
+        int[] parent = result.getParent();
+        double[] originalDist = new double[dist.length];
+        int[] originalParent = new int[parent.length];
+        for (int v = 0; v < dist.length; v++) {
+            originalDist[newToOld[v]] = dist[v];
+            originalParent[newToOld[v]] = parent[v] < 0 ? parent[v] : newToOld[parent[v]];
+        }
+        return new PathResult(originalDist, originalParent, newToOld[result.getSource()]);
+    }
+
+    public CriticalPathResult toOriginal(CriticalPathResult result) {
+        if (result == null) {
+            return null;
+        }
+        PathResult path = result.getPathResult() == null ? null : toOriginal(result.getPathResult());
+        int end = result.getEndVertex() < 0 ? result.getEndVertex() : newToOld[result.getEndVertex()];
+        return new CriticalPathResult(path, end, result.getLength());
+    }
+
+    private List<Integer> toOriginal(List<Integer> vertices) {
+        List<Integer> original = new ArrayList<>(vertices.size());
+        for (int v : vertices) original.add(newToOld[v]);
+        return original;
+    }
+
+    /**
+     * Tarjan on the reordered graph, in original ids.
+     */
+    public SCCResult findSCC() {
+        return toOriginal(new TarjanSCC().findSCC(graph));
+    }
+
+    /**
+     * Kahn on the reordered graph, in original ids. The order is valid but can differ from
+     * Kahn's order on the original graph.
+     */
+    public TopologicalSortResult topologicalSort() {
+        return toOriginal(new KahnTopologicalSort().sort(graph));
+    }
+
+    /**
+     * Shortest paths from an original source, in original ids.
+     */
+    public PathResult shortestPaths(int source) {
+        return toOriginal(new DAGShortestPath().computeShortestPaths(graph, toReordered(source)));
+    }
+
+    /**
+     * Longest paths from an original source, in original ids.
+     */
+    public PathResult longestPaths(int source) {
+        return toOriginal(new DAGLongestPath().computeLongestPaths(graph, toReordered(source)));
+    }
+
+    /**
+     * Critical path, in original ids.
+     */
+    public CriticalPathResult criticalPath() {
+        return toOriginal(new DAGLongestPath().findCriticalPath(graph));
+    }
+
+    @Override
+    public int getN() {
+        return graph.getN();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return graph.getEdgeCount();
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return graph.getOutDegree(v);
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return graph.getTarget(v, i);
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return graph.getWeight(v, i);
+    }
+
+    @Override
+    public int getTargets(int v, int[] buffer) {
+        return graph.getTargets(v, buffer);
+    }
+
+    @Override
+    public void forEachEdge(EdgeVisitor visitor) {
+        graph.forEachEdge(visitor);
+    }
+
+    @Override
+    public int[] getInDegrees() {
+        return graph.getInDegrees();
+    }
+}
@@ -0,0 +1,137 @@
+package com.aitu.graph.scc;
+
+import com.aitu.core.DenseGraph;
+import com.aitu.utils.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tarjan's algorithm on a {@link DenseGraph}, word-parallel over the adjacency rows.
+ *
+ * Each call frame keeps a cursor into u's row. At each 64-bit word, row & ~visited gives the
+ * next tree edge, and the edges before it that hit onStack lower u's low-link. Neighbours whose
+ * SCC is already done are passed a word at a time and only counted with Long.bitCount, so a
+ * dense graph costs O(V^2 / 64) plus the edges into the current stack, instead of O(V + E).
+ *
+ * Edges are examined one by one in increasing target order, exactly as TarjanSCC examines them
+ * on a backend that lists them in that order; there both give the same numbering. Every count
+ * in the metrics depends only on the graph, so they match TarjanSCC for any edge order.
+ */
+public class BitsetSCC {
+    private final Metrics metrics;
+
+    public BitsetSCC() {
+        this.metrics = new Metrics("Bitset-SCC");
+    }
+
+    /**
+     * Finds all strongly connected components. Components are numbered in pop order, i.e. in
+     * reverse topological order of the condensation, as TarjanSCC does.
+     * Time complexity: O(V^2 / 64 + E')
+     */
+    public SCCResult findSCC(DenseGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        int n = graph.getN();
+        int words = graph.getWordsPerRow();
+        long[] rows = graph.getRows();
+        long[] visited = new long[words];
+        long[] onStack = new long[words];
+        int[] disc = new int[n];
+        int[] low = new int[n];
+        int[] stack = new int[n];
+        int[] callVertex = new int[n];
+        int[] callTarget = new int[n]; // next target to examine in u's row
+        int[] componentId = new int[n];
+        List<List<Integer>> components = new ArrayList<>();
+        int time = 0;
+        int top = 0;
+
+        metrics.reset();
+        metrics.startTimer();
+
+        for (int root = 0; root < n; root++) {
+            if ((visited[root >>> 6] & (1L << root)) != 0) continue;
+
+            visited[root >>> 6] |= 1L << root;
+            onStack[root >>> 6] |= 1L << root;
+            disc[root] = low[root] = time++;
+            stack[top++] = root;
+            metrics.incrementDFSVisit();
+            metrics.incrementStackOperation();
+            callVertex[0] = root;
+            callTarget[0] = 0;
+            int depth = 1;
+
+            while (depth > 0) {
+                int u = callVertex[depth - 1];
+                int base = u * words;
+                int t = callTarget[depth - 1];
+                int next = -1;
+                for (int w = t >>> 6; w < words; w++) {
+                    long row = rows[base + w];
+                    if (w == t >>> 6) row &= -1L << t;
+                    long fresh = row & ~visited[w];
+                    // Edges up to and including the next tree edge; the rest wait until it returns
+                    long examined = fresh == 0 ? row : row & ((fresh & -fresh) - 1);
+                    metrics.addEdgeExplorations(Long.bitCount(examined) + (fresh == 0 ? 0 : 1));
+                    // Back and cross edges into the stack
+                    for (long back = examined & onStack[w]; back != 0; back &= back - 1) {
+                        low[u] = Math.min(low[u], disc[(w << 6) + Long.numberOfTrailingZeros(back)]);
+                        metrics.incrementLowLinkUpdate();
+                    }
+                    if (fresh != 0) {
+                        next = (w << 6) + Long.numberOfTrailingZeros(fresh);
+                        break;
+                    }
+                }
+
+                if (next >= 0) {
+                    // Tree edge: descend into next
+                    callTarget[depth - 1] = next + 1;
+                    visited[next >>> 6] |= 1L << next;
+                    onStack[next >>> 6] |= 1L << next;
+                    disc[next] = low[next] = time++;
+                    stack[top++] = next;
+                    metrics.incrementDFSVisit();
+                    metrics.incrementStackOperation();
+                    callVertex[depth] = next;
+                    callTarget[depth] = 0;
+                    depth++;
+                    continue;
+                }
+
+                // u is finished; if it is a root of an SCC, pop the SCC from the stack
+                if (low[u] == disc[u]) {
+                    List<Integer> component = new ArrayList<>();
+                    int v;
+                    do {
+                        v = stack[--top];
+                        onStack[v >>> 6] &= ~(1L << v);
+                        componentId[v] = components.size();
+                        component.add(v);
+                        metrics.incrementStackOperation();
+                    } while (v != u);
+                    components.add(component);
+                }
+
+                depth--;
+                if (depth > 0) {
+                    int parent = callVertex[depth - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                    metrics.incrementLowLinkUpdate();
+                }
+            }
+        }
+
+        metrics.stopTimer();
+
+        return new SCCResult(components, componentId);
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
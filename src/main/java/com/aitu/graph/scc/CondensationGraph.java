@@ -1,7 +1,8 @@
 package com.aitu.graph.scc;
 
+import com.aitu.core.CsrGraph;
 import com.aitu.core.DirectedGraph;
-import com.aitu.core.Edge;
+import com.aitu.core.Graph;
 
 import java.util.*;
 
@@ -10,11 +11,11 @@ import java.util.*;
  * Each SCC becomes a single vertex; edges connect different SCCs.
  */
 public class CondensationGraph {
-    private final DirectedGraph original;
+    private final Graph original;
     private final SCCResult sccResult;
     private DirectedGraph condensation;
 
-    public CondensationGraph(DirectedGraph original, SCCResult sccResult) {
+    public CondensationGraph(Graph original, SCCResult sccResult) {
         if (original == null || sccResult == null) {
             throw new IllegalArgumentException("Arguments cannot be null");
         }
@@ -38,23 +39,68 @@ public class CondensationGraph {
         }
         condensation = new DirectedGraph(numComponents);
 
-        Set<String> addedEdges = new HashSet<>();
+        // Boxed Long keys hash to fromComp ^ toComp, which piles nearby pairs into few buckets
+        PairIndex addedEdges = new PairIndex();
         int[] componentId = sccResult.getComponentId();
 
-        for (Edge edge : original.getAllEdges()) {
-            int fromComp = componentId[edge.getFrom()];
-            int toComp = componentId[edge.getTo()];
+        // Native edge order: the first edge between two components supplies the weight
+        original.forEachEdge((from, to, weight) -> {
+            int fromComp = componentId[from];
+            int toComp = componentId[to];
 
             // Skip edges within same SCC
             if (fromComp != toComp) {
-                String edgeKey = fromComp + "->" + toComp;
                 // Avoid duplicate edges between same component pair
-                if (!addedEdges.contains(edgeKey)) {
-                    condensation.addEdge(fromComp, toComp, edge.getWeight());
-                    addedEdges.add(edgeKey);
+                if (addedEdges.get(fromComp, toComp) < 0) {
+                    addedEdges.put(fromComp, toComp, 0);
+                    condensation.addEdge(fromComp, toComp, weight);
                 }
             }
+        });
+    }
+
+    /**
+     * Array-based condensation with the same neighbour lists as {@link #getCondensation()}:
+     * each component keeps one edge per target component, the first in native edge order.
+     * Edges are grouped by a stable sort and deduplicated with a per-target stamp instead of
+     * a set of boxed keys. Time complexity: O(V + E)
+     */
+    public static CsrGraph condense(Graph original, int[] componentId, int numComponents) {
+        int[] from = new int[original.getEdgeCount()];
+        int[] to = new int[from.length];
+        double[] weights = new double[from.length];
+        int[] count = new int[1];
+        original.forEachEdge((u, v, weight) -> {
+            // Skip edges within same SCC
+            if (componentId[u] != componentId[v]) {
+                from[count[0]] = componentId[u];
+                to[count[0]] = componentId[v];
+                weights[count[0]++] = weight;
+            }
+        });
+        CsrGraph grouped = CsrGraph.fromEdges(numComponents, from, to, weights, count[0]);
+
+        // Compact in place, keeping the first edge from c to each target
+        int[] offsets = grouped.getOffsets();
+        int[] targets = grouped.getTargets();
+        double[] w = grouped.getWeights();
+        int[] seenFrom = new int[numComponents];
+        Arrays.fill(seenFrom, -1);
+        int kept = 0;
+        int start = 0;
+        for (int c = 0; c < numComponents; c++) {
+            int end = offsets[c + 1];
+            for (int e = start; e < end; e++) {
+                if (seenFrom[targets[e]] != c) {
+                    seenFrom[targets[e]] = c;
+                    targets[kept] = targets[e];
+                    w[kept++] = w[e];
+                }
+            }
+            start = end;
+            offsets[c + 1] = kept;
         }
+        return new CsrGraph(numComponents, offsets, Arrays.copyOf(targets, kept), Arrays.copyOf(w, kept));
     }
 
     /**
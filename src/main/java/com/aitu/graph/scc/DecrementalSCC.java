@@ -0,0 +1,456 @@
+package com.aitu.graph.scc;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
+import com.aitu.utils.GraphWorkspace;
+import com.aitu.utils.GraphWorkspace.Marks;
+import com.aitu.utils.GraphWorkspace.Slot;
+import com.aitu.utils.Metrics;
+
+import java.util.*;
+
+/**
+ * Maintains the SCCs and the condensation of a graph while edges are removed.
+ *
+ * Removing an edge between two components only updates their condensation edge. Removing u -> v
+ * inside a component C splits C exactly when u no longer reaches v: every other path through C
+ * can detour around the missing edge. That is checked first, with a bidirectional search from u
+ * and v that stops as soon as the two sides meet, so giant components that stay connected cost
+ * only the detour. Otherwise Tarjan runs on C's vertices and internal edges alone, and only C's
+ * entries in the SCCResult and the condensation edges touching C are patched. Either way the
+ * rest of the graph is never visited.
+ *
+ * Component ids are stable: after a split one piece keeps C's id and the others get new ids at
+ * the end, so getSCCResult() is patched in place rather than rebuilt. The ids are therefore not
+ * in topological order once a component has split. For each pair of components the condensation
+ * keeps the weight of the earliest remaining edge, as CondensationGraph does for the same graph.
+ */
+public class DecrementalSCC {
+    private final int n;
+    private final int[] componentId;
+    private final List<List<Integer>> components;
+    private final SCCResult result;
+    private final int[] pieceOf; // piece of each vertex during a split
+    private final GraphWorkspace workspace = new GraphWorkspace();
+    private final Metrics metrics = new Metrics("Decremental-SCC");
+    private int edgeCount;
+
+    // Edges by insertion rank; each vertex's slice of outEdges / inEdges lists its remaining edges
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final double[] edgeWeight;
+    private final int[] outStart;
+    private final int[] outSize;
+    private final int[] outEdges;
+    private final int[] inStart;
+    private final int[] inSize;
+    private final int[] inEdges;
+
+    // Condensation edges ("links"): linkFrom is -1 once a link is dropped
+    private int[] linkFrom = new int[16];
+    private int[] linkTo = new int[16];
+    private int[] linkFirst = new int[16]; // earliest remaining edge between the two components
+    private int[] linkEdges = new int[16]; // number of remaining edges between them
+    private int linkCount;
+    private final PairIndex pairs = new PairIndex();
+
+    /**
+     * Starts from an existing graph with one Tarjan run. Time complexity: O(V + E)
+     */
+    public DecrementalSCC(Graph initial) {
+        if (initial == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        this.n = initial.getN();
+        int m = initial.getEdgeCount();
+        this.edgeFrom = new int[m];
+        this.edgeTo = new int[m];
+        this.edgeWeight = new double[m];
+        this.outStart = new int[n + 1];
+        this.outSize = new int[n];
+        this.outEdges = new int[m];
+        this.inStart = new int[n + 1];
+        this.inSize = new int[n];
+        this.inEdges = new int[m];
+        this.pieceOf = new int[n];
+
+        // Native order, so edge ids are insertion ranks
+        int[] count = new int[1];
+        initial.forEachEdge((from, to, weight) -> {
+            edgeFrom[count[0]] = from;
+            edgeTo[count[0]] = to;
+            edgeWeight[count[0]++] = weight;
+            outSize[from]++;
+            inSize[to]++;
+        });
+        this.edgeCount = m;
+        for (int v = 0; v < n; v++) {
+            outStart[v + 1] = outStart[v] + outSize[v];
+            inStart[v + 1] = inStart[v] + inSize[v];
+        }
+        Arrays.fill(outSize, 0);
+        Arrays.fill(inSize, 0);
+        for (int e = 0; e < m; e++) {
+            outEdges[outStart[edgeFrom[e]] + outSize[edgeFrom[e]]++] = e;
+            inEdges[inStart[edgeTo[e]] + inSize[edgeTo[e]]++] = e;
+        }
+
+        SCCResult scc = new TarjanSCC().findSCC(initial, workspace);
+        this.componentId = scc.getComponentId();
+        this.components = new ArrayList<>(scc.getComponents());
+        this.result = new SCCResult(components, componentId);
+        for (int e = 0; e < m; e++) {
+            if (componentId[edgeFrom[e]] != componentId[edgeTo[e]]) {
+                addToLink(componentId[edgeFrom[e]], componentId[edgeTo[e]], e);
+            }
+        }
+    }
+
+    /**
+     * Removes the earliest remaining edge u -> v and returns true if that split its component.
+     * Time complexity: O(deg(u) + deg(v)) between components; within a component C, the size
+     * of the bidirectional search, plus O(|C| + edges touching C) if C splits
+     * @throws IllegalArgumentException if a vertex is out of bounds or there is no such edge
+     */
+    public boolean removeEdge(int u, int v) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+        int e = -1;
+        for (int i = outStart[u], end = outStart[u] + outSize[u]; i < end; i++) {
+            if (edgeTo[outEdges[i]] == v) {
+                e = outEdges[i];
+                break;
+            }
+        }
+        if (e < 0) {
+            throw new IllegalArgumentException("No edge " + u + " -> " + v);
+        }
+        unlist(outEdges, outStart[u], outSize, u, e);
+        unlist(inEdges, inStart[v], inSize, v, e);
+        edgeCount--;
+
+        int a = componentId[u];
+        int b = componentId[v];
+        if (a != b) {
+            if (releaseLink(a, b, e)) {
+                int id = pairs.get(a, b);
+                linkFirst[id] = earliestEdge(a, b);
+            }
+            return false;
+        }
+        if (u == v || stillReaches(u, v)) {
+            return false;
+        }
+        return split(a);
+    }
+
+    /**
+     * Removes edge id e from vertex x's slice, keeping the rest in insertion order.
+     */
+    private static void unlist(int[] edges, int start, int[] sizes, int x, int e) {
+        int end = start + sizes[x];
+        int i = start;
+        while (edges[i] != e) i++;
+        System.arraycopy(edges, i + 1, edges, i, end - i - 1);
+        sizes[x]--;
+    }
+
+    /**
+     * Whether u still reaches v inside their component. Searches forward from u and backward
+     * from v one vertex at a time, and stops when the searches meet or either runs out.
+     */
+    private boolean stillReaches(int u, int v) {
+        int c = componentId[u];
+        Marks forward = workspace.marks(Slot.DYNAMIC_FORWARD, n);
+        Marks backward = workspace.marks(Slot.DYNAMIC_BACKWARD, n);
+        int[] forwardQueue = workspace.ints(Slot.DYNAMIC_FORWARD, n);
+        int[] backwardQueue = workspace.ints(Slot.DYNAMIC_BACKWARD, n);
+        int forwardHead = 0;
+        int forwardTail = 0;
+        int backwardHead = 0;
+        int backwardTail = 0;
+        forwardQueue[forwardTail++] = u;
+        forward.add(u);
+        backwardQueue[backwardTail++] = v;
+        backward.add(v);
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            int x = forwardQueue[forwardHead++];
+            metrics.incrementDFSVisit();
+            for (int i = outStart[x], end = outStart[x] + outSize[x]; i < end; i++) {
+                int y = edgeTo[outEdges[i]];
+                metrics.incrementEdgeExploration();
+                if (componentId[y] != c || forward.contains(y)) continue;
+                if (backward.contains(y)) return true;
+                forward.add(y);
+                forwardQueue[forwardTail++] = y;
+            }
+
+            x = backwardQueue[backwardHead++];
+            metrics.incrementDFSVisit();
+            for (int i = inStart[x], end = inStart[x] + inSize[x]; i < end; i++) {
+                int y = edgeFrom[inEdges[i]];
+                metrics.incrementEdgeExploration();
+                if (componentId[y] != c || backward.contains(y)) continue;
+                if (forward.contains(y)) return true;
+                backward.add(y);
+                backwardQueue[backwardTail++] = y;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits component c by a Tarjan run over its vertices and internal edges. The largest piece
+     * keeps id c, the others are numbered from getNumComponents(), and only edges of the smaller
+     * pieces are moved to new links, so peeling a few vertices off a giant component costs one
+     * pass over the giant instead of several. Returns whether c split.
+     */
+    private boolean split(int c) {
+        List<Integer> members = components.get(c);
+        int size = members.size();
+        int[] order = new int[size];
+        int pieces = labelPieces(c, members, order);
+        if (pieces == 1) {
+            return false;
+        }
+
+        // Pieces are contiguous runs of order, numbered by pieceOf in pop order
+        int[] pieceSize = new int[pieces];
+        for (int x : order) pieceSize[pieceOf[x]]++;
+        int largest = 0;
+        for (int p = 1; p < pieces; p++) {
+            if (pieceSize[p] > pieceSize[largest]) largest = p;
+        }
+        int firstNew = components.size();
+        int[] id = new int[pieces];
+        for (int p = 0, next = firstNew; p < pieces; p++) id[p] = p == largest ? c : next++;
+        List<List<Integer>> split = new ArrayList<>(pieces);
+        for (int p = 0; p < pieces; p++) split.add(new ArrayList<>(pieceSize[p]));
+        for (int x : order) {
+            componentId[x] = id[pieceOf[x]];
+            split.get(pieceOf[x]).add(x);
+        }
+        components.set(c, split.get(largest));
+        for (int p = 0; p < pieces; p++) {
+            if (p != largest) components.add(split.get(p));
+        }
+
+        // Move the smaller pieces' edges: outside edges leave their link with c, internal edges
+        // now crossing pieces join one. An edge between two small pieces is handled at its source.
+        int staleCount = 0;
+        int[] stale = new int[0];
+        for (int p = 0; p < pieces; p++) {
+            if (p == largest) continue;
+            for (int x : split.get(p)) {
+                int own = componentId[x];
+                for (int i = outStart[x], end = outStart[x] + outSize[x]; i < end; i++) {
+                    int e = outEdges[i];
+                    int t = componentId[edgeTo[e]];
+                    boolean wasInside = t == c || t >= firstNew;
+                    if (!wasInside && releaseLink(c, t, e)) {
+                        if (staleCount == stale.length) stale = Arrays.copyOf(stale, staleCount * 2 + 4);
+                        stale[staleCount++] = pairs.get(c, t);
+                    }
+                    if (t != own) addToLink(own, t, e);
+                }
+                for (int i = inStart[x], end = inStart[x] + inSize[x]; i < end; i++) {
+                    int e = inEdges[i];
+                    int s = componentId[edgeFrom[e]];
+                    boolean wasInside = s == c || s >= firstNew;
+                    if (!wasInside && releaseLink(s, c, e)) {
+                        if (staleCount == stale.length) stale = Arrays.copyOf(stale, staleCount * 2 + 4);
+                        stale[staleCount++] = pairs.get(s, c);
+                    }
+                    if (!wasInside || s == c) addToLink(s, own, e);
+                }
+            }
+        }
+        for (int i = 0; i < staleCount; i++) {
+            int link = stale[i];
+            if (linkFrom[link] >= 0) linkFirst[link] = earliestEdge(linkFrom[link], linkTo[link]);
+        }
+        return true;
+    }
+
+    /**
+     * Iterative Tarjan over component c's vertices, following only edges that stay in c. Writes
+     * each vertex's piece number into pieceOf and the vertices into order, piece by piece in
+     * pop order. Returns the number of pieces.
+     */
+    private int labelPieces(int c, List<Integer> members, int[] order) {
+        int[] disc = workspace.ints(Slot.TARJAN_DISC, n);
+        int[] low = workspace.ints(Slot.TARJAN_LOW, n);
+        int[] stack = workspace.ints(Slot.TARJAN_STACK, n);
+        int[] callVertex = workspace.ints(Slot.TARJAN_CALL_VERTEX, n);
+        int[] callEdge = workspace.ints(Slot.TARJAN_CALL_EDGE, n);
+        Marks visited = workspace.marks(Slot.TARJAN_VISITED, n);
+        Marks onStack = workspace.marks(Slot.TARJAN_ON_STACK, n);
+        int pieces = 0;
+        int popped = 0;
+        int time = 0;
+        int top = 0;
+        for (int root : members) {
+            if (visited.contains(root)) continue;
+            visited.add(root);
+            disc[root] = low[root] = time++;
+            stack[top++] = root;
+            onStack.add(root);
+            callVertex[0] = root;
+            callEdge[0] = outStart[root];
+            int depth = 1;
+            while (depth > 0) {
+                int x = callVertex[depth - 1];
+                int i = callEdge[depth - 1];
+                if (i < outStart[x] + outSize[x]) {
+                    callEdge[depth - 1] = i + 1;
+                    int y = edgeTo[outEdges[i]];
+                    if (componentId[y] != c) continue;
+                    if (!visited.contains(y)) {
+                        visited.add(y);
+                        disc[y] = low[y] = time++;
+                        stack[top++] = y;
+                        onStack.add(y);
+                        callVertex[depth] = y;
+                        callEdge[depth] = outStart[y];
+                        depth++;
+                    } else if (onStack.contains(y)) {
+                        low[x] = Math.min(low[x], disc[y]);
+                    }
+                    continue;
+                }
+                if (low[x] == disc[x]) {
+                    int y;
+                    do {
+                        y = stack[--top];
+                        onStack.remove(y);
+                        order[popped++] = y;
+                        pieceOf[y] = pieces;
+                    } while (y != x);
+                    pieces++;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callVertex[depth - 1];
+                    low[parent] = Math.min(low[parent], low[x]);
+                }
+            }
+        }
+        return pieces;
+    }
+
+    private void addToLink(int from, int to, int e) {
+        int id = pairs.get(from, to);
+        if (id >= 0) {
+            linkEdges[id]++;
+            linkFirst[id] = Math.min(linkFirst[id], e);
+            return;
+        }
+        if (linkCount == linkFrom.length) {
+            int capacity = linkCount * 2;
+            linkFrom = Arrays.copyOf(linkFrom, capacity);
+            linkTo = Arrays.copyOf(linkTo, capacity);
+            linkFirst = Arrays.copyOf(linkFirst, capacity);
+            linkEdges = Arrays.copyOf(linkEdges, capacity);
+        }
+        id = linkCount++;
+        linkFrom[id] = from;
+        linkTo[id] = to;
+        linkFirst[id] = e;
+        linkEdges[id] = 1;
+        pairs.put(from, to, id);
+    }
+
+    private void dropLink(int from, int to) {
+        int id = pairs.get(from, to);
+        if (id >= 0) {
+            pairs.remove(from, to);
+            linkFrom[id] = -1;
+        }
+    }
+
+    /**
+     * Takes edge e out of the link from a to b. Returns true if the link survives but e was its
+     * earliest edge, so linkFirst must be recomputed.
+     */
+    private boolean releaseLink(int a, int b, int e) {
+        int id = pairs.get(a, b);
+        if (--linkEdges[id] == 0) {
+            dropLink(a, b);
+            return false;
+        }
+        return linkFirst[id] == e;
+    }
+
+    /**
+     * Earliest remaining edge from component a to component b, found by scanning the edges of
+     * the smaller one.
+     */
+    private int earliestEdge(int a, int b) {
+        int first = Integer.MAX_VALUE;
+        if (components.get(a).size() <= components.get(b).size()) {
+            for (int x : components.get(a)) {
+                for (int i = outStart[x], end = outStart[x] + outSize[x]; i < end; i++) {
+                    if (componentId[edgeTo[outEdges[i]]] == b) first = Math.min(first, outEdges[i]);
+                }
+            }
+        } else {
+            for (int x : components.get(b)) {
+                for (int i = inStart[x], end = inStart[x] + inSize[x]; i < end; i++) {
+                    if (componentId[edgeFrom[inEdges[i]]] == a) first = Math.min(first, inEdges[i]);
+                }
+            }
+        }
+        return first;
+    }
+
+    public boolean sameComponent(int u, int v) {
+        return componentId[u] == componentId[v];
+    }
+
+    public int getNumComponents() {
+        return components.size();
+    }
+
+    /**
+     * Number of edges left.
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * The live result: removals patch its component lists and ids in place.
+     */
+    public SCCResult getSCCResult() {
+        return result;
+    }
+
+    /**
+     * Snapshot of the condensation with the ids of getSCCResult(). Edges are added in insertion
+     * order of their earliest remaining edge, as CondensationGraph does. Time complexity:
+     * O(V + L log L) for L links created so far
+     */
+    public DirectedGraph getCondensation() {
+        long[] live = new long[linkCount];
+        int k = 0;
+        for (int id = 0; id < linkCount; id++) {
+            if (linkFrom[id] >= 0) live[k++] = ((long) linkFirst[id] << 32) | id;
+        }
+        Arrays.sort(live, 0, k);
+        DirectedGraph condensation = new DirectedGraph(components.size());
+        for (int i = 0; i < k; i++) {
+            int id = (int) live[i];
+            condensation.addEdge(linkFrom[id], linkTo[id], edgeWeight[linkFirst[id]]);
+        }
+        return condensation;
+    }
+
+    /**
+     * Work counters for removals inside components: vertices visited and edges scanned by the
+     * connectivity checks. Local Tarjan runs are not counted.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,447 @@
+package com.aitu.graph.scc;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
+import com.aitu.utils.GraphWorkspace;
+import com.aitu.utils.GraphWorkspace.Marks;
+import com.aitu.utils.GraphWorkspace.Slot;
+import com.aitu.utils.Metrics;
+
+import java.util.*;
+
+/**
+ * Maintains the SCCs and the condensation of a graph while edges are inserted.
+ *
+ * Components are kept in a topological order of the condensation (Pearce-Kelly). An edge a -> b
+ * between components that already respects the order costs O(1). Otherwise only components whose
+ * positions lie between b and a are searched, forward from b and backward from a. If the forward
+ * search reaches a, the components found by both searches form a new cycle and are merged; either
+ * way the searched components are reordered among their own positions. An insertion therefore
+ * costs time proportional to the affected components and their edges, not O(V + E).
+ *
+ * A component is identified by a representative vertex (union-find), which can change when
+ * components merge. getSCCResult() and getCondensation() number the components 0..k-1 in the
+ * maintained topological order. For each pair of components the condensation keeps the weight
+ * of the earliest inserted edge, which is the edge CondensationGraph keeps for the same graph.
+ *
+ * Condensation edges ("links") live in primitive arrays. A link's id is its insertion rank, so
+ * comparing ids compares insertion order. Per-component link lists may hold stale ids of links
+ * that were dropped or moved by a merge; they are skipped and compacted away when scanned.
+ */
+public class IncrementalSCC {
+    private final int n;
+    private final int[] parent;
+    private final int[] size;
+    private final int[] nextMember; // circular member list of each component
+    private final int[] ord; // position of each representative
+    private final int[] atPosition; // representative at each position, -1 once merged away
+    private final GraphWorkspace workspace = new GraphWorkspace();
+    private final Metrics metrics = new Metrics("Incremental-SCC");
+    private int numComponents;
+    private long edgeCount;
+
+    // Links: linkFrom is -1 once a link is dropped
+    private int[] linkFrom = new int[16];
+    private int[] linkTo = new int[16];
+    private double[] linkWeight = new double[16];
+    private int linkCount;
+    private final PairIndex pairs = new PairIndex();
+    private final int[][] outLinks;
+    private final int[] outSize;
+    private final int[][] inLinks;
+    private final int[] inSize;
+
+    /**
+     * Starts with n isolated vertices.
+     */
+    public IncrementalSCC(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Vertex count must be >= 0");
+        }
+        this.n = n;
+        this.parent = new int[n];
+        this.size = new int[n];
+        this.nextMember = new int[n];
+        this.ord = new int[n];
+        this.atPosition = new int[n];
+        this.outLinks = new int[n][];
+        this.outSize = new int[n];
+        this.inLinks = new int[n][];
+        this.inSize = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+            nextMember[v] = v;
+            ord[v] = v;
+            atPosition[v] = v;
+        }
+        this.numComponents = n;
+    }
+
+    /**
+     * Starts from an existing graph: one Tarjan run, then edges are inserted one at a time.
+     * Time complexity: O(V + E log V)
+     */
+    public IncrementalSCC(Graph initial) {
+        this(initial.getN());
+        SCCResult scc = new TarjanSCC().findSCC(initial, workspace);
+        List<List<Integer>> components = scc.getComponents();
+        int k = components.size();
+        int[] rep = new int[k];
+        for (int c = 0; c < k; c++) {
+            List<Integer> members = components.get(c);
+            int r = members.get(0);
+            rep[c] = r;
+            for (int v : members) {
+                parent[v] = r;
+                if (v != r) joinMembers(r, v);
+            }
+            size[r] = members.size();
+        }
+        this.numComponents = k;
+
+        int[] componentId = scc.getComponentId();
+        int[] order = smallestFirstOrder(CondensationGraph.condense(initial, componentId, k), components);
+        Arrays.fill(atPosition, -1);
+        for (int position = 0; position < k; position++) {
+            int r = rep[order[position]];
+            ord[r] = position;
+            atPosition[position] = r;
+        }
+
+        // Native order, so the first edge between two components becomes their link
+        initial.forEachEdge((from, to, weight) -> {
+            edgeCount++;
+            int a = rep[componentId[from]];
+            int b = rep[componentId[to]];
+            if (a != b && pairs.get(a, b) < 0) addLink(a, b, weight);
+        });
+    }
+
+    /**
+     * Kahn's algorithm that always takes the ready component with the smallest vertex. Graphs
+     * that grow over time usually number vertices in creation order, and keeping that order
+     * keeps later searches short; Tarjan's or a FIFO order scatters neighbouring vertices.
+     * Time complexity: O(V + E log V)
+     */
+    private static int[] smallestFirstOrder(Graph condensation, List<List<Integer>> components) {
+        int k = condensation.getN();
+        int[] inDegree = condensation.getInDegrees();
+        // Ready components keyed by (smallest member, component)
+        PriorityQueue<Long> ready = new PriorityQueue<>();
+        for (int c = 0; c < k; c++) {
+            if (inDegree[c] == 0) ready.add(key(c, components));
+        }
+        int[] order = new int[k];
+        for (int i = 0; i < k; i++) {
+            int c = (int) (long) ready.poll();
+            order[i] = c;
+            for (int j = 0, degree = condensation.getOutDegree(c); j < degree; j++) {
+                int t = condensation.getTarget(c, j);
+                if (--inDegree[t] == 0) ready.add(key(t, components));
+            }
+        }
+        return order;
+    }
+
+    private static long key(int c, List<List<Integer>> components) {
+        return ((long) Collections.min(components.get(c)) << 32) | c;
+    }
+
+    /**
+     * Inserts the edge u -> v and returns true if it closed a cycle, merging components.
+     * Edges inside a component and parallel edges between two components only count towards
+     * getEdgeCount(); the condensation keeps the earliest one.
+     * @throws IllegalArgumentException if a vertex is out of bounds
+     */
+    public boolean addEdge(int u, int v, double weight) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+        edgeCount++;
+        int a = find(u);
+        int b = find(v);
+        if (a == b || pairs.get(a, b) >= 0) {
+            return false;
+        }
+        addLink(a, b, weight);
+        if (ord[a] < ord[b]) {
+            return false;
+        }
+
+        int lb = ord[b];
+        int ub = ord[a];
+        Marks forward = workspace.marks(Slot.DYNAMIC_FORWARD, n);
+        Marks backward = workspace.marks(Slot.DYNAMIC_BACKWARD, n);
+        int[] forwardSet = workspace.ints(Slot.DYNAMIC_FORWARD, n);
+        int[] backwardSet = workspace.ints(Slot.DYNAMIC_BACKWARD, n);
+        int forwardCount = search(b, ub, true, forward, forwardSet);
+        int backwardCount = search(a, lb, false, backward, backwardSet);
+
+        boolean merged = forward.contains(a);
+        int[] positions = new int[forwardCount + backwardCount];
+        int p = 0;
+        for (int i = 0; i < forwardCount; i++) positions[p++] = ord[forwardSet[i]];
+        for (int i = 0; i < backwardCount; i++) {
+            // Components on the new cycle were found by both searches; keep their position once
+            if (!forward.contains(backwardSet[i])) positions[p++] = ord[backwardSet[i]];
+        }
+        positions = Arrays.copyOf(positions, p);
+        Arrays.sort(positions);
+        for (int position : positions) atPosition[position] = -1;
+
+        // Components that only reach a go first, then the merged cycle, then those only reachable from b
+        int[] before = sortByOrd(backwardSet, backwardCount, forward, false);
+        int[] after = sortByOrd(forwardSet, forwardCount, backward, false);
+        int next = 0;
+        for (int c : before) place(c, positions[next++]);
+        if (merged) {
+            int[] cycle = sortByOrd(forwardSet, forwardCount, backward, true);
+            int root = merge(cycle, forward, backward);
+            place(root, positions[next++]);
+        }
+        // The last positions go to the forward side, leaving holes where merged components were
+        next = positions.length - after.length;
+        for (int c : after) place(c, positions[next++]);
+        return merged;
+    }
+
+    /**
+     * Bounded search over the condensation: forward visits successors with position <= bound,
+     * backward visits predecessors with position >= bound. Returns the number of components found.
+     */
+    private int search(int start, int bound, boolean isForward, Marks seen, int[] found) {
+        int count = 0;
+        found[count++] = start;
+        seen.add(start);
+        for (int i = 0; i < count; i++) {
+            int x = found[i];
+            metrics.incrementDFSVisit();
+            int[] links = isForward ? outLinks[x] : inLinks[x];
+            int degree = isForward ? outSize[x] : inSize[x];
+            int live = 0;
+            for (int j = 0; j < degree; j++) {
+                int id = links[j];
+                // Skip stale entries and compact the list while scanning it
+                if ((isForward ? linkFrom[id] : linkTo[id]) != x) continue;
+                links[live++] = id;
+                metrics.incrementEdgeExploration();
+                int y = isForward ? linkTo[id] : linkFrom[id];
+                boolean inRange = isForward ? ord[y] <= bound : ord[y] >= bound;
+                if (inRange && !seen.contains(y)) {
+                    seen.add(y);
+                    found[count++] = y;
+                }
+            }
+            if (isForward) outSize[x] = live; else inSize[x] = live;
+        }
+        return count;
+    }
+
+    /**
+     * Components of set[0..count) whose membership in other equals inOther, sorted by position.
+     */
+    private int[] sortByOrd(int[] set, int count, Marks other, boolean inOther) {
+        long[] keys = new long[count];
+        int k = 0;
+        for (int i = 0; i < count; i++) {
+            if (other.contains(set[i]) == inOther) keys[k++] = ((long) ord[set[i]] << 32) | set[i];
+        }
+        Arrays.sort(keys, 0, k);
+        int[] sorted = new int[k];
+        for (int i = 0; i < k; i++) sorted[i] = (int) keys[i];
+        return sorted;
+    }
+
+    private void place(int c, int position) {
+        ord[c] = position;
+        atPosition[position] = c;
+    }
+
+    /**
+     * Merges the components of a new cycle into the one with the most links and moves their
+     * outside links onto it. Returns the surviving representative.
+     */
+    private int merge(int[] cycle, Marks forward, Marks backward) {
+        int root = cycle[0];
+        for (int c : cycle) {
+            if (outSize[c] + inSize[c] > outSize[root] + inSize[root]) root = c;
+        }
+        // Links between two cycle members are dropped when seen from either end
+        for (int c : cycle) {
+            if (c == root) continue;
+            for (int j = 0; j < outSize[c]; j++) {
+                int id = outLinks[c][j];
+                if (linkFrom[id] != c) continue;
+                int t = linkTo[id];
+                if (forward.contains(t) && backward.contains(t)) dropLink(id);
+                else moveLink(id, root, t, true);
+            }
+            for (int j = 0; j < inSize[c]; j++) {
+                int id = inLinks[c][j];
+                if (linkTo[id] != c) continue;
+                int s = linkFrom[id];
+                if (forward.contains(s) && backward.contains(s)) dropLink(id);
+                else moveLink(id, s, root, false);
+            }
+            outLinks[c] = null;
+            inLinks[c] = null;
+            outSize[c] = 0;
+            inSize[c] = 0;
+            parent[c] = root;
+            size[root] += size[c];
+            joinMembers(root, c);
+        }
+        numComponents -= cycle.length - 1;
+        return root;
+    }
+
+    /**
+     * Re-points link id to from -> to; if that pair already has a link, the earlier one survives.
+     */
+    private void moveLink(int id, int from, int to, boolean movedSource) {
+        pairs.remove(linkFrom[id], linkTo[id]);
+        int existing = pairs.get(from, to);
+        if (existing >= 0 && existing < id) {
+            dropLink(id);
+            return;
+        }
+        if (existing >= 0) dropLink(existing);
+        linkFrom[id] = from;
+        linkTo[id] = to;
+        pairs.put(from, to, id);
+        // The end that did not move already lists the link
+        if (movedSource) append(true, from, id); else append(false, to, id);
+    }
+
+    private void addLink(int from, int to, double weight) {
+        if (linkCount == linkFrom.length) {
+            int capacity = linkCount * 2;
+            linkFrom = Arrays.copyOf(linkFrom, capacity);
+            linkTo = Arrays.copyOf(linkTo, capacity);
+            linkWeight = Arrays.copyOf(linkWeight, capacity);
+        }
+        int id = linkCount++;
+        linkFrom[id] = from;
+        linkTo[id] = to;
+        linkWeight[id] = weight;
+        pairs.put(from, to, id);
+        append(true, from, id);
+        append(false, to, id);
+    }
+
+    private void dropLink(int id) {
+        pairs.remove(linkFrom[id], linkTo[id]);
+        linkFrom[id] = -1;
+        linkTo[id] = -1;
+    }
+
+    private void append(boolean isOut, int c, int id) {
+        int[][] lists = isOut ? outLinks : inLinks;
+        int[] sizes = isOut ? outSize : inSize;
+        int[] list = lists[c];
+        if (list == null) {
+            list = new int[2];
+        } else if (sizes[c] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+        }
+        list[sizes[c]++] = id;
+        lists[c] = list;
+    }
+
+    /**
+     * Splices the circular member list of b into that of a.
+     */
+    private void joinMembers(int a, int b) {
+        int t = nextMember[a];
+        nextMember[a] = nextMember[b];
+        nextMember[b] = t;
+    }
+
+    /**
+     * Returns the representative vertex of v's component.
+     */
+    public int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    public boolean sameComponent(int u, int v) {
+        return find(u) == find(v);
+    }
+
+    /**
+     * Returns the number of vertices in v's component.
+     */
+    public int getComponentSize(int v) {
+        return size[find(v)];
+    }
+
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    /**
+     * Number of edges inserted so far, including the initial graph's.
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Representatives in topological order of the condensation. Time complexity: O(V)
+     */
+    public int[] getComponentOrder() {
+        int[] order = new int[numComponents];
+        int k = 0;
+        for (int c : atPosition) {
+            if (c >= 0) order[k++] = c;
+        }
+        return order;
+    }
+
+    /**
+     * Snapshot of the components, numbered in topological order. Time complexity: O(V)
+     */
+    public SCCResult getSCCResult() {
+        int[] componentId = new int[n];
+        List<List<Integer>> components = new ArrayList<>(numComponents);
+        for (int r : getComponentOrder()) {
+            List<Integer> members = new ArrayList<>(size[r]);
+            int v = r;
+            do {
+                members.add(v);
+                componentId[v] = components.size();
+                v = nextMember[v];
+            } while (v != r);
+            components.add(members);
+        }
+        return new SCCResult(components, componentId);
+    }
+
+    /**
+     * Snapshot of the condensation with the numbering of getSCCResult(). Edges are added in
+     * insertion order of the edges they came from, as CondensationGraph does.
+     * Time complexity: O(V + E')
+     */
+    public DirectedGraph getCondensation() {
+        int[] order = getComponentOrder();
+        int[] index = new int[n];
+        for (int i = 0; i < order.length; i++) index[order[i]] = i;
+        DirectedGraph condensation = new DirectedGraph(order.length);
+        for (int id = 0; id < linkCount; id++) {
+            if (linkFrom[id] >= 0) condensation.addEdge(index[linkFrom[id]], index[linkTo[id]], linkWeight[id]);
+        }
+        return condensation;
+    }
+
+    /**
+     * Work counters for insertions that had to search: components visited and links scanned.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,80 @@
+package com.aitu.graph.scc;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from a (from, to) component pair to its link id, with backward-shift
+ * deletion so removals leave no tombstones.
+ */
+final class PairIndex {
+    private long[] keys = new long[16];
+    private int[] values = new int[16];
+    private int size;
+
+    PairIndex() {
+        Arrays.fill(keys, -1);
+    }
+
+    int get(int from, int to) {
+        long key = pack(from, to);
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != -1; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return -1;
+    }
+
+    void put(int from, int to, int value) {
+        if (2 * (size + 1) > keys.length) grow();
+        long key = pack(from, to);
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != -1 && keys[i] != key) i = (i + 1) & mask;
+        if (keys[i] == -1) size++;
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    void remove(int from, int to) {
+        long key = pack(from, to);
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != key) {
+            if (keys[i] == -1) return;
+            i = (i + 1) & mask;
+        }
+        size--;
+        // Shift later entries of the probe run back into the gap
+        for (int j = (i + 1) & mask; keys[j] != -1; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+            if (movable) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = -1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, -1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != -1) put((int) (oldKeys[i] >>> 32), (int) oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static long pack(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
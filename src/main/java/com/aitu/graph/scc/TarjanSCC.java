@@ -1,23 +1,18 @@
 package com.aitu.graph.scc;
 
-import com.aitu.core.DirectedGraph;
-import com.aitu.core.Edge;
+import com.aitu.core.Graph;
+import com.aitu.utils.GraphWorkspace;
+import com.aitu.utils.GraphWorkspace.Slot;
 import com.aitu.utils.Metrics;
 
 import java.util.*;
 
 /**
  * Tarjan's algorithm for finding strongly connected components (SCC) in O(V+E) time.
- * Uses DFS with a stack and low-link values to identify SCCs.
+ * Uses DFS with a stack and low-link values to identify SCCs; a vertex u is an SCC root
+ * when low[u] == disc[u] once all its edges are explored.
  */
 public class TarjanSCC {
-    private int[] disc;
-    private int[] low;
-    private boolean[] onStack;
-    private Stack<Integer> stack;
-    private int time;
-    private List<List<Integer>> components;
-    private int[] componentId;
     private Metrics metrics;
 
     public TarjanSCC() {
@@ -25,83 +20,140 @@ public class TarjanSCC {
     }
 
     /**
-     * Finds all strongly connected components in the graph.
+     * Finds all strongly connected components in the graph, using the calling thread's workspace.
      * Time complexity: O(V + E)
      */
-    public SCCResult findSCC(DirectedGraph graph) {
+    public SCCResult findSCC(Graph graph) {
+        return findSCC(graph, GraphWorkspace.current());
+    }
+
+    /**
+     * Finds all strongly connected components, taking scratch arrays from the workspace.
+     * The DFS is iterative (explicit call stack), so deep graphs cannot overflow the thread stack;
+     * it visits vertices and edges in the same order as the recursive formulation.
+     * Time complexity: O(V + E)
+     */
+    public SCCResult findSCC(Graph graph, GraphWorkspace workspace) {
         if (graph == null) {
             throw new IllegalArgumentException("Graph cannot be null");
         }
         int n = graph.getN();
-        disc = new int[n];
-        low = new int[n];
-        onStack = new boolean[n];
-        stack = new Stack<>();
-        time = 0;
-        components = new ArrayList<>();
-        componentId = new int[n];
-        Arrays.fill(disc, -1);
-        Arrays.fill(componentId, -1);
-
-        metrics.reset();
-        metrics.startTimer();
-
-        // Visit all unvisited vertices
-        for (int v = 0; v < n; v++) {
-            if (disc[v] == -1) {
-                dfs(v, graph);
-            }
+        int[] componentId = new int[n];
+        int[] members = workspace.ints(Slot.TARJAN_MEMBERS, n);
+        int count = labelComponents(graph, componentId, members, workspace);
+
+        // Members come out component by component, in the order they were popped
+        List<List<Integer>> components = new ArrayList<>(count);
+        for (int p = 0; p < n; ) {
+            int c = componentId[members[p]];
+            List<Integer> component = new ArrayList<>();
+            while (p < n && componentId[members[p]] == c) component.add(members[p++]);
+            components.add(component);
         }
 
-        metrics.stopTimer();
-
+        // The timer was stopped by labelComponents, so both entry points time the same DFS
         return new SCCResult(components, componentId);
     }
 
     /**
-     * DFS traversal: discovers SCCs using low-link values.
-     * When low[u] == disc[u], u is an SCC root.
+     * Array form of {@link #findSCC(Graph, GraphWorkspace)}, for callers that keep results
+     * without boxing. Writes every vertex's component id into componentId and all vertices
+     * into members, component by component in pop order, so each component of findSCC is a
+     * contiguous run of members. Returns the number of components.
+     * @throws IllegalArgumentException if an array is shorter than the vertex count
      */
-    private void dfs(int u, DirectedGraph graph) {
-        disc[u] = low[u] = time++;
-        stack.push(u);
-        onStack[u] = true;
-        metrics.incrementDFSVisit();
-        metrics.incrementStackOperation();
-
-        // Explore adjacent vertices
-        for (Edge edge : graph.getAdjacent(u)) {
-            int v = edge.getTo();
-            metrics.incrementEdgeExploration();
-
-            if (disc[v] == -1) {
-                // Forward edge: recurse
-                dfs(v, graph);
-                low[u] = Math.min(low[u], low[v]);
-                metrics.incrementLowLinkUpdate();
-            } else if (onStack[v]) {
-                // Back edge: update low value (only if v is on stack)
-                low[u] = Math.min(low[u], disc[v]);
-                metrics.incrementLowLinkUpdate();
-            }
+    public int labelComponents(Graph graph, int[] componentId, int[] members, GraphWorkspace workspace) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
         }
+        int n = graph.getN();
+        if (componentId.length < n || members.length < n) {
+            throw new IllegalArgumentException("Arrays must hold one entry per vertex");
+        }
+        int[] disc = workspace.ints(Slot.TARJAN_DISC, n);
+        int[] low = workspace.ints(Slot.TARJAN_LOW, n);
+        int[] stack = workspace.ints(Slot.TARJAN_STACK, n);
+        int[] callVertex = workspace.ints(Slot.TARJAN_CALL_VERTEX, n);
+        int[] callEdge = workspace.ints(Slot.TARJAN_CALL_EDGE, n);
+        GraphWorkspace.Marks visited = workspace.marks(Slot.TARJAN_VISITED, n);
+        GraphWorkspace.Marks onStack = workspace.marks(Slot.TARJAN_ON_STACK, n);
+        int count = 0;
+        int popped = 0;
+        int time = 0;
+        int top = 0;
 
-        // u is a root of SCC: pop all vertices in this SCC from stack
-        if (low[u] == disc[u]) {
-            List<Integer> component = new ArrayList<>();
-            int componentIdx = components.size();
-
-            int v;
-            do {
-                v = stack.pop();
-                onStack[v] = false;
-                component.add(v);
-                componentId[v] = componentIdx;
-                metrics.incrementStackOperation();
-            } while (v != u);
+        metrics.reset();
+        metrics.startTimer();
 
-            components.add(component);
+        // Visit all unvisited vertices
+        for (int root = 0; root < n; root++) {
+            if (visited.contains(root)) continue;
+
+            visited.add(root);
+            disc[root] = low[root] = time++;
+            stack[top++] = root;
+            onStack.add(root);
+            metrics.incrementDFSVisit();
+            metrics.incrementStackOperation();
+            callVertex[0] = root;
+            callEdge[0] = 0;
+            int depth = 1;
+
+            while (depth > 0) {
+                int u = callVertex[depth - 1];
+                int i = callEdge[depth - 1];
+
+                if (i < graph.getOutDegree(u)) {
+                    callEdge[depth - 1] = i + 1;
+                    int v = graph.getTarget(u, i);
+                    metrics.incrementEdgeExploration();
+
+                    if (!visited.contains(v)) {
+                        // Tree edge: descend into v
+                        visited.add(v);
+                        disc[v] = low[v] = time++;
+                        stack[top++] = v;
+                        onStack.add(v);
+                        metrics.incrementDFSVisit();
+                        metrics.incrementStackOperation();
+                        callVertex[depth] = v;
+                        callEdge[depth] = 0;
+                        depth++;
+                    } else if (onStack.contains(v)) {
+                        // Back edge: update low value (only if v is on stack)
+                        low[u] = Math.min(low[u], disc[v]);
+                        metrics.incrementLowLinkUpdate();
+                    }
+                    continue;
+                }
+
+                // u is finished; if it is a root of an SCC, pop the SCC from the stack
+                if (low[u] == disc[u]) {
+                    int v;
+                    do {
+                        v = stack[--top];
+                        onStack.remove(v);
+                        members[popped++] = v;
+                        componentId[v] = count;
+                        metrics.incrementStackOperation();
+                    } while (v != u);
+
+                    count++;
+                }
+
+                depth--;
+                if (depth > 0) {
+                    // Return to the parent: propagate the low-link
+                    int parent = callVertex[depth - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                    metrics.incrementLowLinkUpdate();
+                }
+            }
         }
+
+        metrics.stopTimer();
+
+        return count;
     }
 
     public Metrics getMetrics() {
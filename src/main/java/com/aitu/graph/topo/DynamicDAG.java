@@ -0,0 +1,252 @@
+package com.aitu.graph.topo;
+
+import com.aitu.core.Graph;
+import com.aitu.utils.GraphWorkspace;
+import com.aitu.utils.GraphWorkspace.Marks;
+import com.aitu.utils.GraphWorkspace.Slot;
+
+import java.util.*;
+
+/**
+ * A DAG that keeps a valid topological order while edges are inserted (Pearce-Kelly).
+ *
+ * An edge u -> v that already goes forward in the order is simply appended. Otherwise the
+ * vertices positioned between v and u are searched: forward from v and backward from u. If the
+ * forward search reaches u, the edge would close a cycle. It is rejected, and
+ * getLastRejectedCycle() returns a shortest witness path v -> ... -> u. If not, only the
+ * searched vertices are reordered, among their own positions. Validating a DAG built edge by
+ * edge therefore costs the affected regions instead of a full sort after every batch.
+ *
+ * getTopologicalOrder() hands the maintained order to the path engines, which then skip their
+ * own Kahn pass.
+ */
+public class DynamicDAG implements Graph {
+    private final int n;
+    private final int[] ord; // position of each vertex
+    private final int[] atPosition; // vertex at each position
+    private final int[][] targets;
+    private final double[][] weights;
+    private final int[] outDegree;
+    private final int[][] sources;
+    private final int[] inDegree;
+    private final GraphWorkspace workspace = new GraphWorkspace();
+    private int edgeCount;
+    private int lastAffected;
+    private List<Integer> lastRejectedCycle;
+
+    /**
+     * Starts with n isolated vertices, ordered by id.
+     */
+    public DynamicDAG(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Vertex count must be >= 0");
+        }
+        this.n = n;
+        this.ord = new int[n];
+        this.atPosition = new int[n];
+        this.targets = new int[n][];
+        this.weights = new double[n][];
+        this.outDegree = new int[n];
+        this.sources = new int[n][];
+        this.inDegree = new int[n];
+        for (int v = 0; v < n; v++) {
+            ord[v] = v;
+            atPosition[v] = v;
+        }
+    }
+
+    /**
+     * Copies a DAG, starting from its Kahn order.
+     * @throws IllegalArgumentException if the graph has a cycle
+     */
+    public DynamicDAG(Graph initial) {
+        this(initial.getN());
+        TopologicalSortResult topo = new KahnTopologicalSort().sort(initial, workspace);
+        if (!topo.isDAG()) {
+            throw new IllegalArgumentException("Graph contains a cycle");
+        }
+        List<Integer> order = topo.getOrder();
+        for (int p = 0; p < n; p++) {
+            ord[order.get(p)] = p;
+            atPosition[p] = order.get(p);
+        }
+        initial.forEachEdge(this::append);
+    }
+
+    /**
+     * Inserts u -> v unless it would close a cycle. Returns false for a rejected edge, whose
+     * witness is then available from getLastRejectedCycle().
+     * @throws IllegalArgumentException if a vertex is out of bounds
+     */
+    public boolean addEdge(int u, int v, double weight) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IllegalArgumentException("Vertex out of bounds");
+        }
+        lastAffected = 0;
+        lastRejectedCycle = null;
+        if (u == v) {
+            lastRejectedCycle = Collections.singletonList(u);
+            return false;
+        }
+        if (ord[u] < ord[v]) {
+            append(u, v, weight);
+            return true;
+        }
+
+        int lb = ord[v];
+        int ub = ord[u];
+        Marks forward = workspace.marks(Slot.DYNAMIC_FORWARD, n);
+        int[] forwardSet = workspace.ints(Slot.DYNAMIC_FORWARD, n);
+        // Breadth-first, so the witness is a shortest path; parents live in the backward buffer
+        int[] parent = workspace.ints(Slot.DYNAMIC_BACKWARD, n);
+        int forwardCount = 0;
+        forwardSet[forwardCount++] = v;
+        forward.add(v);
+        for (int i = 0; i < forwardCount; i++) {
+            int x = forwardSet[i];
+            for (int j = 0; j < outDegree[x]; j++) {
+                int y = targets[x][j];
+                if (ord[y] > ub || forward.contains(y)) continue;
+                forward.add(y);
+                parent[y] = x;
+                forwardSet[forwardCount++] = y;
+                if (y == u) {
+                    lastAffected = forwardCount;
+                    lastRejectedCycle = witness(v, u, parent);
+                    return false;
+                }
+            }
+        }
+
+        Marks backward = workspace.marks(Slot.DYNAMIC_BACKWARD, n);
+        int[] backwardSet = workspace.ints(Slot.DYNAMIC_BACKWARD, n);
+        int backwardCount = 0;
+        backwardSet[backwardCount++] = u;
+        backward.add(u);
+        for (int i = 0; i < backwardCount; i++) {
+            int x = backwardSet[i];
+            for (int j = 0; j < inDegree[x]; j++) {
+                int y = sources[x][j];
+                if (ord[y] < lb || backward.contains(y)) continue;
+                backward.add(y);
+                backwardSet[backwardCount++] = y;
+            }
+        }
+
+        // Vertices that reach u take the lowest of the freed positions, those reachable from v the rest
+        int[] before = sortByOrd(backwardSet, backwardCount);
+        int[] after = sortByOrd(forwardSet, forwardCount);
+        int[] positions = new int[backwardCount + forwardCount];
+        for (int i = 0; i < before.length; i++) positions[i] = ord[before[i]];
+        for (int i = 0; i < after.length; i++) positions[before.length + i] = ord[after[i]];
+        Arrays.sort(positions);
+        int next = 0;
+        for (int x : before) place(x, positions[next++]);
+        for (int x : after) place(x, positions[next++]);
+        lastAffected = positions.length;
+        append(u, v, weight);
+        return true;
+    }
+
+    private static List<Integer> witness(int from, int to, int[] parent) {
+        List<Integer> path = new ArrayList<>();
+        for (int x = to; x != from; x = parent[x]) path.add(x);
+        path.add(from);
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int[] sortByOrd(int[] set, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) keys[i] = ((long) ord[set[i]] << 32) | set[i];
+        Arrays.sort(keys);
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) sorted[i] = (int) keys[i];
+        return sorted;
+    }
+
+    private void place(int x, int position) {
+        ord[x] = position;
+        atPosition[position] = x;
+    }
+
+    private void append(int u, int v, double weight) {
+        if (targets[u] == null) {
+            targets[u] = new int[2];
+            weights[u] = new double[2];
+        } else if (outDegree[u] == targets[u].length) {
+            targets[u] = Arrays.copyOf(targets[u], outDegree[u] * 2);
+            weights[u] = Arrays.copyOf(weights[u], outDegree[u] * 2);
+        }
+        targets[u][outDegree[u]] = v;
+        weights[u][outDegree[u]++] = weight;
+        if (sources[v] == null) {
+            sources[v] = new int[2];
+        } else if (inDegree[v] == sources[v].length) {
+            sources[v] = Arrays.copyOf(sources[v], inDegree[v] * 2);
+        }
+        sources[v][inDegree[v]++] = u;
+        edgeCount++;
+    }
+
+    /**
+     * Witness of the last rejected insertion u -> v: a path v -> ... -> u (just u for a
+     * self-loop), or null if the last insertion succeeded.
+     */
+    public List<Integer> getLastRejectedCycle() {
+        return lastRejectedCycle;
+    }
+
+    /**
+     * Vertices searched by the last insertion; 0 when it needed no reordering.
+     */
+    public int getLastAffected() {
+        return lastAffected;
+    }
+
+    /**
+     * Returns v's position in the maintained topological order.
+     */
+    public int getPosition(int v) {
+        return ord[v];
+    }
+
+    /**
+     * The maintained order, ready for the path engines. Time complexity: O(V)
+     */
+    public TopologicalSortResult getTopologicalOrder() {
+        List<Integer> order = new ArrayList<>(n);
+        for (int v : atPosition) order.add(v);
+        return new TopologicalSortResult(order, true);
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return outDegree[v];
+    }
+
+    @Override
+    public int getTarget(int v, int i) {
+        return targets[v][i];
+    }
+
+    @Override
+    public double getWeight(int v, int i) {
+        return weights[v][i];
+    }
+
+    @Override
+    public int[] getInDegrees() {
+        return inDegree.clone();
+    }
+}
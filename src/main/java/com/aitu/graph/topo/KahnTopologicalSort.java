@@ -1,7 +1,8 @@
 package com.aitu.graph.topo;
 
-import com.aitu.core.DirectedGraph;
-import com.aitu.core.Edge;
+import com.aitu.core.Graph;
+import com.aitu.utils.GraphWorkspace;
+import com.aitu.utils.GraphWorkspace.Slot;
 import com.aitu.utils.Metrics;
 
 import java.util.*;
@@ -18,11 +19,19 @@ public class KahnTopologicalSort {
     }
 
     /**
-     * Performs topological sort using Kahn's algorithm with in-degree approach.
+     * Performs topological sort using Kahn's algorithm with in-degree approach,
+     * using the calling thread's workspace.
      * Detects cycles: if sorted size < vertices, graph contains cycle.
      * Time complexity: O(V + E)
      */
-    public TopologicalSortResult sort(DirectedGraph graph) {
+    public TopologicalSortResult sort(Graph graph) {
+        return sort(graph, GraphWorkspace.current());
+    }
+
+    /**
+     * Same as {@link #sort(Graph)}; in-degrees and the FIFO queue live in workspace buffers.
+     */
+    public TopologicalSortResult sort(Graph graph, GraphWorkspace workspace) {
         if (graph == null) {
             throw new IllegalArgumentException("Graph cannot be null");
         }
@@ -31,9 +40,21 @@ public class KahnTopologicalSort {
             metrics.stopTimer();
             return new TopologicalSortResult(new ArrayList<>(), true);
         }
-        int[] inDegree = graph.getInDegrees();
-        List<Integer> order = new ArrayList<>();
-        Queue<Integer> queue = new LinkedList<>();
+        int[] inDegree = workspace.ints(Slot.KAHN_IN_DEGREE, n);
+        Arrays.fill(inDegree, 0, n, 0);
+        // Lists are read in bulk, so compressed backends decode each one once
+        int[] neighbours = workspace.ints(Slot.KAHN_NEIGHBOURS, 0);
+        for (int u = 0; u < n; u++) {
+            neighbours = workspace.ints(Slot.KAHN_NEIGHBOURS, graph.getOutDegree(u));
+            for (int i = 0, degree = graph.getTargets(u, neighbours); i < degree; i++) {
+                inDegree[neighbours[i]]++;
+            }
+        }
+        // Every vertex is enqueued at most once, so a plain array serves as the FIFO
+        int[] queue = workspace.ints(Slot.KAHN_QUEUE, n);
+        int head = 0;
+        int tail = 0;
+        List<Integer> order = new ArrayList<>(n);
 
         metrics.reset();
         metrics.startTimer();
@@ -41,26 +62,27 @@ public class KahnTopologicalSort {
         // Add all vertices with in-degree 0 to queue
         for (int v = 0; v < n; v++) {
             if (inDegree[v] == 0) {
-                queue.add(v);
+                queue[tail++] = v;
                 metrics.incrementQueueOperation();
             }
         }
 
         // Process vertices with no dependencies
-        while (!queue.isEmpty()) {
-            int u = queue.poll();
+        while (head < tail) {
+            int u = queue[head++];
             order.add(u);
             metrics.incrementQueueOperation();
 
             // Reduce in-degree for neighbors
-            for (Edge edge : graph.getAdjacent(u)) {
-                int v = edge.getTo();
+            neighbours = workspace.ints(Slot.KAHN_NEIGHBOURS, graph.getOutDegree(u));
+            for (int i = 0, degree = graph.getTargets(u, neighbours); i < degree; i++) {
+                int v = neighbours[i];
                 inDegree[v]--;
                 metrics.incrementInDegreeUpdate();
 
                 // Add v to queue when in-degree becomes 0
                 if (inDegree[v] == 0) {
-                    queue.add(v);
+                    queue[tail++] = v;
                     metrics.incrementQueueOperation();
                 }
             }
@@ -0,0 +1,65 @@
+package com.aitu.utils;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.utils.InputReader.GraphData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts an input_*.json file into one binary graph file per graph.
+ * Usage: BinaryGraphConverter input.json outputDir [--with-scc]
+ * Output files are named &lt;input name&gt;-&lt;graph id&gt;.agr; with --with-scc the SCC result and
+ * condensation are stored too, so loading skips Tarjan and condensation entirely.
+ */
+public class BinaryGraphConverter {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BinaryGraphConverter input.json outputDir [--with-scc]");
+            System.exit(2);
+        }
+        boolean withSCC = args.length > 2 && args[2].equals("--with-scc");
+        try {
+            int count = convert(args[0], Paths.get(args[1]), withSCC);
+            System.out.println("Wrote " + count + " graphs to " + args[1]);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Streams graphs from the JSON file and writes each one as a binary file.
+     * Returns the number of graphs written.
+     */
+    public static int convert(String jsonPath, Path outputDir, boolean withSCC) throws IOException {
+        Files.createDirectories(outputDir);
+        String baseName = new File(jsonPath).getName().replaceFirst("\\.json$", "");
+        int count = 0;
+
+        try (InputReader.GraphIterator graphs = InputReader.iterateGraphs(jsonPath)) {
+            while (graphs.hasNext()) {
+                GraphData gd = graphs.next();
+                DirectedGraph graph = gd.getGraph();
+                SCCResult sccResult = null;
+                DirectedGraph condensation = null;
+                if (withSCC) {
+                    sccResult = new TarjanSCC().findSCC(graph);
+                    condensation = new CondensationGraph(graph, sccResult).getCondensation();
+                }
+                Path out = outputDir.resolve(baseName + "-" + gd.getId() + ".agr");
+                BinaryGraphFile.write(out, graph, gd.getId(), gd.getSource(), gd.getDensity(), gd.getVariant(),
+                        sccResult, condensation);
+                count++;
+            }
+        }
+        return count;
+    }
+}
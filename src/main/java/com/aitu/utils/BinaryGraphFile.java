@@ -0,0 +1,434 @@
+package com.aitu.utils;
+
+import com.aitu.core.BufferGraph;
+import com.aitu.core.Graph;
+import com.aitu.graph.scc.SCCResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary graph file that is memory-mapped on load instead of parsed.
+ *
+ * Layout (little-endian, sections 8-byte aligned):
+ * <pre>
+ *   header (128 bytes): magic "AGRF", version, flags, n, m, id, source, section positions
+ *   graph:        offsets int[n + 1], targets int[m], weights double[m]
+ *   scc:          (optional) componentCount int, componentId int[n]
+ *   condensation: (optional) cn int, cm int, offsets int[cn + 1], targets int[cm], weights double[cm]
+ *   metadata:     density, variant as length-prefixed UTF-8
+ * </pre>
+ * Each section is mapped on its own, so a single section must stay below 2 GB
+ * (about 268M edges for the weight array).
+ */
+public class BinaryGraphFile implements Closeable {
+    public static final int MAGIC = 0x46524741; // "AGRF" in little-endian
+    public static final int VERSION = 1;
+    private static final int FLAG_SCC = 1;
+    private static final int FLAG_CONDENSATION = 2;
+    private static final int HEADER_SIZE = 128;
+
+    private final FileChannel channel;
+    private final int id;
+    private final int source;
+    private final String density;
+    private final String variant;
+    private final BufferGraph graph;
+    private final long sccPos;
+    private final BufferGraph condensation;
+    private SCCResult sccResult;
+
+    private BinaryGraphFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = map(0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary graph file");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported binary graph version " + header.getInt(4));
+        }
+        int flags = header.getInt(8);
+        int n = header.getInt(12);
+        long m = header.getLong(16);
+        this.id = header.getInt(24);
+        this.source = header.getInt(28);
+        long graphPos = header.getLong(32);
+        this.sccPos = (flags & FLAG_SCC) != 0 ? header.getLong(40) : -1;
+        long condensationPos = header.getLong(48);
+        long metaPos = header.getLong(56);
+
+        this.graph = mapGraph(graphPos, n, m);
+        if ((flags & FLAG_CONDENSATION) != 0) {
+            ByteBuffer sizes = map(condensationPos, 8);
+            this.condensation = mapGraph(condensationPos + 8, sizes.getInt(0), sizes.getInt(4));
+        } else {
+            this.condensation = null;
+        }
+
+        ByteBuffer meta = map(metaPos, channel.size() - metaPos);
+        this.density = readString(meta);
+        this.variant = readString(meta);
+    }
+
+    /**
+     * Memory-maps a binary graph file. Only the header and metadata are read eagerly.
+     */
+    public static BinaryGraphFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BinaryGraphFile(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a graph without SCC sections.
+     */
+    public static void write(Path path, Graph graph, int id, int source, String density, String variant) throws IOException {
+        write(path, graph, id, source, density, variant, null, null);
+    }
+
+    /**
+     * Writes a graph, optionally with its SCC result and condensation so they need not be recomputed.
+     */
+    public static void write(Path path, Graph graph, int id, int source, String density, String variant,
+                             SCCResult sccResult, Graph condensation) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             SectionWriter out = new SectionWriter(channel)) {
+            out.skip(HEADER_SIZE);
+
+            long graphPos = out.position();
+            writeCsr(out, graph);
+
+            long sccPos = 0;
+            if (sccResult != null) {
+                out.align();
+                sccPos = out.position();
+                out.putInt(sccResult.getNumComponents());
+                out.putInt(0); // padding
+                for (int c : sccResult.getComponentId()) out.putInt(c);
+            }
+
+            long condensationPos = 0;
+            if (condensation != null) {
+                out.align();
+                condensationPos = out.position();
+                out.putInt(condensation.getN());
+                out.putInt(condensation.getEdgeCount());
+                writeCsr(out, condensation);
+            }
+
+            long metaPos = out.position();
+            writeString(out, density);
+            writeString(out, variant);
+            out.flush();
+
+            int flags = (sccResult != null ? FLAG_SCC : 0) | (condensation != null ? FLAG_CONDENSATION : 0);
+            writeHeader(channel, flags, graph.getN(), graph.getEdgeCount(), id, source,
+                    graphPos, sccPos, condensationPos, metaPos);
+        }
+    }
+
+    private static void writeHeader(FileChannel channel, int flags, int n, long m, int id, int source,
+                                    long graphPos, long sccPos, long condensationPos, long metaPos) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(n)
+                .putLong(m).putInt(id).putInt(source)
+                .putLong(graphPos).putLong(sccPos).putLong(condensationPos).putLong(metaPos);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Writes a graph too large to hold in memory, a block of vertices at a time, in the same
+     * layout as {@link #write(Path, Graph, int, int, String, String)} without SCC sections.
+     * Offsets and targets go straight to their final place. Weights are staged in a temporary
+     * file next to the output and copied behind the targets on close, because their position
+     * depends on the final edge count.
+     */
+    public static class StreamWriter implements Closeable {
+        private final FileChannel channel;
+        private final Path weightsPath;
+        private final FileChannel weightsChannel;
+        private final SectionWriter offsets;
+        private final SectionWriter targets;
+        private final SectionWriter weights;
+        private final int n;
+        private final int id;
+        private final int source;
+        private final String density;
+        private final String variant;
+        private int vertices;
+        private long edges;
+
+        public StreamWriter(Path path, int n, int id, int source, String density, String variant) throws IOException {
+            this.n = n;
+            this.id = id;
+            this.source = source;
+            this.density = density;
+            this.variant = variant;
+            Path dir = path.toAbsolutePath().getParent();
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                this.weightsPath = Files.createTempFile(dir, path.getFileName().toString(), ".weights");
+                this.weightsChannel = FileChannel.open(weightsPath, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            this.offsets = new SectionWriter(channel, HEADER_SIZE);
+            this.targets = new SectionWriter(channel, HEADER_SIZE + 4L * (n + 1));
+            this.weights = new SectionWriter(weightsChannel, 0);
+            offsets.putInt(0);
+        }
+
+        /**
+         * Appends the out-edges of the next count vertices: the i-th one has degrees[i] edges,
+         * read in order from targets and weights.
+         * @throws IllegalArgumentException if more than n vertices are appended
+         */
+        public void append(int[] degrees, int count, int[] targets, double[] weights) throws IOException {
+            if (vertices + count > n) {
+                throw new IllegalArgumentException("More than " + n + " vertices appended");
+            }
+            int e = 0;
+            for (int i = 0; i < count; i++) {
+                for (int end = e + degrees[i]; e < end; e++) {
+                    this.targets.putInt(targets[e]);
+                    this.weights.putDouble(weights[e]);
+                }
+                edges += degrees[i];
+                offsets.putInt((int) edges);
+            }
+            vertices += count;
+        }
+
+        /**
+         * Returns the number of edges appended so far.
+         */
+        public long getEdgeCount() {
+            return edges;
+        }
+
+        /**
+         * Completes the file.
+         * @throws IOException if fewer than n vertices were appended
+         */
+        @Override
+        public void close() throws IOException {
+            try (FileChannel out = channel; FileChannel staged = weightsChannel) {
+                if (vertices != n) {
+                    throw new IOException("Expected " + n + " vertices, got " + vertices);
+                }
+                offsets.flush();
+                targets.flush();
+                weights.flush();
+
+                long weightsPos = align(targets.position());
+                for (long copied = 0, size = staged.size(); copied < size; ) {
+                    copied += staged.transferTo(copied, size - copied, out.position(weightsPos + copied));
+                }
+                long metaPos = weightsPos + 8 * edges;
+                SectionWriter meta = new SectionWriter(out, metaPos);
+                writeString(meta, density);
+                writeString(meta, variant);
+                meta.flush();
+                writeHeader(out, 0, n, edges, id, source, HEADER_SIZE, 0, 0, metaPos);
+            } finally {
+                Files.deleteIfExists(weightsPath);
+            }
+        }
+    }
+
+    /**
+     * Returns the mapped graph; valid while this file is open.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public String getDensity() {
+        return density;
+    }
+
+    public String getVariant() {
+        return variant;
+    }
+
+    public boolean hasSCC() {
+        return sccPos >= 0;
+    }
+
+    /**
+     * Returns the stored SCC result, or null if the file has no SCC section.
+     * Component lists are rebuilt from the component ids on first call.
+     */
+    public SCCResult getSCCResult() throws IOException {
+        if (sccPos < 0) return null;
+        if (sccResult == null) {
+            int n = graph.getN();
+            ByteBuffer section = map(sccPos, 8 + 4L * n);
+            int numComponents = section.getInt(0);
+            int[] componentId = new int[n];
+            section.position(8);
+            section.asIntBuffer().get(componentId);
+
+            List<List<Integer>> components = new ArrayList<>(numComponents);
+            for (int c = 0; c < numComponents; c++) components.add(new ArrayList<>());
+            for (int v = 0; v < n; v++) components.get(componentId[v]).add(v);
+            sccResult = new SCCResult(components, componentId);
+        }
+        return sccResult;
+    }
+
+    /**
+     * Returns the stored condensation DAG, or null if the file has none.
+     */
+    public Graph getCondensation() {
+        return condensation;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private BufferGraph mapGraph(long pos, int n, long m) throws IOException {
+        long offsetsBytes = 4L * (n + 1);
+        long targetsPos = pos + offsetsBytes;
+        long weightsPos = align(targetsPos + 4L * m);
+        return new BufferGraph(n,
+                map(pos, offsetsBytes).asIntBuffer(),
+                map(targetsPos, 4L * m).asIntBuffer(),
+                map(weightsPos, 8L * m).asDoubleBuffer());
+    }
+
+    private ByteBuffer map(long pos, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Section larger than 2 GB cannot be mapped");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, pos, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeCsr(SectionWriter out, Graph graph) throws IOException {
+        int n = graph.getN();
+        int offset = 0;
+        out.putInt(0);
+        for (int v = 0; v < n; v++) {
+            offset += graph.getOutDegree(v);
+            out.putInt(offset);
+        }
+        for (int v = 0; v < n; v++) {
+            for (int i = 0, deg = graph.getOutDegree(v); i < deg; i++) out.putInt(graph.getTarget(v, i));
+        }
+        out.align();
+        for (int v = 0; v < n; v++) {
+            for (int i = 0, deg = graph.getOutDegree(v); i < deg; i++) out.putDouble(graph.getWeight(v, i));
+        }
+    }
+
+    private static void writeString(SectionWriter out, String s) throws IOException {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        for (byte b : bytes) out.putByte(b);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long align(long pos) {
+        return (pos + 7) & ~7L;
+    }
+
+    /**
+     * Sequential little-endian writer with a 64 KB staging buffer.
+     */
+    private static class SectionWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long flushed;
+
+        SectionWriter(FileChannel channel) {
+            this(channel, 0);
+        }
+
+        /**
+         * Writes sequentially from the given file position.
+         */
+        SectionWriter(FileChannel channel, long start) {
+            this.channel = channel;
+            this.flushed = start;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void skip(int bytes) throws IOException {
+            for (int i = 0; i < bytes; i++) putByte((byte) 0);
+        }
+
+        void align() throws IOException {
+            while ((position() & 7) != 0) putByte((byte) 0);
+        }
+
+        void putByte(byte b) throws IOException {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer, flushed);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.aitu.utils;
+
+import com.aitu.core.CsrGraph;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Parallel reader for plain edge lists (SNAP / CSV, "u v [w]" per line) and DIMACS shortest-path
+ * files ("p sp n m", "a u v w", 1-based ids).
+ *
+ * The input is cut into line-aligned byte chunks that are parsed concurrently with a hand-rolled
+ * number parser straight into primitive arrays; the chunks are then concatenated in file order and
+ * turned into a {@link CsrGraph} by a parallel counting sort. Plain files are memory-mapped chunk by
+ * chunk; gzip files (detected by their magic bytes) are inflated sequentially while earlier blocks
+ * are already being parsed.
+ *
+ * Edge lists: '#' and '%' lines are comments, lines not starting with a digit (e.g. a CSV header)
+ * are skipped, fields may be separated by spaces, tabs, ',' or ';', a missing weight is 1.0 and
+ * n is the largest vertex id + 1.
+ */
+public class EdgeListReader {
+    public enum Format { EDGE_LIST, DIMACS }
+
+    static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Format format;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public EdgeListReader(Format format) {
+        this(format, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public EdgeListReader(Format format, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be > 0");
+        }
+        this.format = format;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads a file, choosing DIMACS for *.gr / *.dimacs (optionally .gz) and plain edge list otherwise.
+     */
+    public static CsrGraph read(String filepath) throws IOException {
+        String name = filepath.toLowerCase().replaceFirst("\\.gz$", "");
+        Format format = name.endsWith(".gr") || name.endsWith(".dimacs") ? Format.DIMACS : Format.EDGE_LIST;
+        return new EdgeListReader(format).read(Paths.get(filepath));
+    }
+
+    /**
+     * Reads and parses the whole file into a CSR graph.
+     */
+    public CsrGraph read(Path path) throws IOException {
+        List<EdgeChunk> chunks;
+        try {
+            chunks = isGzip(path) ? parseGzip(path) : parseMapped(path);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return assemble(chunks);
+    }
+
+    private static boolean isGzip(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    private List<EdgeChunk> parseMapped(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<ForkJoinTask<EdgeChunk>> tasks = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = lineEnd(channel, Math.min(size, start + chunkSize), size);
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                long base = start;
+                tasks.add(pool.submit(() -> parseChunk(buffer, base)));
+                start = end;
+            }
+            List<EdgeChunk> chunks = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<EdgeChunk> task : tasks) {
+                chunks.add(task.join());
+            }
+            return chunks;
+        }
+    }
+
+    /**
+     * Moves pos forward to just past the next newline (or to the end of the file).
+     */
+    private static long lineEnd(FileChannel channel, long pos, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (pos < size) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') return pos + i + 1;
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private List<EdgeChunk> parseGzip(Path path) throws IOException {
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        ArrayDeque<ForkJoinTask<EdgeChunk>> inFlight = new ArrayDeque<>();
+        List<EdgeChunk> chunks = new ArrayList<>();
+
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16), 1 << 16)) {
+            byte[] carry = new byte[0];
+            long base = 0;
+            boolean eof = false;
+            while (!eof) {
+                byte[] block = Arrays.copyOf(carry, Math.max(chunkSize, carry.length * 2));
+                int length = carry.length;
+                while (length < block.length) {
+                    int read = in.read(block, length, block.length - length);
+                    if (read < 0) {
+                        eof = true;
+                        break;
+                    }
+                    length += read;
+                }
+                // Cut after the last newline; the partial line starts the next block
+                int cut = length;
+                if (!eof) {
+                    while (cut > 0 && block[cut - 1] != '\n') cut--;
+                    if (cut == 0) {
+                        // A single line longer than the block: read on with a bigger one
+                        carry = block;
+                        continue;
+                    }
+                }
+                carry = Arrays.copyOfRange(block, cut, length);
+                ByteBuffer buffer = ByteBuffer.wrap(block, 0, cut).slice();
+                long blockBase = base;
+                inFlight.add(pool.submit(() -> parseChunk(buffer, blockBase)));
+                base += cut;
+                while (inFlight.size() >= maxInFlight) {
+                    chunks.add(inFlight.poll().join());
+                }
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            chunks.add(inFlight.poll().join());
+        }
+        return chunks;
+    }
+
+    private CsrGraph assemble(List<EdgeChunk> chunks) throws IOException {
+        long total = 0;
+        int maxVertex = -1;
+        int declaredN = -1;
+        for (EdgeChunk chunk : chunks) {
+            total += chunk.size;
+            maxVertex = Math.max(maxVertex, chunk.maxVertex);
+            declaredN = Math.max(declaredN, chunk.declaredN);
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Too many edges: " + total);
+        }
+
+        int n;
+        if (format == Format.DIMACS) {
+            if (declaredN < 0) throw new IOException("Missing DIMACS problem line");
+            if (maxVertex >= declaredN) throw new IOException("Vertex " + (maxVertex + 1) + " exceeds n = " + declaredN);
+            n = declaredN;
+        } else {
+            n = maxVertex + 1;
+        }
+        if (n <= 0) {
+            throw new IllegalArgumentException("Vertices must be > 0");
+        }
+
+        CsrGraph.Builder builder = new CsrGraph.Builder(n).pool(pool);
+        for (EdgeChunk chunk : chunks) {
+            builder.addEdges(chunk.from, chunk.to, chunk.weights, chunk.size);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parses one line-aligned chunk; base is its position in the input, used in error messages.
+     */
+    EdgeChunk parseChunk(ByteBuffer buf, long base) {
+        ChunkParser parser = new ChunkParser(buf, base, format == Format.DIMACS);
+        return parser.parse();
+    }
+
+    /**
+     * Edges parsed from one chunk, in input order.
+     */
+    static class EdgeChunk {
+        int[] from;
+        int[] to;
+        double[] weights;
+        int size;
+        int maxVertex = -1;
+        int declaredN = -1;
+
+        EdgeChunk(int capacity) {
+            from = new int[capacity];
+            to = new int[capacity];
+            weights = new double[capacity];
+        }
+
+        void add(int u, int v, double w) {
+            if (size == from.length) {
+                int capacity = Math.max(16, size + (size >> 1));
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            from[size] = u;
+            to[size] = v;
+            weights[size] = w;
+            size++;
+            if (u > maxVertex) maxVertex = u;
+            if (v > maxVertex) maxVertex = v;
+        }
+    }
+
+    /**
+     * Byte-level cursor over a chunk. Works with absolute gets so mapped and heap buffers behave the same.
+     */
+    private static class ChunkParser {
+        private final ByteBuffer buf;
+        private final long base;
+        private final boolean dimacs;
+        private final int limit;
+        private int pos;
+
+        ChunkParser(ByteBuffer buf, long base, boolean dimacs) {
+            this.buf = buf;
+            this.base = base;
+            this.dimacs = dimacs;
+            this.limit = buf.limit();
+        }
+
+        EdgeChunk parse() {
+            // Roughly 12 bytes per "u v w" line; grown on demand
+            EdgeChunk chunk = new EdgeChunk(Math.max(16, limit / 12));
+            while (pos < limit) {
+                skipBlanks();
+                if (pos >= limit) break;
+                byte c = buf.get(pos);
+                if (dimacs) {
+                    if (c == 'a') {
+                        pos++;
+                        int u = parseInt() - 1;
+                        int v = parseInt() - 1;
+                        double w = parseDouble();
+                        if (u < 0 || v < 0) throw malformed("DIMACS vertex ids start at 1");
+                        chunk.add(u, v, w);
+                    } else if (c == 'p') {
+                        pos++;
+                        skipField(); // problem type, e.g. "sp"
+                        chunk.declaredN = parseInt();
+                    }
+                } else if (c >= '0' && c <= '9') {
+                    int u = parseInt();
+                    int v = parseInt();
+                    skipSeparators();
+                    double w = atValueStart() ? parseDouble() : 1.0;
+                    chunk.add(u, v, w);
+                }
+                skipLine();
+            }
+            return chunk;
+        }
+
+        private void skipBlanks() {
+            while (pos < limit) {
+                byte c = buf.get(pos);
+                if (c != ' ' && c != '\t' && c != '\r' && c != '\n') return;
+                pos++;
+            }
+        }
+
+        private void skipSeparators() {
+            while (pos < limit) {
+                byte c = buf.get(pos);
+                if (c != ' ' && c != '\t' && c != ',' && c != ';') return;
+                pos++;
+            }
+        }
+
+        private void skipField() {
+            skipSeparators();
+            while (pos < limit && !isDelimiter(buf.get(pos))) pos++;
+        }
+
+        private void skipLine() {
+            while (pos < limit && buf.get(pos++) != '\n') {
+                // skip to end of line
+            }
+        }
+
+        private boolean atValueStart() {
+            if (pos >= limit) return false;
+            byte c = buf.get(pos);
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+        }
+
+        private int parseInt() {
+            skipSeparators();
+            long value = 0;
+            int start = pos;
+            while (pos < limit) {
+                int d = buf.get(pos) - '0';
+                if (d < 0 || d > 9) break;
+                value = value * 10 + d;
+                if (value > Integer.MAX_VALUE) throw malformed("Vertex id too large");
+                pos++;
+            }
+            if (pos == start || (pos < limit && !isDelimiter(buf.get(pos)))) {
+                throw malformed("Expected vertex id");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Parses [+-]digits[.digits][(e|E)[+-]digits]. Exact whenever the digits fit in 53 bits and the
+         * decimal exponent is at most 22, which covers ordinary weights; anything else falls back to
+         * Double.parseDouble on the field.
+         */
+        private double parseDouble() {
+            skipSeparators();
+            int start = pos;
+            boolean negative = false;
+            if (pos < limit && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+                negative = buf.get(pos) == '-';
+                pos++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            boolean overflow = false;
+            boolean seenDot = false;
+            while (pos < limit) {
+                byte c = buf.get(pos);
+                if (c >= '0' && c <= '9') {
+                    if (mantissa < 100_000_000_000_000_000L) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        if (seenDot) scale--;
+                    } else {
+                        overflow = true;
+                        if (!seenDot) scale++;
+                    }
+                    digits++;
+                } else if (c == '.' && !seenDot) {
+                    seenDot = true;
+                } else {
+                    break;
+                }
+                pos++;
+            }
+            if (digits == 0) throw malformed("Expected weight");
+            if (pos < limit && (buf.get(pos) == 'e' || buf.get(pos) == 'E')) {
+                pos++;
+                boolean negativeExp = false;
+                if (pos < limit && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+                    negativeExp = buf.get(pos) == '-';
+                    pos++;
+                }
+                int exp = 0;
+                int expStart = pos;
+                while (pos < limit && buf.get(pos) >= '0' && buf.get(pos) <= '9') {
+                    exp = Math.min(10_000, exp * 10 + (buf.get(pos) - '0'));
+                    pos++;
+                }
+                if (pos == expStart) throw malformed("Expected exponent");
+                scale += negativeExp ? -exp : exp;
+            }
+            if (pos < limit && !isDelimiter(buf.get(pos))) throw malformed("Expected weight");
+
+            double value;
+            if (!overflow && mantissa < (1L << 53) && scale >= -22 && scale <= 22) {
+                value = scale < 0 ? mantissa / POW10[-scale] : mantissa * POW10[scale];
+            } else {
+                byte[] field = new byte[pos - start];
+                for (int i = 0; i < field.length; i++) field[i] = buf.get(start + i);
+                return Double.parseDouble(new String(field, StandardCharsets.US_ASCII));
+            }
+            return negative ? -value : value;
+        }
+
+        private static boolean isDelimiter(byte c) {
+            return c == ' ' || c == '\t' || c == ',' || c == ';' || c == '\r' || c == '\n';
+        }
+
+        private UncheckedIOException malformed(String message) {
+            return new UncheckedIOException(new IOException(message + " at byte " + (base + pos)));
+        }
+    }
+
+    /**
+     * Usage: EdgeListReader file [--dimacs]
+     * Prints the graph size and parse throughput.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: EdgeListReader file [--dimacs]");
+            System.exit(2);
+        }
+        try {
+            Path path = Paths.get(args[0]);
+            long bytes = Files.size(path);
+            long start = System.nanoTime();
+            CsrGraph graph = args.length > 1 && args[1].equals("--dimacs")
+                    ? new EdgeListReader(Format.DIMACS).read(path)
+                    : read(args[0]);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("n=%d m=%d in %.3f s (%.1f MB/s)%n", graph.getN(), graph.getEdgeCount(),
+                    seconds, bytes / 1e6 / seconds);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.aitu.utils;
+
+import com.aitu.core.DirectedGraph;
+
+import java.util.Random;
+
+/**
+ * Builds large in-memory graphs that follow the same structural variants as
+ * {@link InputJsonGenerator} (pure_dag, one_cycle, two_cycles, mixed, many_sccs).
+ * Unlike the JSON generator, every variant runs in O(V + E) and writes edges straight
+ * into a {@link DirectedGraph}, so it can be used for sizes up to millions of vertices.
+ * Edge count is controlled by the average out-degree instead of a sparse/dense flag.
+ */
+public class GraphFamilies {
+    public static final String[] VARIANTS = {"pure_dag", "one_cycle", "two_cycles", "mixed", "many_sccs"};
+
+    private final Random random;
+
+    public GraphFamilies(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates a graph with n vertices and about n * avgDegree edges.
+     * @throws IllegalArgumentException if the variant is unknown or n < 2
+     */
+    public DirectedGraph generate(int n, String variant, double avgDegree) {
+        if (n < 2) {
+            throw new IllegalArgumentException("Vertices must be >= 2");
+        }
+        long target = Math.max(n, Math.round(n * avgDegree));
+        if (target > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many edges requested");
+        }
+        int targetEdges = (int) target;
+        DirectedGraph graph = new DirectedGraph(n);
+
+        switch (variant) {
+            case "pure_dag":
+                generatePureDAG(graph, n, targetEdges);
+                break;
+            case "one_cycle":
+                generateOneCycle(graph, n, targetEdges);
+                break;
+            case "two_cycles":
+                generateTwoCycles(graph, n, targetEdges);
+                break;
+            case "mixed":
+                generateBlocks(graph, n, targetEdges, Math.max(1, n / 3), true);
+                break;
+            case "many_sccs":
+                generateBlocks(graph, n, targetEdges, Math.min(5 + random.nextInt(6), n / 2), false);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the source vertex InputJsonGenerator would pick for this variant.
+     */
+    public static int defaultSource(int n, String variant) {
+        return "many_sccs".equals(variant) ? Math.max(0, n / 3) : 0;
+    }
+
+    /**
+     * Levelled DAG: a spine from each level into the next, then random forward edges.
+     */
+    private void generatePureDAG(DirectedGraph graph, int n, int targetEdges) {
+        int numLevels = Math.max(3, (int) Math.sqrt(n));
+        int[] levelStart = new int[numLevels + 1];
+        int[] level = new int[n];
+        for (int i = 0; i < n; i++) {
+            level[i] = (int) ((long) i * numLevels / n);
+        }
+        for (int l = 0, i = 0; l <= numLevels; l++) {
+            while (i < n && level[i] < l) i++;
+            levelStart[l] = i;
+        }
+
+        int edges = 0;
+        for (int i = 0; i < n - 1; i++) {
+            int next = levelStart[Math.min(level[i] + 1, numLevels)];
+            if (next < n) {
+                addEdge(graph, i, next);
+                edges++;
+            }
+        }
+        while (edges < targetEdges) {
+            int u = random.nextInt(n);
+            int from = levelStart[Math.min(level[u] + 1, numLevels)];
+            if (from >= n) continue;
+            addEdge(graph, u, from + random.nextInt(n - from));
+            edges++;
+        }
+    }
+
+    /**
+     * Single ring 0->1->...->n-1->0 plus random chords.
+     */
+    private void generateOneCycle(DirectedGraph graph, int n, int targetEdges) {
+        for (int i = 0; i < n; i++) {
+            addEdge(graph, i, (i + 1) % n);
+        }
+        for (int edges = n; edges < targetEdges; ) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u != v) {
+                addEdge(graph, u, v);
+                edges++;
+            }
+        }
+    }
+
+    /**
+     * Two rings joined by one bridge, chords stay inside each half.
+     */
+    private void generateTwoCycles(DirectedGraph graph, int n, int targetEdges) {
+        int split = n / 2;
+        for (int i = 0; i < split; i++) {
+            addEdge(graph, i, i + 1 < split ? i + 1 : 0);
+        }
+        for (int i = split; i < n; i++) {
+            addEdge(graph, i, i + 1 < n ? i + 1 : split);
+        }
+        addEdge(graph, random.nextInt(split), split + random.nextInt(n - split));
+
+        for (int edges = n + 1; edges < targetEdges; ) {
+            boolean left = random.nextBoolean();
+            int base = left ? 0 : split;
+            int size = left ? split : n - split;
+            if (size < 2) continue;
+            int u = base + random.nextInt(size);
+            int v = base + random.nextInt(size);
+            if (u != v) {
+                addEdge(graph, u, v);
+                edges++;
+            }
+        }
+    }
+
+    /**
+     * Splits vertices into consecutive blocks chained as a DAG.
+     * For "mixed" odd blocks are rings and even blocks are acyclic chains;
+     * for "many_sccs" every block is a ring. Extra edges go 90% inside a block,
+     * 10% forward between blocks, so block order stays a valid DAG order.
+     */
+    private void generateBlocks(DirectedGraph graph, int n, int targetEdges, int numBlocks, boolean alternate) {
+        numBlocks = Math.max(1, numBlocks);
+        int[] start = new int[numBlocks + 1];
+        for (int b = 0; b <= numBlocks; b++) {
+            start[b] = (int) ((long) b * n / numBlocks);
+        }
+
+        int edges = 0;
+        for (int b = 0; b < numBlocks; b++) {
+            int lo = start[b];
+            int hi = start[b + 1];
+            boolean cyclic = !alternate || b % 2 == 1;
+            for (int v = lo; v < hi - 1; v++) {
+                addEdge(graph, v, v + 1);
+                edges++;
+            }
+            if (cyclic && hi - lo > 1) {
+                addEdge(graph, hi - 1, lo);
+                edges++;
+            }
+            if (b + 1 < numBlocks) {
+                addEdge(graph, lo + random.nextInt(hi - lo), start[b + 1] + random.nextInt(start[b + 2] - start[b + 1]));
+                edges++;
+            }
+        }
+
+        while (edges < targetEdges) {
+            int b = random.nextInt(numBlocks);
+            int lo = start[b];
+            int size = start[b + 1] - lo;
+            if (random.nextDouble() < 0.9) {
+                if (size < 2) continue;
+                int u = lo + random.nextInt(size);
+                int v = lo + random.nextInt(size);
+                boolean cyclic = !alternate || b % 2 == 1;
+                if (u == v) continue;
+                // Acyclic blocks only get forward edges
+                if (!cyclic && u > v) {
+                    int t = u;
+                    u = v;
+                    v = t;
+                }
+                addEdge(graph, u, v);
+            } else {
+                if (b + 1 >= numBlocks) continue;
+                int u = lo + random.nextInt(size);
+                int v = start[b + 1] + random.nextInt(n - start[b + 1]);
+                addEdge(graph, u, v);
+            }
+            edges++;
+        }
+    }
+
+    /**
+     * Adds edge with random weight (1.0 to 10.0), same model as InputJsonGenerator.
+     */
+    private void addEdge(DirectedGraph graph, int u, int v) {
+        graph.addEdge(u, v, Math.round((1 + random.nextDouble() * 9) * 10) / 10.0);
+    }
+}
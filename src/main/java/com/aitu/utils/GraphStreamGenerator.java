@@ -0,0 +1,916 @@
+package com.aitu.utils;
+
+import com.aitu.core.DirectedGraph;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates very large graphs of the {@link GraphFamilies} variants and streams them to a file
+ * without ever holding the whole graph in memory.
+ *
+ * Vertices are cut into fixed-size partitions and each partition generates the out-edges of its
+ * own vertices with a {@link SplittableRandom} split off the seeded root in partition order.
+ * Partitions run in parallel and are written back in order, so the output depends only on the
+ * parameters and the seed, never on the thread count. Every structural rule is decided per
+ * source vertex (a vertex's block, level or ring half is computed, not looked up), and duplicate
+ * targets are rejected with a small stamped int set per vertex.
+ *
+ * Besides the assignment variants it has workload models shaped like production graphs, tuned
+ * through {@link WorkloadParams}:
+ *   power_law   scale-free digraph: Pareto out-degrees, Zipf in-degrees on scattered hubs
+ *   build_dag   layered dependency DAG whose critical chain crosses every layer
+ *   web         bow-tie: one giant SCC, IN and OUT tendrils of SCCs with 1 to 3 vertices
+ *   deep_chain  a Hamiltonian path with short skips, the worst case for DFS depth
+ *
+ * Usage (also via InputJsonGenerator with arguments):
+ *   --n N               vertex count (required)
+ *   --variant V         one of VARIANTS or MODELS (default mixed)
+ *   --density D         sparse (1.5 edges per vertex) or dense (8), default sparse
+ *   --degree X          average out-degree, overrides the density's default
+ *   --seed S            random seed (default 42)
+ *   --format F          json, edges or binary (default from the file extension)
+ *   --threads T         worker threads (default: available processors)
+ *   --out FILE          output path; .json, .txt/.txt.gz edge list or .bin
+ *   --gamma, --layers, --span, --giant, --reach, --back   see WorkloadParams
+ */
+public class GraphStreamGenerator {
+    public enum Format { JSON, EDGE_LIST, BINARY }
+
+    public static final String[] MODELS = {"power_law", "build_dag", "web", "deep_chain"};
+
+    public static final int DEFAULT_PARTITION_SIZE = 1 << 14;
+    // Draws per wanted edge before a vertex gives up (its allowed target range is too small)
+    private static final int MAX_ATTEMPTS = 8;
+
+    private final int n;
+    private final long extraEdges;
+    private final String variant;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final int partitionSize;
+    private final WorkloadParams params;
+
+    // Layout decided once from the seed: blocks for mixed/many_sccs, levels for pure_dag and
+    // build_dag, bridge for two_cycles
+    private final int numBlocks;
+    private final int numLevels;
+    private final int bridgeFrom;
+    private final int bridgeTo;
+
+    // power_law: hub rank r lives at vertex (r * hubStride + hubOffset) mod n
+    private long hubStride;
+    private long hubOffset;
+    private double zipfExponent;
+    private double zipfRange;
+    private double paretoMin;
+    private double paretoExponent;
+    private int maxOutDegree;
+    private int hubOutDegree;
+
+    // web: giant SCC [0, giantSize), IN tendrils [giantSize, outStart), OUT tendrils [outStart, n)
+    private int giantSize;
+    private int outStart;
+    private long blockSalt;
+
+    public GraphStreamGenerator(int n, double avgDegree, String variant, long seed) {
+        this(n, avgDegree, variant, seed, ForkJoinPool.commonPool(), DEFAULT_PARTITION_SIZE);
+    }
+
+    public GraphStreamGenerator(int n, double avgDegree, String variant, long seed, ForkJoinPool pool, int partitionSize) {
+        this(n, avgDegree, variant, seed, pool, partitionSize, new WorkloadParams());
+    }
+
+    /**
+     * @throws IllegalArgumentException if n < 2, the degree is not positive, the variant is
+     *                                  unknown or the edge count does not fit in an int
+     */
+    public GraphStreamGenerator(int n, double avgDegree, String variant, long seed, ForkJoinPool pool, int partitionSize,
+                                WorkloadParams params) {
+        if (n < 2) {
+            throw new IllegalArgumentException("Vertices must be >= 2");
+        }
+        if (!(avgDegree > 0)) {
+            throw new IllegalArgumentException("Average degree must be positive");
+        }
+        if (!Arrays.asList(GraphFamilies.VARIANTS).contains(variant) && !Arrays.asList(MODELS).contains(variant)) {
+            throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException("Partition size must be positive");
+        }
+        long target = Math.max(n, Math.round(n * avgDegree));
+        if (target > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges requested");
+        }
+        this.n = n;
+        this.variant = variant;
+        this.seed = seed;
+        this.pool = pool;
+        this.partitionSize = partitionSize;
+        this.params = params;
+
+        // The first split of the root decides the layout, later splits seed the partitions
+        SplittableRandom layout = new SplittableRandom(seed).split();
+        if (variant.equals("build_dag")) {
+            int layers = params.getLayers() > 0 ? params.getLayers() : n / 50;
+            this.numLevels = Math.max(2, Math.min(n, layers));
+        } else {
+            this.numLevels = Math.max(3, (int) Math.sqrt(n));
+        }
+        switch (variant) {
+            case "mixed":
+                numBlocks = Math.max(1, n / 3);
+                break;
+            case "many_sccs":
+                numBlocks = Math.max(1, Math.min(5 + layout.nextInt(6), n / 2));
+                break;
+            default:
+                numBlocks = 1;
+        }
+        int split = n / 2;
+        this.bridgeFrom = layout.nextInt(split);
+        this.bridgeTo = split + layout.nextInt(n - split);
+        if (variant.equals("power_law")) {
+            initPowerLaw(avgDegree, layout);
+        } else if (variant.equals("web")) {
+            this.giantSize = (int) Math.max(2, Math.min(n, Math.round(n * params.getGiantFraction())));
+            this.outStart = giantSize + (n - giantSize) / 2;
+            this.blockSalt = layout.nextLong();
+        }
+        this.extraEdges = Math.max(0, target - structuralEdges());
+    }
+
+    /**
+     * Chung-Lu style power law that needs no global state, so partitions stay independent.
+     * Preferential attachment gives the same degree tail but grows the graph one vertex at a time.
+     */
+    private void initPowerLaw(double avgDegree, SplittableRandom layout) {
+        // Hub ranks are scattered over the id space by a multiplicative permutation
+        long stride = 1 + layout.nextInt(n - 1);
+        while (gcd(stride, n) != 1) stride = stride % (n - 1) + 1;
+        this.hubStride = stride;
+        this.hubOffset = layout.nextInt(n);
+
+        // Rank r is hit with probability ~ (r + 1)^-alpha, alpha = 1 / (gamma - 1)
+        double alpha = 1 / (params.getGamma() - 1);
+        this.zipfExponent = 1 / (1 - alpha);
+        this.zipfRange = Math.pow(n + 1, 1 - alpha) - 1;
+
+        // Out-degrees: Pareto with tail index gamma - 1, capped, with the minimum chosen so the
+        // capped mean equals avgDegree
+        this.paretoExponent = params.getGamma() - 1;
+        this.maxOutDegree = Math.min(n - 1, Math.max(64, 4 * (int) Math.sqrt(n)));
+        double lo = 0;
+        double hi = avgDegree;
+        for (int i = 0; i < 60; i++) {
+            double mid = (lo + hi) / 2;
+            if (cappedParetoMean(mid) < avgDegree) lo = mid; else hi = mid;
+        }
+        this.paretoMin = hi;
+        this.hubOutDegree = Math.min(maxOutDegree, (int) Math.ceil(avgDegree));
+    }
+
+    private double cappedParetoMean(double min) {
+        double a = paretoExponent;
+        if (min >= maxOutDegree) return maxOutDegree;
+        return min * a / (a - 1) - Math.pow(min, a) * Math.pow(maxOutDegree, 1 - a) / (a - 1);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Number of edges the variant's skeleton adds before random extras.
+     */
+    private long structuralEdges() {
+        switch (variant) {
+            case "pure_dag":
+            case "build_dag":
+                // Every vertex before the last level has a spine edge
+                return levelStart(numLevels - 1);
+            case "one_cycle":
+                return n;
+            case "two_cycles":
+                return n + 1;
+            case "power_law":
+                return 0;
+            case "web":
+                // Giant ring plus one link from every IN vertex into the giant; triangle closures are ignored
+                return giantSize + (outStart - giantSize);
+            case "deep_chain":
+                return n - 1;
+            default:
+                // Chains plus one connector per block; ring closures are few enough to ignore
+                return (n - numBlocks) + (numBlocks - 1);
+        }
+    }
+
+    /**
+     * Returns the default source vertex, the same one {@link GraphFamilies} uses.
+     */
+    public int getSource() {
+        // The top hub, so shortest paths start where most of the graph is reachable
+        if (variant.equals("power_law")) return hub(0);
+        return GraphFamilies.defaultSource(n, variant);
+    }
+
+    /**
+     * Generates the graph into a file and returns a summary of what was written.
+     */
+    public Summary write(Path path, Format format, int id, String density) throws IOException {
+        Summary summary = new Summary(n, describe());
+        if (format == Format.BINARY) {
+            try (BinaryGraphFile.StreamWriter out = new BinaryGraphFile.StreamWriter(path, n, id, getSource(), density, variant)) {
+                generate(format, chunk -> {
+                    out.append(chunk.degrees, chunk.vertexCount, chunk.targets, chunk.weights());
+                    summary.add(chunk);
+                });
+                return summary;
+            }
+        }
+
+        OutputStream file = Files.newOutputStream(path);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            file = new GZIPOutputStream(file, 1 << 16);
+        }
+        try (OutputStream out = new BufferedOutputStream(file, 1 << 16)) {
+            if (format == Format.JSON) {
+                out.write(ascii("{\"graphs\":[{\"id\":" + id + ",\"directed\":true,\"n\":" + n + ",\"edges\":["));
+            } else {
+                out.write(ascii("# n=" + n + " variant=" + variant + " seed=" + seed + "\n"));
+            }
+            generate(format, chunk -> {
+                // JSON edges carry a leading comma, except the very first one
+                int skip = format == Format.JSON && summary.edgeCount == 0 && chunk.edgeCount > 0 ? 1 : 0;
+                out.write(chunk.text, skip, chunk.textLength - skip);
+                summary.add(chunk);
+            });
+            if (format == Format.JSON) {
+                out.write(ascii("],\"source\":" + getSource() + ",\"weight_model\":\"edge\",\"density\":\""
+                        + density + "\",\"variant\":\"" + variant + "\"}]}\n"));
+            }
+            return summary;
+        }
+    }
+
+    /**
+     * Generates the same graph in memory, for sweeps and tests at sizes that fit on the heap.
+     */
+    public DirectedGraph generateGraph() {
+        DirectedGraph graph = new DirectedGraph(n);
+        int[] next = {0};
+        try {
+            generate(Format.BINARY, chunk -> {
+                for (int i = 0, e = 0; i < chunk.vertexCount; i++) {
+                    int u = next[0]++;
+                    for (int end = e + chunk.degrees[i]; e < end; e++) {
+                        graph.addEdge(u, chunk.targets[e], chunk.tenths[e] / 10.0);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            // Only the sink could throw, and this one does not
+            throw new IllegalStateException(e);
+        }
+        return graph;
+    }
+
+    /**
+     * The structure the variant is built to have, from the layout alone.
+     */
+    private String describe() {
+        switch (variant) {
+            case "power_law":
+                return String.format("power law, gamma %.2f: out-degree Pareto capped at %d, top hub is vertex %d",
+                        params.getGamma(), maxOutDegree, hub(0));
+            case "build_dag":
+                return String.format("layered DAG: %d layers of ~%d targets, dependencies reach %d layers, "
+                        + "critical chain of %d vertices", numLevels, n / numLevels, params.getSpan(), numLevels);
+            case "web":
+                return String.format("bow-tie: giant SCC of %d vertices, %d IN and %d OUT tendril vertices in SCCs of 1-3",
+                        giantSize, outStart - giantSize, n - outStart);
+            case "deep_chain":
+                return params.getBackFraction() > 0
+                        ? String.format("chain of %d vertices with %.0f%% back edges (reach %d): one deep SCC",
+                                n, params.getBackFraction() * 100, params.getReach())
+                        : String.format("chain DAG: longest path through all %d vertices, skips up to %d",
+                                n, params.getReach());
+            case "pure_dag":
+                return String.format("layered DAG: %d levels", numLevels);
+            case "one_cycle":
+                return "one SCC over all vertices";
+            case "two_cycles":
+                return "two SCCs joined by one bridge";
+            default:
+                return String.format("%d blocks, %s", numBlocks,
+                        variant.equals("mixed") ? "alternating acyclic and cyclic" : "each one SCC");
+        }
+    }
+
+    /**
+     * Edge count, out-degree distribution and intended structure of a generated graph.
+     */
+    public static class Summary {
+        private final int n;
+        private final String structure;
+        // Bucket 0 counts vertices of out-degree 0, bucket i those in [2^(i-1), 2^i)
+        private final long[] degreeHistogram = new long[33];
+        private long edgeCount;
+        private int maxOutDegree;
+
+        Summary(int n, String structure) {
+            this.n = n;
+            this.structure = structure;
+        }
+
+        void add(Chunk chunk) {
+            edgeCount += chunk.edgeCount;
+            for (int i = 0; i < chunk.vertexCount; i++) {
+                int d = chunk.degrees[i];
+                degreeHistogram[32 - Integer.numberOfLeadingZeros(d)]++;
+                maxOutDegree = Math.max(maxOutDegree, d);
+            }
+        }
+
+        public int getN() {
+            return n;
+        }
+
+        public long getEdgeCount() {
+            return edgeCount;
+        }
+
+        public int getMaxOutDegree() {
+            return maxOutDegree;
+        }
+
+        public long[] getDegreeHistogram() {
+            return degreeHistogram.clone();
+        }
+
+        public String getStructure() {
+            return structure;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("n=%d m=%d avg out-degree %.2f, max %d%n", n, edgeCount, (double) edgeCount / n, maxOutDegree));
+            sb.append(structure).append(System.lineSeparator());
+            sb.append("out-degree histogram:");
+            for (int i = 0; i < degreeHistogram.length; i++) {
+                if (degreeHistogram[i] == 0) continue;
+                sb.append(i == 0 ? " 0" : i == 1 ? " 1" : " " + (1 << (i - 1)) + "-" + ((1L << i) - 1));
+                sb.append(':').append(degreeHistogram[i]);
+            }
+            return sb.toString();
+        }
+    }
+
+    private interface ChunkSink {
+        void accept(Chunk chunk) throws IOException;
+    }
+
+    /**
+     * Runs partitions on the pool with a bounded number in flight and hands them to the sink in order.
+     */
+    private void generate(Format format, ChunkSink sink) throws IOException {
+        SplittableRandom root = new SplittableRandom(seed);
+        root.split(); // the layout's split, see the constructor
+        int partitions = (n + partitionSize - 1) / partitionSize;
+        int window = Math.max(2, pool.getParallelism() * 2);
+        Deque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < partitions || !inFlight.isEmpty()) {
+                while (next < partitions && inFlight.size() < window) {
+                    int lo = next * partitionSize;
+                    int hi = (int) Math.min(n, (long) lo + partitionSize);
+                    SplittableRandom random = root.split();
+                    inFlight.add(pool.submit(() -> generatePartition(lo, hi, random, format)));
+                    next++;
+                }
+                sink.accept(inFlight.removeFirst().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        } finally {
+            for (ForkJoinTask<Chunk> task : inFlight) task.cancel(true);
+        }
+    }
+
+    /**
+     * Out-edges of vertices [lo, hi), in vertex order.
+     */
+    private Chunk generatePartition(int lo, int hi, SplittableRandom random, Format format) {
+        Chunk chunk = new Chunk(hi - lo);
+        TargetSet seen = new TargetSet();
+        for (int u = lo; u < hi; u++) {
+            int extras = extraCount(u, random);
+            int before = chunk.edgeCount;
+            seen.clear(extras + 4);
+            addStructural(u, random, chunk, seen);
+            for (int k = 0; k < extras; k++) {
+                for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                    int v = drawExtra(u, random);
+                    if (v >= 0 && seen.add(v)) {
+                        chunk.add(v, random);
+                        break;
+                    }
+                }
+            }
+            chunk.degrees[u - lo] = chunk.edgeCount - before;
+        }
+        if (format != Format.BINARY) chunk.format(lo, format);
+        return chunk;
+    }
+
+    private int extraCount(int u, SplittableRandom random) {
+        if (variant.equals("power_law")) {
+            // Inverse-CDF Pareto draw, rounded randomly so the mean is kept
+            double d = paretoMin * Math.pow(1 - random.nextDouble(), -1 / paretoExponent);
+            int degree = d >= maxOutDegree ? maxOutDegree : (int) d + (random.nextDouble() < d - (int) d ? 1 : 0);
+            // The source hub always gets out-edges so shortest paths have something to explore
+            return u == hub(0) ? Math.max(degree, hubOutDegree) : degree;
+        }
+        // Extras are spread evenly: vertex u gets floor((u+1)x/n) - floor(ux/n) of them
+        return (int) (((u + 1) * extraEdges) / n - (u * extraEdges) / n);
+    }
+
+    private void addStructural(int u, SplittableRandom random, Chunk chunk, TargetSet seen) {
+        switch (variant) {
+            case "power_law":
+                break;
+            case "build_dag": {
+                // Every target depends on some target of the next layer, so the critical chain crosses all layers
+                int l = level(u);
+                if (l + 1 < numLevels) addOnce(randomInLevel(l + 1, random), random, chunk, seen);
+                break;
+            }
+            case "web":
+                if (u < giantSize) {
+                    addOnce(u + 1 < giantSize ? u + 1 : 0, random, chunk, seen);
+                } else {
+                    int lo = tailBlockStart(u);
+                    int hi = tailBlockEnd(lo);
+                    if (cyclicTailBlock(lo) && hi - lo > 1) addOnce(u + 1 < hi ? u + 1 : lo, random, chunk, seen);
+                    if (u < outStart) addOnce(random.nextInt(giantSize), random, chunk, seen);
+                }
+                break;
+            case "deep_chain":
+                if (u + 1 < n) addOnce(u + 1, random, chunk, seen);
+                break;
+            case "pure_dag": {
+                // A spine into the first vertex of the next level
+                int next = levelStart(Math.min(level(u) + 1, numLevels));
+                if (next < n) addOnce(next, random, chunk, seen);
+                break;
+            }
+            case "one_cycle":
+                addOnce((u + 1) % n, random, chunk, seen);
+                break;
+            case "two_cycles": {
+                int split = n / 2;
+                int lo = u < split ? 0 : split;
+                int hi = u < split ? split : n;
+                addOnce(u + 1 < hi ? u + 1 : lo, random, chunk, seen);
+                if (u == bridgeFrom) addOnce(bridgeTo, random, chunk, seen);
+                break;
+            }
+            default: {
+                int b = block(u);
+                int lo = blockStart(b);
+                int hi = blockStart(b + 1);
+                if (u + 1 < hi) {
+                    addOnce(u + 1, random, chunk, seen);
+                } else if (cyclicBlock(b) && hi - lo > 1) {
+                    addOnce(lo, random, chunk, seen);
+                }
+                if (u == lo && b + 1 < numBlocks) {
+                    int nextLo = blockStart(b + 1);
+                    addOnce(nextLo + random.nextInt(blockStart(b + 2) - nextLo), random, chunk, seen);
+                }
+            }
+        }
+    }
+
+    private static void addOnce(int v, SplittableRandom random, Chunk chunk, TargetSet seen) {
+        if (seen.add(v)) chunk.add(v, random);
+    }
+
+    /**
+     * Draws a random extra target for u following the variant's rules, or -1 if none is possible.
+     */
+    private int drawExtra(int u, SplittableRandom random) {
+        switch (variant) {
+            case "power_law": {
+                int v = hub(zipfRank(random));
+                return v != u ? v : -1;
+            }
+            case "build_dag": {
+                int l = level(u);
+                if (l + 1 >= numLevels) return -1;
+                // Near layers are likelier: the jump is the smaller of two uniform draws
+                int jump = 1 + Math.min(random.nextInt(params.getSpan()), random.nextInt(params.getSpan()));
+                return randomInLevel(Math.min(l + jump, numLevels - 1), random);
+            }
+            case "web": {
+                if (u < giantSize) {
+                    // 95% stays in the giant, the rest feeds the OUT tendrils
+                    if (outStart < n && random.nextDouble() < 0.05) return outStart + random.nextInt(n - outStart);
+                    int v = random.nextInt(giantSize);
+                    return v != u ? v : -1;
+                }
+                if (u < outStart && random.nextBoolean()) return random.nextInt(giantSize);
+                // Tendril edges only point forward within their region, so tendril SCCs stay tiny
+                int end = u < outStart ? outStart : n;
+                return u + 1 < end ? u + 1 + random.nextInt(end - u - 1) : -1;
+            }
+            case "deep_chain": {
+                int reach = params.getReach();
+                if (random.nextDouble() < params.getBackFraction()) {
+                    int v = u - 1 - random.nextInt(reach);
+                    return v >= 0 ? v : -1;
+                }
+                int v = u + 2 + random.nextInt(reach - 1);
+                return v < n ? v : -1;
+            }
+            case "pure_dag": {
+                int from = levelStart(Math.min(level(u) + 1, numLevels));
+                return from < n ? from + random.nextInt(n - from) : -1;
+            }
+            case "one_cycle": {
+                int v = random.nextInt(n);
+                return v != u ? v : -1;
+            }
+            case "two_cycles": {
+                int split = n / 2;
+                int lo = u < split ? 0 : split;
+                int size = u < split ? split : n - split;
+                if (size < 2) return -1;
+                int v = lo + random.nextInt(size);
+                return v != u ? v : -1;
+            }
+            default: {
+                // 90% inside the block, 10% forward to a later block
+                int b = block(u);
+                int lo = blockStart(b);
+                int hi = blockStart(b + 1);
+                if (random.nextDouble() < 0.9) {
+                    if (cyclicBlock(b)) {
+                        int v = lo + random.nextInt(hi - lo);
+                        return v != u ? v : -1;
+                    }
+                    // Acyclic blocks only get forward edges
+                    return u + 1 < hi ? u + 1 + random.nextInt(hi - u - 1) : -1;
+                }
+                return hi < n ? hi + random.nextInt(n - hi) : -1;
+            }
+        }
+    }
+
+    private int level(int u) {
+        return (int) ((long) u * numLevels / n);
+    }
+
+    /**
+     * First vertex of level l, i.e. the smallest i with i * numLevels / n >= l.
+     */
+    private int levelStart(int l) {
+        return (int) Math.min(n, ((long) l * n + numLevels - 1) / numLevels);
+    }
+
+    private int randomInLevel(int l, SplittableRandom random) {
+        int lo = levelStart(l);
+        return lo + random.nextInt(levelStart(l + 1) - lo);
+    }
+
+    private int hub(int rank) {
+        return (int) ((rank * hubStride + hubOffset) % n);
+    }
+
+    /**
+     * Inverse CDF of the continuous density (x + 1)^-alpha on [0, n), floored to a rank.
+     */
+    private int zipfRank(SplittableRandom random) {
+        double x = Math.pow(1 + random.nextDouble() * zipfRange, zipfExponent) - 1;
+        return Math.min(n - 1, (int) x);
+    }
+
+    /**
+     * web tendrils are cut into blocks of 3 starting at each region's first vertex.
+     */
+    private int tailBlockStart(int u) {
+        int region = u < outStart ? giantSize : outStart;
+        return region + (u - region) / 3 * 3;
+    }
+
+    private int tailBlockEnd(int lo) {
+        return Math.min(lo + 3, lo < outStart ? outStart : n);
+    }
+
+    /**
+     * About a quarter of the tendril blocks are 3-cycles, the rest stay singleton SCCs.
+     */
+    private boolean cyclicTailBlock(int lo) {
+        long h = (lo + blockSalt) * 0x9E3779B97F4A7C15L;
+        return ((h ^ (h >>> 31)) & 3) == 0;
+    }
+
+    private int blockStart(int b) {
+        return (int) ((long) b * n / numBlocks);
+    }
+
+    /**
+     * Largest b with blockStart(b) <= u.
+     */
+    private int block(int u) {
+        return (int) (((long) (u + 1) * numBlocks - 1) / n);
+    }
+
+    private boolean cyclicBlock(int b) {
+        return !"mixed".equals(variant) || b % 2 == 1;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Edges of one partition. Weights are kept in tenths (10..100), the generator's weight
+     * model, so text output can print them without floating-point formatting.
+     */
+    private static class Chunk {
+        final int vertexCount;
+        final int[] degrees;
+        int[] targets = new int[64];
+        int[] tenths = new int[64];
+        int edgeCount;
+        byte[] text;
+        int textLength;
+
+        Chunk(int vertexCount) {
+            this.vertexCount = vertexCount;
+            this.degrees = new int[vertexCount];
+        }
+
+        void add(int v, SplittableRandom random) {
+            if (edgeCount == targets.length) {
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+                tenths = Arrays.copyOf(tenths, edgeCount * 2);
+            }
+            targets[edgeCount] = v;
+            // Same model as InputJsonGenerator: round((1 + r * 9) * 10) / 10
+            tenths[edgeCount++] = (int) Math.round((1 + random.nextDouble() * 9) * 10);
+        }
+
+        double[] weights() {
+            double[] weights = new double[edgeCount];
+            for (int e = 0; e < edgeCount; e++) weights[e] = tenths[e] / 10.0;
+            return weights;
+        }
+
+        void format(int firstVertex, Format format) {
+            text = new byte[Math.max(64, edgeCount * 40)];
+            int e = 0;
+            for (int i = 0; i < vertexCount; i++) {
+                int u = firstVertex + i;
+                for (int end = e + degrees[i]; e < end; e++) {
+                    ensure(48);
+                    if (format == Format.JSON) {
+                        put(",{\"u\":");
+                        putInt(u);
+                        put(",\"v\":");
+                        putInt(targets[e]);
+                        put(",\"w\":");
+                        putTenths(tenths[e]);
+                        text[textLength++] = '}';
+                    } else {
+                        putInt(u);
+                        text[textLength++] = ' ';
+                        putInt(targets[e]);
+                        text[textLength++] = ' ';
+                        putTenths(tenths[e]);
+                        text[textLength++] = '\n';
+                    }
+                }
+            }
+        }
+
+        private void ensure(int bytes) {
+            if (textLength + bytes > text.length) text = Arrays.copyOf(text, text.length * 2);
+        }
+
+        private void put(String s) {
+            for (int i = 0; i < s.length(); i++) text[textLength++] = (byte) s.charAt(i);
+        }
+
+        private void putInt(int value) {
+            if (value < 10) {
+                text[textLength++] = (byte) ('0' + value);
+                return;
+            }
+            int digits = 0;
+            for (int x = value; x > 0; x /= 10) digits++;
+            for (int p = textLength + digits - 1; p >= textLength; p--, value /= 10) {
+                text[p] = (byte) ('0' + value % 10);
+            }
+            textLength += digits;
+        }
+
+        private void putTenths(int tenths) {
+            putInt(tenths / 10);
+            text[textLength++] = '.';
+            text[textLength++] = (byte) ('0' + tenths % 10);
+        }
+    }
+
+    /**
+     * Open-addressing set of targets for one vertex, cleared in O(1) by bumping a stamp.
+     */
+    private static class TargetSet {
+        private int[] keys = new int[16];
+        private int[] stamps = new int[16];
+        private int stamp = 1;
+        private int mask = 15;
+        private int size;
+
+        void clear(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 4) - 1) << 1;
+            if (capacity > keys.length) {
+                keys = new int[capacity];
+                stamps = new int[capacity];
+                stamp = 0;
+            }
+            mask = Math.min(keys.length, capacity) - 1;
+            size = 0;
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+        }
+
+        /**
+         * Returns false if v is already present.
+         */
+        boolean add(int v) {
+            // Grow if the caller under-estimated, keeping the load factor below 1/2
+            if (2 * (size + 1) > mask + 1) rehash();
+            int i = (v * 0x9E3779B9) >>> 1 & mask;
+            while (stamps[i] == stamp) {
+                if (keys[i] == v) return false;
+                i = (i + 1) & mask;
+            }
+            stamps[i] = stamp;
+            keys[i] = v;
+            size++;
+            return true;
+        }
+
+        private void rehash() {
+            int[] oldKeys = new int[size];
+            int k = 0;
+            for (int i = 0; i <= mask; i++) {
+                if (stamps[i] == stamp) oldKeys[k++] = keys[i];
+            }
+            clear(size * 2 + 2);
+            for (int v : oldKeys) add(v);
+        }
+    }
+
+    public static void main(String[] args) {
+        int n = -1;
+        String variant = "mixed";
+        String density = "sparse";
+        double degree = -1;
+        long seed = 42;
+        Format format = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = null;
+        WorkloadParams params = new WorkloadParams();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--n":
+                        n = Integer.parseInt(value);
+                        break;
+                    case "--variant":
+                        variant = value;
+                        break;
+                    case "--density":
+                        if (!value.equals("sparse") && !value.equals("dense")) {
+                            throw new IllegalArgumentException("Density must be sparse or dense");
+                        }
+                        density = value;
+                        break;
+                    case "--degree":
+                        degree = Double.parseDouble(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--format":
+                        format = parseFormat(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--out":
+                        out = value;
+                        break;
+                    case "--gamma":
+                        params.setGamma(Double.parseDouble(value));
+                        break;
+                    case "--layers":
+                        params.setLayers(Integer.parseInt(value));
+                        break;
+                    case "--span":
+                        params.setSpan(Integer.parseInt(value));
+                        break;
+                    case "--giant":
+                        params.setGiantFraction(Double.parseDouble(value));
+                        break;
+                    case "--reach":
+                        params.setReach(Integer.parseInt(value));
+                        break;
+                    case "--back":
+                        params.setBackFraction(Double.parseDouble(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+                }
+            }
+            if (n < 0 || out == null || threads < 1) {
+                throw new IllegalArgumentException("Need --n, --out and --threads >= 1");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (format == null) format = formatOf(out);
+        if (degree < 0) degree = density.equals("dense") ? 8 : 1.5;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            GraphStreamGenerator generator = new GraphStreamGenerator(n, degree, variant, seed, pool, DEFAULT_PARTITION_SIZE, params);
+            long start = System.nanoTime();
+            Summary summary = generator.write(Paths.get(out), format, 1, density);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s (%s, %s) in %.2f s, %.1f M edges/s%n%s%n",
+                    out, variant, format, seconds, summary.getEdgeCount() / seconds / 1e6, summary);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Format parseFormat(String value) {
+        switch (value) {
+            case "json":
+                return Format.JSON;
+            case "edges":
+                return Format.EDGE_LIST;
+            case "binary":
+                return Format.BINARY;
+            default:
+                throw new IllegalArgumentException("Format must be json, edges or binary");
+        }
+    }
+
+    private static Format formatOf(String path) {
+        if (path.endsWith(".json")) return Format.JSON;
+        if (path.endsWith(".bin")) return Format.BINARY;
+        return Format.EDGE_LIST;
+    }
+}
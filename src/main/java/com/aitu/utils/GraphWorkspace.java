@@ -0,0 +1,123 @@
+package com.aitu.utils;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch buffers for the graph algorithms, owned by one thread at a time.
+ *
+ * Buffers are handed out by {@link Slot} and grow by 1.5x, so after a few graphs a thread stops
+ * allocating. Their contents are NOT cleared between uses: algorithms either write before they
+ * read or guard reads with a {@link Marks} set, which is cleared in O(1) by bumping an epoch.
+ *
+ * Algorithms that call each other (e.g. shortest path runs Kahn's sort) use different slots.
+ * Anything returned to the caller is still freshly allocated, so results never alias a buffer.
+ */
+public class GraphWorkspace {
+    private static final ThreadLocal<GraphWorkspace> CURRENT = ThreadLocal.withInitial(GraphWorkspace::new);
+
+    /**
+     * Buffer owners. Slots of algorithms that run nested inside each other must differ.
+     */
+    public enum Slot {
+        TARJAN_DISC, TARJAN_LOW, TARJAN_STACK, TARJAN_CALL_VERTEX, TARJAN_CALL_EDGE,
+        TARJAN_VISITED, TARJAN_ON_STACK, TARJAN_MEMBERS,
+        KAHN_IN_DEGREE, KAHN_QUEUE, KAHN_NEIGHBOURS,
+        PATH_ORDER, PATH_POSITION, PATH_DIST, PATH_TOUCHED, PATH_REACHED, PATH_PART,
+        DYNAMIC_FORWARD, DYNAMIC_BACKWARD
+    }
+
+    private final int[][] ints = new int[Slot.values().length][];
+    private final double[][] doubles = new double[Slot.values().length][];
+    private final Marks[] marks = new Marks[Slot.values().length];
+
+    /**
+     * Returns the calling thread's workspace.
+     */
+    public static GraphWorkspace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns an int buffer with at least size entries; contents are undefined.
+     */
+    public int[] ints(Slot slot, int size) {
+        int[] buffer = ints[slot.ordinal()];
+        if (buffer == null || buffer.length < size) {
+            buffer = new int[grow(buffer == null ? 0 : buffer.length, size)];
+            ints[slot.ordinal()] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a double buffer with at least size entries; contents are undefined.
+     */
+    public double[] doubles(Slot slot, int size) {
+        double[] buffer = doubles[slot.ordinal()];
+        if (buffer == null || buffer.length < size) {
+            buffer = new double[grow(buffer == null ? 0 : buffer.length, size)];
+            doubles[slot.ordinal()] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns an empty mark set covering vertices [0, size).
+     */
+    public Marks marks(Slot slot, int size) {
+        Marks set = marks[slot.ordinal()];
+        if (set == null) {
+            set = new Marks();
+            marks[slot.ordinal()] = set;
+        }
+        set.clear(size);
+        return set;
+    }
+
+    /**
+     * Total bytes currently held by the buffers.
+     */
+    public long getRetainedBytes() {
+        long bytes = 0;
+        for (int[] buffer : ints) bytes += buffer == null ? 0 : 4L * buffer.length;
+        for (double[] buffer : doubles) bytes += buffer == null ? 0 : 8L * buffer.length;
+        for (Marks set : marks) bytes += set == null ? 0 : 4L * set.stamps.length;
+        return bytes;
+    }
+
+    private static int grow(int capacity, int size) {
+        return Math.min(Integer.MAX_VALUE - 8, Math.max(size, capacity + (capacity >> 1)));
+    }
+
+    /**
+     * Set of vertices, valid for the current epoch only. clear() is O(1) except when the
+     * buffer grows or the epoch counter wraps around.
+     */
+    public static class Marks {
+        private int[] stamps = new int[0];
+        private int epoch;
+
+        void clear(int size) {
+            if (stamps.length < size) {
+                stamps = new int[grow(stamps.length, size)];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+        }
+
+        public boolean contains(int v) {
+            return stamps[v] == epoch;
+        }
+
+        public void add(int v) {
+            stamps[v] = epoch;
+        }
+
+        public void remove(int v) {
+            stamps[v] = 0;
+        }
+    }
+}
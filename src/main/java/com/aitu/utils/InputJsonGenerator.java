@@ -12,6 +12,9 @@ import java.util.*;
 /**
  * Generates test graphs with various structures for performance evaluation.
  * Creates both sparse and dense variants for comparison.
+ *
+ * This builds each graph in memory and is meant for the small assignment inputs; run it with
+ * arguments (see {@link GraphStreamGenerator}) to stream one large graph straight to a file.
  */
 public class InputJsonGenerator {
     private final Random random;
@@ -519,9 +522,14 @@ public class InputJsonGenerator {
     }
 
     /**
-     * Main entry point: generates both input_sparse.json and input_dense.json
+     * Main entry point: generates both input_sparse.json and input_dense.json, or with
+     * arguments streams one large graph through {@link GraphStreamGenerator}
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            GraphStreamGenerator.main(args);
+            return;
+        }
         InputJsonGenerator generator = new InputJsonGenerator();
         try {
             generator.generateAll();
@@ -1,78 +1,276 @@
 package com.aitu.utils;
 
+import com.aitu.core.DenseGraph;
 import com.aitu.core.DirectedGraph;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.aitu.core.Graph;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
-import java.io.FileReader;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Parses JSON input files containing graph definitions.
+ * Files are read with Gson's streaming {@link JsonReader}: only the graph currently
+ * being parsed is held in memory, never the whole JSON tree.
  */
 public class InputReader {
 
     /**
      * Loads all graphs from a JSON file with validation.
+     * Prefer {@link #streamGraphs(String)} for large files, this keeps every graph in memory.
      */
     public static List<GraphData> loadAllGraphs(String filepath) throws IOException {
-        Gson gson = new Gson();
-        try (FileReader reader = new FileReader(filepath)) {
-            JsonObject root = gson.fromJson(reader, JsonObject.class);
-            if (root == null) throw new IOException("Invalid JSON format");
-
-            JsonArray graphsArray = root.getAsJsonArray("graphs");
-            if (graphsArray == null) throw new IOException("No 'graphs' array in JSON");
+        List<GraphData> graphsList = new ArrayList<>();
+        try (GraphIterator graphs = iterateGraphs(filepath)) {
+            while (graphs.hasNext()) {
+                graphsList.add(graphs.next());
+            }
+            return graphsList;
+        } catch (UncheckedIOException e) {
+            System.err.println("Error reading JSON: " + e.getCause().getMessage());
+            throw e.getCause();
+        } catch (IOException e) {
+            System.err.println("Error reading JSON: " + e.getMessage());
+            throw e;
+        }
+    }
 
-            List<GraphData> graphsList = new ArrayList<>();
+    /**
+     * Opens a lazy iterator over the graphs in a JSON file; each graph is built when next() is called.
+     * The caller must close the iterator. Read errors surface as {@link UncheckedIOException}.
+     */
+    public static GraphIterator iterateGraphs(String filepath) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(filepath), StandardCharsets.UTF_8), 1 << 16);
+        try {
+            return new GraphIterator(new JsonReader(reader));
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
 
-            // Parse each graph
-            for (JsonElement element : graphsArray) {
-                JsonObject graphJson = element.getAsJsonObject();
+    /**
+     * Same as {@link #iterateGraphs(String)} as a sequential stream.
+     * Use in try-with-resources so the file is closed.
+     */
+    public static Stream<GraphData> streamGraphs(String filepath) throws IOException {
+        GraphIterator graphs = iterateGraphs(filepath);
+        Spliterator<GraphData> spliterator = Spliterators.spliteratorUnknownSize(graphs,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                graphs.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 
-                int id = graphJson.get("id").getAsInt();
-                int n = graphJson.get("n").getAsInt();
+    /**
+     * Pull parser over the "graphs" array of an input file.
+     * Edges are fed straight into the DirectedGraph as they are read. If "edges" appears before "n"
+     * in a graph object, they are buffered in primitive arrays until the graph size is known.
+     */
+    public static class GraphIterator implements Iterator<GraphData>, Closeable {
+        private final JsonReader json;
+        private boolean finished;
 
-                if (n <= 0) throw new IllegalArgumentException("Vertices must be > 0");
+        // Edge buffer for graph objects that list edges before "n"
+        private int[] bufFrom = new int[0];
+        private int[] bufTo = new int[0];
+        private double[] bufWeight = new double[0];
+        private int bufSize;
 
-                int source = graphJson.has("source") ? graphJson.get("source").getAsInt() : 0;
-                if (source < 0 || source >= n) {
-                    throw new IllegalArgumentException("Source out of bounds");
+        GraphIterator(JsonReader json) throws IOException {
+            this.json = json;
+            json.setLenient(true); // same leniency Gson.fromJson applied to the DOM reader
+            try {
+                if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                    throw new IOException("Invalid JSON format");
+                }
+                json.beginObject();
+                while (json.hasNext()) {
+                    if (json.nextName().equals("graphs") && json.peek() == JsonToken.BEGIN_ARRAY) {
+                        json.beginArray();
+                        return;
+                    }
+                    json.skipValue();
                 }
+                throw new IOException("No 'graphs' array in JSON");
+            } catch (IllegalStateException e) {
+                throw new IOException("Invalid JSON format", e);
+            }
+        }
 
-                String density = graphJson.has("density") ? graphJson.get("density").getAsString() : "unknown";
-                String variant = graphJson.has("variant") ? graphJson.get("variant").getAsString() : "unknown";
+        @Override
+        public boolean hasNext() {
+            if (finished) return false;
+            try {
+                if (json.hasNext()) return true;
+                json.endArray();
+                finished = true;
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-                DirectedGraph graph = new DirectedGraph(n);
+        @Override
+        public GraphData next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return readGraph();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new UncheckedIOException(new IOException("Invalid JSON format", e));
+            }
+        }
 
-                // Parse edges
-                JsonArray edges = graphJson.getAsJsonArray("edges");
-                if (edges != null) {
-                    for (JsonElement edgeElem : edges) {
-                        JsonObject edge = edgeElem.getAsJsonObject();
-                        int u = edge.get("u").getAsInt();
-                        int v = edge.get("v").getAsInt();
-                        double w = edge.get("w").getAsDouble();
+        /**
+         * Reads one graph object with the same validation rules as the original DOM reader:
+         * id, n and every edge's u, v and w are required, source, density and variant are optional.
+         */
+        private GraphData readGraph() throws IOException {
+            int id = 0;
+            boolean hasId = false;
+            int n = -1;
+            int source = 0;
+            String density = "unknown";
+            String variant = "unknown";
+            DirectedGraph graph = null;
+            bufSize = 0;
 
-                        if (u < 0 || u >= n || v < 0 || v >= n) {
-                            throw new IllegalArgumentException("Edge vertex out of bounds");
-                        }
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "id":
+                        id = json.nextInt();
+                        hasId = true;
+                        break;
+                    case "n":
+                        n = json.nextInt();
+                        if (n <= 0) throw new IllegalArgumentException("Vertices must be > 0");
+                        graph = new DirectedGraph(n);
+                        break;
+                    case "source":
+                        source = json.nextInt();
+                        break;
+                    case "density":
+                        density = json.nextString();
+                        break;
+                    case "variant":
+                        variant = json.nextString();
+                        break;
+                    case "edges":
+                        readEdges(graph, n);
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            json.endObject();
 
-                        graph.addEdge(u, v, w);
+            if (!hasId) {
+                throw new IllegalArgumentException("Missing field 'id'");
+            }
+            if (graph == null) {
+                throw new IllegalArgumentException("Vertices must be > 0");
+            }
+            for (int i = 0; i < bufSize; i++) {
+                addEdge(graph, n, bufFrom[i], bufTo[i], bufWeight[i]);
+            }
+            if (source < 0 || source >= n) {
+                throw new IllegalArgumentException("Source out of bounds");
+            }
+            return new GraphData(id, graph, source, density, variant);
+        }
+
+        private void readEdges(DirectedGraph graph, int n) throws IOException {
+            if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+                return;
+            }
+            json.beginArray();
+            while (json.hasNext()) {
+                int u = 0, v = 0;
+                double w = 0;
+                int seen = 0; // one bit per required field: u, v, w
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "u":
+                            u = json.nextInt();
+                            seen |= 1;
+                            break;
+                        case "v":
+                            v = json.nextInt();
+                            seen |= 2;
+                            break;
+                        case "w":
+                            w = json.nextDouble();
+                            seen |= 4;
+                            break;
+                        default:
+                            json.skipValue();
                     }
                 }
+                json.endObject();
+
+                if (seen != 7) {
+                    String missing = (seen & 1) == 0 ? "u" : (seen & 2) == 0 ? "v" : "w";
+                    throw new IllegalArgumentException("Missing field '" + missing + "' in edge");
+                }
+                if (graph != null) {
+                    addEdge(graph, n, u, v, w);
+                } else {
+                    bufferEdge(u, v, w);
+                }
+            }
+            json.endArray();
+        }
 
-                graphsList.add(new GraphData(id, graph, source, density, variant));
+        private void addEdge(DirectedGraph graph, int n, int u, int v, double w) {
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("Edge vertex out of bounds");
             }
+            graph.addEdge(u, v, w);
+        }
 
-            return graphsList;
-        } catch (IOException e) {
-            System.err.println("Error reading JSON: " + e.getMessage());
-            throw e;
+        private void bufferEdge(int u, int v, double w) {
+            if (bufSize == bufFrom.length) {
+                int capacity = Math.max(16, bufSize * 2);
+                bufFrom = Arrays.copyOf(bufFrom, capacity);
+                bufTo = Arrays.copyOf(bufTo, capacity);
+                bufWeight = Arrays.copyOf(bufWeight, capacity);
+            }
+            bufFrom[bufSize] = u;
+            bufTo[bufSize] = v;
+            bufWeight[bufSize] = w;
+            bufSize++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
         }
     }
 
@@ -102,6 +300,15 @@ public class InputReader {
             return graph;
         }
 
+        /**
+         * Returns the backend picked for analysis from the measured density: a
+         * {@link DenseGraph} for near-complete graphs, otherwise the graph itself.
+         * Built on every call and not kept, so a loaded graph holds one representation.
+         */
+        public Graph getAnalysisGraph() {
+            return DenseGraph.chooseFor(graph);
+        }
+
         public int getSource() {
             return source;
         }
@@ -115,4 +322,3 @@ public class InputReader {
         }
     }
 }
-
@@ -51,6 +51,10 @@ public class Metrics {
         edgeExplorations++;
     }
 
+    public void addEdgeExplorations(long count) {
+        edgeExplorations += count;
+    }
+
     public void incrementStackOperation() {
         stackOperations++;
     }
@@ -0,0 +1,84 @@
+package com.aitu.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records wall time and heap allocation of named pipeline phases on the current thread.
+ * Allocation is read from the HotSpot thread allocation counter; on JVMs without it
+ * allocated bytes are reported as 0.
+ */
+public class PhaseProfiler {
+    private static final com.sun.management.ThreadMXBean ALLOC_BEAN = allocationBean();
+
+    private final Map<String, long[]> phases = new LinkedHashMap<>(); // phase -> {nanos, bytes}
+    private String current;
+    private long startNanos;
+    private long startBytes;
+
+    /**
+     * Starts timing a phase. Repeated phases accumulate.
+     * @throws IllegalStateException if another phase is still open
+     */
+    public void begin(String phase) {
+        if (current != null) {
+            throw new IllegalStateException("Phase '" + current + "' is still running");
+        }
+        current = phase;
+        startBytes = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Stops the currently running phase.
+     */
+    public void end() {
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = allocatedBytes() - startBytes;
+        if (current == null) {
+            throw new IllegalStateException("No phase is running");
+        }
+        long[] totals = phases.computeIfAbsent(current, k -> new long[2]);
+        totals[0] += nanos;
+        totals[1] += bytes;
+        current = null;
+    }
+
+    /**
+     * Returns phase names in the order they were first recorded.
+     */
+    public List<String> getPhases() {
+        return new ArrayList<>(phases.keySet());
+    }
+
+    public long getNanos(String phase) {
+        long[] totals = phases.get(phase);
+        return totals == null ? 0 : totals[0];
+    }
+
+    public long getAllocatedBytes(String phase) {
+        long[] totals = phases.get(phase);
+        return totals == null ? 0 : totals[1];
+    }
+
+    private static long allocatedBytes() {
+        if (ALLOC_BEAN == null) return 0;
+        return ALLOC_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported()) {
+                hotspot.setThreadAllocatedMemoryEnabled(true);
+                return hotspot;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,394 @@
+package com.aitu.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+/**
+ * Staged pipeline: a source thread, any number of processing stages each with its own worker
+ * threads, and a single ordered sink thread, connected by bounded queues.
+ *
+ * A full queue blocks the stage in front of it, and the number of items between source and sink is
+ * capped, so memory stays bounded however uneven the stages are. Items may finish out of order; the
+ * sink puts them back in sequence order before consuming them. Each stage records its throughput,
+ * busy/wait time and the depth of its input queue.
+ *
+ * <pre>
+ *   Pipeline.source("load", iterator, 64)
+ *           .then("analyze", 8, 16, this::analyze)
+ *           .then("serialize", 2, 16, this::serialize)
+ *           .run("write", Item::getSeq, writer::submit);
+ * </pre>
+ */
+public class Pipeline<T> {
+    private static final Object END = new Object();
+
+    @FunctionalInterface
+    public interface StageFunction<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface StageConsumer<T> {
+        void accept(T item) throws Exception;
+    }
+
+    private final Iterator<?> source;
+    private final String sourceName;
+    private final int maxInFlight;
+    private final List<Stage> stages;
+
+    private Pipeline(Iterator<?> source, String sourceName, int maxInFlight, List<Stage> stages) {
+        this.source = source;
+        this.sourceName = sourceName;
+        this.maxInFlight = maxInFlight;
+        this.stages = stages;
+    }
+
+    /**
+     * Starts a pipeline that pulls items from the iterator on one thread.
+     * At most maxInFlight items are between the source and the end of the sink at any time.
+     */
+    public static <T> Pipeline<T> source(String name, Iterator<T> source, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be > 0");
+        }
+        return new Pipeline<>(source, name, maxInFlight, new ArrayList<>());
+    }
+
+    /**
+     * Adds a stage with its own worker threads reading from a queue of the given capacity.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<R> then(String name, int threads, int queueCapacity, StageFunction<? super T, ? extends R> fn) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Stage threads and queue capacity must be > 0");
+        }
+        List<Stage> next = new ArrayList<>(stages);
+        next.add(new Stage(name, threads, queueCapacity, (StageFunction<Object, Object>) fn));
+        return new Pipeline<>(source, sourceName, maxInFlight, next);
+    }
+
+    /**
+     * Runs the pipeline to completion, consuming items on one thread in emission order.
+     */
+    public List<StageStats> run(String sinkName, StageConsumer<? super T> sink) throws IOException {
+        return run(sinkName, null, sink);
+    }
+
+    /**
+     * Runs the pipeline to completion, consuming items on one thread in the order given by
+     * sequence, which must number the items 0, 1, 2, ... The source may emit them in any order
+     * that keeps every item within maxInFlight of the next one the sink is waiting for.
+     * The first failure in any stage stops all threads and is rethrown here.
+     */
+    public List<StageStats> run(String sinkName, ToLongFunction<? super T> sequence,
+                                StageConsumer<? super T> sink) throws IOException {
+        return new Run(sinkName, sequence, sink).execute();
+    }
+
+    private static class Stage {
+        final String name;
+        final int threads;
+        final int queueCapacity;
+        final StageFunction<Object, Object> fn;
+
+        Stage(String name, int threads, int queueCapacity, StageFunction<Object, Object> fn) {
+            this.name = name;
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.fn = fn;
+        }
+    }
+
+    private static class Item {
+        final long seq;
+        final Object value;
+
+        Item(long seq, Object value) {
+            this.seq = seq;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Per-stage counters, updated by the stage's own threads.
+     */
+    public static class StageStats {
+        private final String name;
+        private final int threads;
+        private final int queueCapacity;
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong waitNanos = new AtomicLong();
+        private final AtomicLong depthSum = new AtomicLong();
+        private final AtomicLong depthSamples = new AtomicLong();
+        private final AtomicInteger maxDepth = new AtomicInteger();
+        private volatile long elapsedNanos;
+
+        StageStats(String name, int threads, int queueCapacity) {
+            this.name = name;
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+
+        void sampleDepth(int depth) {
+            depthSum.addAndGet(depth);
+            depthSamples.incrementAndGet();
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        /** Capacity of the queue feeding this stage (0 for the source). */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public long getItems() {
+            return items.get();
+        }
+
+        /** Time spent inside the stage function, summed over threads. */
+        public long getBusyNanos() {
+            return busyNanos.get();
+        }
+
+        /** Time spent blocked on the input queue or on backpressure, summed over threads. */
+        public long getWaitNanos() {
+            return waitNanos.get();
+        }
+
+        public int getMaxQueueDepth() {
+            return maxDepth.get();
+        }
+
+        public double getMeanQueueDepth() {
+            long samples = depthSamples.get();
+            return samples == 0 ? 0 : (double) depthSum.get() / samples;
+        }
+
+        /** Items per second over the whole run. */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : items.get() * 1e9 / elapsedNanos;
+        }
+
+        /** Fraction of the stage's thread time spent working rather than waiting. */
+        public double getUtilization() {
+            double total = (double) elapsedNanos * threads;
+            return total == 0 ? 0 : Math.min(1.0, busyNanos.get() / total);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-10s threads=%-3d items=%-7d %9.1f/s  busy=%5.1f%%  queue avg=%.1f max=%d/%d",
+                    name, threads, getItems(), getThroughput(), getUtilization() * 100,
+                    getMeanQueueDepth(), getMaxQueueDepth(), queueCapacity);
+        }
+    }
+
+    /**
+     * State of one execution: queues, threads and the first failure.
+     */
+    private class Run {
+        private final String sinkName;
+        private final ToLongFunction<Object> sequence;
+        private final StageConsumer<Object> sink;
+        private final Semaphore permits = new Semaphore(maxInFlight);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private final List<BlockingQueue<Object>> queues = new ArrayList<>();
+        private final List<StageStats> stats = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        Run(String sinkName, ToLongFunction<?> sequence, StageConsumer<?> sink) {
+            this.sinkName = sinkName;
+            this.sequence = (ToLongFunction<Object>) sequence;
+            this.sink = (StageConsumer<Object>) sink;
+        }
+
+        List<StageStats> execute() throws IOException {
+            // queues.get(i) feeds stage i; the last one feeds the sink
+            for (Stage stage : stages) queues.add(new ArrayBlockingQueue<>(stage.queueCapacity));
+            queues.add(new ArrayBlockingQueue<>(maxInFlight));
+
+            long start = System.nanoTime();
+            StageStats sourceStats = new StageStats(sourceName, 1, 0);
+            stats.add(sourceStats);
+            startThread(sourceName, () -> runSource(sourceStats));
+            for (int s = 0; s < stages.size(); s++) {
+                Stage stage = stages.get(s);
+                StageStats stageStats = new StageStats(stage.name, stage.threads, stage.queueCapacity);
+                stats.add(stageStats);
+                AtomicInteger live = new AtomicInteger(stage.threads);
+                int index = s;
+                for (int t = 0; t < stage.threads; t++) {
+                    startThread(stage.name + "-" + t, () -> runStage(index, stageStats, live));
+                }
+            }
+            StageStats sinkStats = new StageStats(sinkName, 1, maxInFlight);
+            stats.add(sinkStats);
+            startThread(sinkName, () -> runSink(sinkStats));
+            if (failure.get() != null) {
+                // A thread failed before all were started
+                for (Thread thread : threads) thread.interrupt();
+            }
+
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    fail(e);
+                    Thread.currentThread().interrupt();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            for (StageStats s : stats) s.elapsedNanos = elapsed;
+
+            Throwable error = failure.get();
+            if (error instanceof UncheckedIOException) throw ((UncheckedIOException) error).getCause();
+            if (error instanceof IOException) throw (IOException) error;
+            if (error instanceof RuntimeException) throw (RuntimeException) error;
+            if (error instanceof Error) throw (Error) error;
+            if (error != null) throw new IOException("Pipeline failed", error);
+            return Collections.unmodifiableList(stats);
+        }
+
+        private void startThread(String name, Runnable body) {
+            Thread thread = new Thread(() -> {
+                try {
+                    body.run();
+                } catch (Throwable e) {
+                    fail(e);
+                }
+            }, "pipeline-" + name);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        /**
+         * Records the first failure and interrupts every thread so blocked queues are released.
+         */
+        private void fail(Throwable e) {
+            if (failure.compareAndSet(null, e)) {
+                for (Thread thread : threads) thread.interrupt();
+            }
+        }
+
+        private int consumersOf(int queue) {
+            return queue < stages.size() ? stages.get(queue).threads : 1;
+        }
+
+        private void runSource(StageStats s) {
+            BlockingQueue<Object> out = queues.get(0);
+            long seq = 0;
+            try {
+                while (true) {
+                    long t0 = System.nanoTime();
+                    permits.acquire();
+                    long t1 = System.nanoTime();
+                    if (!source.hasNext()) {
+                        permits.release();
+                        break;
+                    }
+                    Object value = source.next();
+                    long t2 = System.nanoTime();
+                    out.put(new Item(seq++, value));
+                    s.waitNanos.addAndGet(t1 - t0 + System.nanoTime() - t2);
+                    s.busyNanos.addAndGet(t2 - t1);
+                    s.items.incrementAndGet();
+                }
+                for (int i = 0; i < consumersOf(0); i++) out.put(END);
+            } catch (InterruptedException e) {
+                // cancelled
+            }
+        }
+
+        private void runStage(int index, StageStats s, AtomicInteger live) {
+            BlockingQueue<Object> in = queues.get(index);
+            BlockingQueue<Object> out = queues.get(index + 1);
+            StageFunction<Object, Object> fn = stages.get(index).fn;
+            try {
+                while (true) {
+                    long t0 = System.nanoTime();
+                    s.sampleDepth(in.size());
+                    Object next = in.take();
+                    if (next == END) break;
+                    Item item = (Item) next;
+                    long t1 = System.nanoTime();
+                    Object result = fn.apply(item.value);
+                    long t2 = System.nanoTime();
+                    out.put(new Item(item.seq, result));
+                    s.waitNanos.addAndGet(t1 - t0 + System.nanoTime() - t2);
+                    s.busyNanos.addAndGet(t2 - t1);
+                    s.items.incrementAndGet();
+                }
+                // The last worker of the stage passes end-of-stream on
+                if (live.decrementAndGet() == 0) {
+                    for (int i = 0; i < consumersOf(index + 1); i++) out.put(END);
+                }
+            } catch (InterruptedException e) {
+                // cancelled
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private void runSink(StageStats s) {
+            BlockingQueue<Object> in = queues.get(stages.size());
+            Map<Long, Object> pending = new HashMap<>();
+            long nextSeq = 0;
+            try {
+                while (true) {
+                    long t0 = System.nanoTime();
+                    s.sampleDepth(in.size());
+                    Object next = in.take();
+                    if (next == END) break;
+                    Item item = (Item) next;
+                    long t1 = System.nanoTime();
+                    s.waitNanos.addAndGet(t1 - t0);
+
+                    long seq = sequence == null ? item.seq : sequence.applyAsLong(item.value);
+                    pending.put(seq, item.value);
+                    Object ready;
+                    while ((ready = pending.remove(nextSeq)) != null) {
+                        sink.accept(ready);
+                        nextSeq++;
+                        permits.release();
+                        s.items.incrementAndGet();
+                    }
+                    s.busyNanos.addAndGet(System.nanoTime() - t1);
+                }
+                if (!pending.isEmpty()) {
+                    throw new IllegalStateException("Sequence gap: waiting for item " + nextSeq
+                            + " with " + pending.size() + " items pending");
+                }
+            } catch (InterruptedException e) {
+                // cancelled
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.aitu.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams results to CSV and newline-delimited JSON files from a background thread.
+ *
+ * Producers hand over one {@link Record} per graph; it waits in a bounded queue (so a slow disk
+ * throttles producers instead of piling up results) and is written and dropped by the writer thread.
+ * Buffers are flushed whenever the queue runs empty, so output appears as soon as the writer catches
+ * up without a flush per line. Sinks must be registered before the first record is submitted.
+ */
+public class ResultWriter implements Closeable {
+    public static final int DEFAULT_CAPACITY = 256;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Record END = new Record();
+
+    private final Map<String, Writer> csvSinks = new LinkedHashMap<>();
+    private final Map<String, Writer> jsonSinks = new LinkedHashMap<>();
+    private final BlockingQueue<Record> queue;
+    private final Gson gson = new Gson();
+    private Thread thread;
+    private volatile IOException failure;
+    private long written;
+
+    public ResultWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ResultWriter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be > 0");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Creates (or truncates) a CSV file and writes its header.
+     */
+    public void addCsv(String name, String path, String header) throws IOException {
+        Writer writer = open(name, path);
+        writer.write(header);
+        writer.write('\n');
+        csvSinks.put(name, writer);
+    }
+
+    /**
+     * Creates (or truncates) an NDJSON file: one compact JSON value per line.
+     */
+    public void addNdjson(String name, String path) throws IOException {
+        jsonSinks.put(name, open(name, path));
+    }
+
+    private Writer open(String name, String path) throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Sinks must be added before the first record");
+        }
+        if (csvSinks.containsKey(name) || jsonSinks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate sink: " + name);
+        }
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get(path)), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+    }
+
+    /**
+     * Queues a record, blocking while the queue is full.
+     * @throws IOException if the writer thread has failed or the caller is interrupted
+     */
+    public void submit(Record record) throws IOException {
+        for (String sink : record.rows.keySet()) {
+            if (!csvSinks.containsKey(sink)) throw new IllegalArgumentException("Unknown CSV sink: " + sink);
+        }
+        for (String sink : record.json.keySet()) {
+            if (!jsonSinks.containsKey(sink)) throw new IllegalArgumentException("Unknown NDJSON sink: " + sink);
+        }
+        if (thread == null) {
+            thread = new Thread(this::drain, "result-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        checkFailure();
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing result");
+        }
+    }
+
+    /**
+     * Number of records written so far (exact after close).
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Writes everything still queued, then flushes and closes all files.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (thread != null) {
+                try {
+                    queue.put(END);
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while closing result writer");
+                }
+            }
+        } finally {
+            IOException closeError = null;
+            List<Writer> all = new ArrayList<>(csvSinks.values());
+            all.addAll(jsonSinks.values());
+            for (Writer writer : all) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    if (closeError == null) closeError = e;
+                }
+            }
+            checkFailure();
+            if (closeError != null) throw closeError;
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Result writer failed", failure);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Record record = queue.poll();
+                if (record == null) {
+                    flushAll();
+                    record = queue.take();
+                }
+                if (record == END) return;
+                write(record);
+                written++;
+            }
+        } catch (IOException e) {
+            failure = e;
+            // Keep consuming so producers blocked on a full queue are released
+            discardUntilEnd();
+        } catch (RuntimeException e) {
+            failure = new IOException("Unexpected error in result writer", e);
+            discardUntilEnd();
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Result writer interrupted");
+        }
+    }
+
+    private void discardUntilEnd() {
+        try {
+            while (queue.take() != END) {
+                // drop
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Record record) throws IOException {
+        for (Map.Entry<String, List<String[]>> entry : record.rows.entrySet()) {
+            Writer writer = csvSinks.get(entry.getKey());
+            for (String[] row : entry.getValue()) {
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) writer.write(';');
+                    writer.write(row[i]);
+                }
+                writer.write('\n');
+            }
+        }
+        for (Map.Entry<String, List<JsonElement>> entry : record.json.entrySet()) {
+            Writer writer = jsonSinks.get(entry.getKey());
+            for (JsonElement element : entry.getValue()) {
+                try {
+                    gson.toJson(element, writer);
+                } catch (JsonIOException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+                }
+                writer.write('\n');
+            }
+        }
+    }
+
+    private void flushAll() throws IOException {
+        for (Writer writer : csvSinks.values()) writer.flush();
+        for (Writer writer : jsonSinks.values()) writer.flush();
+    }
+
+    /**
+     * CSV rows and JSON values produced for one graph, keyed by sink name.
+     */
+    public static class Record {
+        private final Map<String, List<String[]>> rows = new LinkedHashMap<>();
+        private final Map<String, List<JsonElement>> json = new LinkedHashMap<>();
+
+        public Record addRow(String sink, String... row) {
+            rows.computeIfAbsent(sink, k -> new ArrayList<>(1)).add(row);
+            return this;
+        }
+
+        public Record addJson(String sink, JsonElement element) {
+            json.computeIfAbsent(sink, k -> new ArrayList<>(1)).add(element);
+            return this;
+        }
+
+        public List<String[]> getRows(String sink) {
+            return rows.getOrDefault(sink, new ArrayList<>());
+        }
+
+        public List<JsonElement> getJson(String sink) {
+            return json.getOrDefault(sink, new ArrayList<>());
+        }
+    }
+}
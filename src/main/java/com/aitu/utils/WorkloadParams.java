@@ -0,0 +1,108 @@
+package com.aitu.utils;
+
+/**
+ * Tuning knobs for the workload models of {@link GraphStreamGenerator}. Every model reads only
+ * its own parameters; the defaults give the shapes described on each setter.
+ */
+public class WorkloadParams {
+    private double gamma = 2.1;
+    private int layers = 0;
+    private int span = 4;
+    private double giantFraction = 0.5;
+    private int reach = 16;
+    private double backFraction = 0.0;
+
+    /**
+     * power_law: exponent of the in- and out-degree distributions, P(d) ~ d^-gamma. Web and
+     * social graphs sit between 2 and 3; lower means heavier hubs.
+     */
+    public WorkloadParams setGamma(double gamma) {
+        if (!(gamma > 2) || gamma > 10) {
+            throw new IllegalArgumentException("Gamma must be in (2, 10]");
+        }
+        this.gamma = gamma;
+        return this;
+    }
+
+    /**
+     * build_dag: number of layers, which is the length of the critical chain. 0 picks n / 50,
+     * i.e. about 50 targets per layer.
+     */
+    public WorkloadParams setLayers(int layers) {
+        if (layers < 0) {
+            throw new IllegalArgumentException("Layers must be >= 0");
+        }
+        this.layers = layers;
+        return this;
+    }
+
+    /**
+     * build_dag: how many layers ahead a dependency may reach (1 = next layer only).
+     */
+    public WorkloadParams setSpan(int span) {
+        if (span < 1) {
+            throw new IllegalArgumentException("Span must be >= 1");
+        }
+        this.span = span;
+        return this;
+    }
+
+    /**
+     * web: share of vertices in the giant SCC; the rest is split into IN and OUT tendrils made
+     * of SCCs with 1 to 3 vertices.
+     */
+    public WorkloadParams setGiantFraction(double giantFraction) {
+        if (!(giantFraction > 0) || giantFraction > 1) {
+            throw new IllegalArgumentException("Giant fraction must be in (0, 1]");
+        }
+        this.giantFraction = giantFraction;
+        return this;
+    }
+
+    /**
+     * deep_chain: longest skip of an extra edge along the chain.
+     */
+    public WorkloadParams setReach(int reach) {
+        if (reach < 2) {
+            throw new IllegalArgumentException("Reach must be >= 2");
+        }
+        this.reach = reach;
+        return this;
+    }
+
+    /**
+     * deep_chain: share of extra edges that point backwards. 0 keeps the chain a DAG with a
+     * critical path through every vertex; anything above 0 merges it into a deep SCC.
+     */
+    public WorkloadParams setBackFraction(double backFraction) {
+        if (!(backFraction >= 0) || backFraction > 1) {
+            throw new IllegalArgumentException("Back fraction must be in [0, 1]");
+        }
+        this.backFraction = backFraction;
+        return this;
+    }
+
+    public double getGamma() {
+        return gamma;
+    }
+
+    public int getLayers() {
+        return layers;
+    }
+
+    public int getSpan() {
+        return span;
+    }
+
+    public double getGiantFraction() {
+        return giantFraction;
+    }
+
+    public int getReach() {
+        return reach;
+    }
+
+    public double getBackFraction() {
+        return backFraction;
+    }
+}
@@ -0,0 +1,95 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.utils.BinaryGraphConverter;
+import com.aitu.utils.BinaryGraphFile;
+import com.aitu.utils.InputReader;
+import com.aitu.utils.InputReader.GraphData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryGraphFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRoundTrip_AdjacencyAndMetadata() throws IOException {
+        DirectedGraph graph = new DirectedGraph(4);
+        graph.addEdge(0, 1, 1.5);
+        graph.addEdge(0, 2, 2.5);
+        graph.addEdge(2, 3, 3.5);
+        graph.addEdge(3, 0, 4.5);
+
+        Path file = tempDir.resolve("g.agr");
+        BinaryGraphFile.write(file, graph, 7, 2, "sparse", "mixed");
+
+        try (BinaryGraphFile loaded = BinaryGraphFile.open(file)) {
+            Graph mapped = loaded.getGraph();
+            assertEquals(7, loaded.getId());
+            assertEquals(2, loaded.getSource());
+            assertEquals("sparse", loaded.getDensity());
+            assertEquals("mixed", loaded.getVariant());
+            assertFalse(loaded.hasSCC());
+            assertNull(loaded.getCondensation());
+
+            assertEquals(4, mapped.getN());
+            assertEquals(4, mapped.getEdgeCount());
+            for (int v = 0; v < 4; v++) {
+                assertEquals(graph.getOutDegree(v), mapped.getOutDegree(v));
+                for (int i = 0; i < graph.getOutDegree(v); i++) {
+                    assertEquals(graph.getTarget(v, i), mapped.getTarget(v, i));
+                    assertEquals(graph.getWeight(v, i), mapped.getWeight(v, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConverter_StoresSCCAndCondensation() throws IOException {
+        List<GraphData> graphs = InputReader.loadAllGraphs("data/input_sparse.json");
+        int written = BinaryGraphConverter.convert("data/input_sparse.json", tempDir, true);
+        assertEquals(graphs.size(), written);
+
+        for (GraphData gd : graphs) {
+            Path file = tempDir.resolve("input_sparse-" + gd.getId() + ".agr");
+            assertTrue(Files.exists(file));
+
+            try (BinaryGraphFile loaded = BinaryGraphFile.open(file)) {
+                SCCResult expected = new TarjanSCC().findSCC(gd.getGraph());
+                SCCResult stored = loaded.getSCCResult();
+                assertEquals(expected.getNumComponents(), stored.getNumComponents());
+                assertArrayEquals(expected.getComponentId(), stored.getComponentId());
+
+                // Algorithms run directly on the mapped graph
+                SCCResult fromMapped = new TarjanSCC().findSCC(loaded.getGraph());
+                assertArrayEquals(expected.getComponentId(), fromMapped.getComponentId());
+
+                DirectedGraph dag = new CondensationGraph(gd.getGraph(), expected).getCondensation();
+                Graph mappedDag = loaded.getCondensation();
+                assertEquals(dag.getN(), mappedDag.getN());
+                assertEquals(dag.getEdgeCount(), mappedDag.getEdgeCount());
+                assertTrue(new KahnTopologicalSort().sort(mappedDag).isDAG());
+            }
+        }
+    }
+
+    @Test
+    public void testOpen_RejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("bad.agr");
+        Files.write(file, new byte[256]);
+        assertThrows(IOException.class, () -> BinaryGraphFile.open(file));
+    }
+}
@@ -0,0 +1,76 @@
+package com.aitu;
+
+import com.aitu.core.CompactCsrGraph;
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.FloatPathResult;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactCsrGraphTest {
+
+    @Test
+    public void testCopy_KeepsEdgesWithFloatWeights() {
+        for (int n : new int[]{300, CompactCsrGraph.MAX_NARROW_VERTICES + 1000}) {
+            DirectedGraph graph = new DirectedGraph(n);
+            Random rand = new Random(n);
+            for (int e = 0; e < 3 * n; e++) {
+                graph.addEdge(rand.nextInt(n), rand.nextInt(n), rand.nextInt(1000) / 10.0);
+            }
+            CompactCsrGraph compact = CompactCsrGraph.copyOf(graph);
+            assertEquals(n <= CompactCsrGraph.MAX_NARROW_VERTICES, compact.hasNarrowTargets());
+            assertEquals(graph.getEdgeCount(), compact.getEdgeCount());
+            for (int v = 0; v < n; v++) {
+                assertEquals(graph.getOutDegree(v), compact.getOutDegree(v));
+                for (int i = 0; i < graph.getOutDegree(v); i++) {
+                    assertEquals(graph.getTarget(v, i), compact.getTarget(v, i));
+                    assertEquals((float) graph.getWeight(v, i), compact.getFloatWeight(v, i));
+                    assertEquals(graph.getWeight(v, i), compact.getWeight(v, i), 1e-5);
+                }
+            }
+            assertArrayEquals(graph.getInDegrees(), compact.getInDegrees());
+        }
+
+        // Targets up to the last narrow id survive the 16-bit round trip
+        DirectedGraph edge = new DirectedGraph(CompactCsrGraph.MAX_NARROW_VERTICES);
+        edge.addEdge(0, CompactCsrGraph.MAX_NARROW_VERTICES - 1, 1.0);
+        CompactCsrGraph narrow = CompactCsrGraph.copyOf(edge);
+        assertTrue(narrow.hasNarrowTargets());
+        assertEquals(CompactCsrGraph.MAX_NARROW_VERTICES - 1, narrow.getTarget(0, 0));
+        assertEquals(4L * (CompactCsrGraph.MAX_NARROW_VERTICES + 1) + 6, narrow.getMemoryBytes());
+    }
+
+    @Test
+    public void testFloatPaths_MatchDoublePaths() {
+        for (String variant : GraphFamilies.VARIANTS) {
+            DirectedGraph graph = new GraphFamilies(5).generate(400, variant, 2);
+            CompactCsrGraph compact = CompactCsrGraph.copyOf(graph);
+            PathResult shortest = new DAGShortestPath().computeShortestPaths(graph, 0);
+            FloatPathResult floatShortest = new DAGShortestPath().computeShortestPaths(compact, 0);
+            assertEquals(shortest == null, floatShortest == null);
+            if (shortest == null) continue;
+
+            PathResult longest = new DAGLongestPath().computeLongestPaths(graph, 0);
+            FloatPathResult floatLongest = new DAGLongestPath().computeLongestPaths(compact, 0);
+            for (int v = 0; v < graph.getN(); v++) {
+                assertEquals(shortest.getDistances()[v], floatShortest.getDistances()[v], 1e-3);
+                assertEquals(longest.getDistances()[v], floatLongest.getDistances()[v], 1e-3);
+                assertEquals(shortest.getPath(v) == null, floatShortest.getPath(v) == null);
+            }
+            assertArrayEquals(floatLongest.getParent(), floatLongest.toPathResult().getParent());
+        }
+
+        // A cycle is rejected like the double engines do
+        DirectedGraph cycle = new DirectedGraph(2);
+        cycle.addEdge(0, 1, 1.0);
+        cycle.addEdge(1, 0, 1.0);
+        assertNull(new DAGShortestPath().computeShortestPaths(CompactCsrGraph.copyOf(cycle), 0));
+        assertNull(new DAGLongestPath().computeLongestPaths(CompactCsrGraph.copyOf(cycle), 0));
+    }
+}
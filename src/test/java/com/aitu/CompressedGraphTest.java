@@ -0,0 +1,100 @@
+package com.aitu;
+
+import com.aitu.core.CompressedGraph;
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.graph.topo.TopologicalSortResult;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedGraphTest {
+
+    @Test
+    public void testCompression_KeepsSortedAdjacency() {
+        int n = 5000;
+        DirectedGraph graph = new DirectedGraph(n);
+        Random rand = new Random(4);
+        for (int e = 0; e < 8 * n; e++) {
+            int u = rand.nextInt(n);
+            // Mostly nearby targets, some far ones in both directions
+            int v = rand.nextInt(4) == 0 ? rand.nextInt(n) : Math.floorMod(u + rand.nextInt(40) - 20, n);
+            graph.addEdge(u, v, (10 + rand.nextInt(2000)) / 10.0);
+        }
+        // A hub spanning many blocks, with parallel edges and an edge to the last vertex
+        for (int i = 0; i < 300; i++) graph.addEdge(7, rand.nextInt(n), (10 + rand.nextInt(91)) / 10.0);
+        graph.addEdge(7, 7, 1.0);
+        graph.addEdge(7, 7, 0.5);
+        graph.addEdge(0, n - 1, 1.0);
+
+        CompressedGraph compressed = CompressedGraph.copyOf(graph);
+        assertEquals(graph.getEdgeCount(), compressed.getEdgeCount());
+        List<long[]> decoded = new ArrayList<>();
+        compressed.forEachEdge((from, to, weight) -> decoded.add(new long[]{from, to, Double.doubleToLongBits(weight)}));
+        int e = 0;
+        for (int v = 0; v < n; v++) {
+            List<double[]> expected = new ArrayList<>();
+            for (int i = 0; i < graph.getOutDegree(v); i++) {
+                expected.add(new double[]{graph.getTarget(v, i), graph.getWeight(v, i)});
+            }
+            expected.sort((a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+            assertEquals(expected.size(), compressed.getOutDegree(v));
+            int[] targets = new int[expected.size()];
+            assertEquals(expected.size(), compressed.getTargets(v, targets));
+            for (int i = 0; i < expected.size(); i++, e++) {
+                assertEquals((int) expected.get(i)[0], compressed.getTarget(v, i));
+                assertEquals((int) expected.get(i)[0], targets[i]);
+                assertEquals(expected.get(i)[1], compressed.getWeight(v, i));
+                assertArrayEquals(new long[]{v, (long) expected.get(i)[0], Double.doubleToLongBits(expected.get(i)[1])},
+                        decoded.get(e));
+            }
+        }
+        assertArrayEquals(graph.getInDegrees(), compressed.getInDegrees());
+        assertTrue(compressed.getMemoryBytes() < 5L * graph.getEdgeCount());
+
+        // Other resolutions; weights that do not fit are rejected
+        DirectedGraph halves = new DirectedGraph(2);
+        halves.addEdge(0, 1, 2.5);
+        halves.addEdge(0, 0, 1000.0);
+        CompressedGraph coarse = CompressedGraph.copyOf(halves, 0.5);
+        assertEquals(1000.0, coarse.getWeight(0, 0));
+        assertEquals(2.5, coarse.getWeight(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> CompressedGraph.copyOf(graph, 1.0));
+        DirectedGraph negative = new DirectedGraph(2);
+        negative.addEdge(0, 1, -1.0);
+        assertThrows(IllegalArgumentException.class, () -> CompressedGraph.copyOf(negative));
+    }
+
+    @Test
+    public void testAlgorithms_RunOnCompressedGraph() {
+        for (String variant : GraphFamilies.VARIANTS) {
+            DirectedGraph graph = new GraphFamilies(9).generate(500, variant, 3);
+            CompressedGraph compressed = CompressedGraph.copyOf(graph);
+
+            SCCResult expected = new TarjanSCC().findSCC(graph);
+            SCCResult scc = new TarjanSCC().findSCC(compressed);
+            assertEquals(expected.getNumComponents(), scc.getNumComponents());
+            for (int v = 0; v < graph.getN(); v++) {
+                for (int u = 0; u < v; u++) {
+                    assertEquals(expected.getComponentId()[u] == expected.getComponentId()[v],
+                            scc.getComponentId()[u] == scc.getComponentId()[v]);
+                }
+            }
+
+            TopologicalSortResult topo = new KahnTopologicalSort().sort(compressed);
+            assertEquals(variant.equals("pure_dag"), topo.isDAG());
+            if (topo.isDAG()) {
+                int[] position = new int[graph.getN()];
+                for (int i = 0; i < graph.getN(); i++) position[topo.getOrder().get(i)] = i;
+                graph.forEachEdge((from, to, weight) -> assertTrue(position[from] < position[to]));
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.aitu;
+
+import com.aitu.core.ConcurrentGraph;
+import com.aitu.core.Graph;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentGraphTest {
+
+    @Test
+    public void testSnapshots_StayFixedWhileAppendsContinue() {
+        ConcurrentGraph graph = new ConcurrentGraph(5);
+        graph.addEdge(0, 1, 1.0);
+        graph.addEdge(0, 2, 2.0);
+        ConcurrentGraph.Snapshot before = graph.snapshot();
+        for (int i = 0; i < 100; i++) graph.addEdge(0, 3 + i % 2, i);
+        ConcurrentGraph.Snapshot after = graph.snapshot();
+
+        assertEquals(2, before.getEdgeCount());
+        assertEquals(2, before.getOutDegree(0));
+        assertEquals(102, after.getOutDegree(0));
+        // Edges keep their append order across chunk boundaries
+        assertEquals(2, after.getTarget(0, 1));
+        assertEquals(4, after.getTarget(0, 101));
+        assertEquals(99.0, after.getWeight(0, 101));
+        assertThrows(IllegalArgumentException.class, () -> graph.addEdge(0, 5, 1.0));
+    }
+
+    @Test
+    public void testConcurrentAppends_QueriesSeeConsistentPrefixes() throws Exception {
+        int n = 2000;
+        int writers = 4;
+        int perWriter = 20_000;
+        ConcurrentGraph graph = new ConcurrentGraph(n);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = new ArrayList<>();
+
+        // Every writer appends forward edges only, so every snapshot must be a DAG
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            long seed = w;
+            threads.add(new Thread(() -> {
+                Random rand = new Random(seed);
+                for (int e = 0; e < perWriter; e++) {
+                    int u = rand.nextInt(n - 1);
+                    graph.addEdge(u, u + 1 + rand.nextInt(n - 1 - u), seed);
+                }
+            }));
+        }
+        Thread reader = new Thread(() -> {
+            try {
+                ConcurrentGraph.Snapshot previous = graph.snapshot();
+                while (!done.get()) {
+                    ConcurrentGraph.Snapshot current = graph.snapshot();
+                    assertTrue(new KahnTopologicalSort().sort(current).isDAG());
+                    assertEquals(n, new TarjanSCC().findSCC(current).getNumComponents());
+                    assertExtends(previous, current);
+                    previous = current;
+                }
+            } catch (Throwable t) {
+                synchronized (failures) {
+                    failures.add(t);
+                }
+            }
+        });
+        reader.start();
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+        done.set(true);
+        reader.join();
+        assertTrue(failures.isEmpty(), () -> failures.get(0).toString());
+
+        // Once the writers are done, every edge is visible
+        ConcurrentGraph.Snapshot last = graph.snapshot();
+        assertEquals(writers * perWriter, last.getEdgeCount());
+        int[] perSource = new int[writers];
+        last.forEachEdge((from, to, weight) -> {
+            assertTrue(from < to);
+            perSource[(int) weight]++;
+        });
+        for (int count : perSource) assertEquals(perWriter, count);
+    }
+
+    @Test
+    public void testSnapshots_AreConsistentCuts() throws Exception {
+        int n = 64;
+        int writers = 3;
+        int perWriter = 50_000;
+        ConcurrentGraph graph = new ConcurrentGraph(n);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = new ArrayList<>();
+
+        // Each writer's appends happen one after another, on random vertices; weight = writer, then sequence
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                Random rand = new Random(writer);
+                for (int e = 0; e < perWriter; e++) {
+                    graph.addEdge(rand.nextInt(n), rand.nextInt(n), writer * 1_000_000 + e);
+                }
+            }));
+        }
+        Thread reader = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    // A cut that holds a writer's k-th append holds all of its earlier ones
+                    int[] count = new int[writers];
+                    int[] max = new int[writers];
+                    Arrays.fill(max, -1);
+                    graph.snapshot().forEachEdge((from, to, weight) -> {
+                        int writer = (int) weight / 1_000_000;
+                        count[writer]++;
+                        max[writer] = Math.max(max[writer], (int) weight % 1_000_000);
+                    });
+                    for (int w = 0; w < writers; w++) assertEquals(max[w] + 1, count[w]);
+                }
+            } catch (Throwable t) {
+                synchronized (failures) {
+                    failures.add(t);
+                }
+            }
+        });
+        reader.start();
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+        done.set(true);
+        reader.join();
+        assertTrue(failures.isEmpty(), () -> failures.get(0).toString());
+        assertEquals(writers * perWriter, graph.snapshot().getEdgeCount());
+    }
+
+    /**
+     * A later snapshot keeps every edge of an earlier one at the same position.
+     */
+    private static void assertExtends(Graph earlier, Graph later) {
+        assertTrue(later.getEdgeCount() >= earlier.getEdgeCount());
+        for (int v = 0; v < earlier.getN(); v++) {
+            assertTrue(later.getOutDegree(v) >= earlier.getOutDegree(v));
+            for (int i = 0; i < earlier.getOutDegree(v); i++) {
+                assertEquals(earlier.getTarget(v, i), later.getTarget(v, i));
+                assertEquals(earlier.getWeight(v, i), later.getWeight(v, i));
+            }
+        }
+    }
+}
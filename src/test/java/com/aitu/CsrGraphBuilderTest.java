@@ -0,0 +1,87 @@
+package com.aitu;
+
+import com.aitu.core.CsrGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsrGraphBuilderTest {
+
+    @Test
+    public void testBuilder_MatchesFromEdgesAcrossChunks() {
+        int n = 5000;
+        int m = 200_000;
+        Random rand = new Random(21);
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] weights = new double[m];
+        for (int e = 0; e < m; e++) {
+            from[e] = rand.nextInt(n);
+            to[e] = rand.nextInt(n);
+            weights[e] = rand.nextInt(100) / 10.0;
+        }
+        CsrGraph expected = CsrGraph.fromEdges(n, from, to, weights, m);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Two array chunks with single edges in between, built in parallel
+            CsrGraph.Builder builder = new CsrGraph.Builder(n).pool(pool);
+            builder.addEdges(from, to, weights, 70_000);
+            for (int e = 70_000; e < 100_000; e++) builder.addEdge(from[e], to[e], weights[e]);
+            builder.addEdges(Arrays.copyOfRange(from, 100_000, m), Arrays.copyOfRange(to, 100_000, m),
+                    Arrays.copyOfRange(weights, 100_000, m), m - 100_000);
+            CsrGraph built = builder.build();
+            assertArrayEquals(expected.getOffsets(), built.getOffsets());
+            assertArrayEquals(expected.getTargets(), built.getTargets());
+            assertArrayEquals(expected.getWeights(), built.getWeights());
+
+            // Sorted lists; distinct keeps the first edge added to each target
+            CsrGraph sorted = new CsrGraph.Builder(n).pool(pool).addEdges(from, to, weights, m).sorted().build();
+            CsrGraph distinct = new CsrGraph.Builder(n).pool(pool).addEdges(from, to, weights, m).distinct().build();
+            for (int v = 0; v < n; v++) {
+                List<double[]> edges = new ArrayList<>();
+                for (int i = 0; i < expected.getOutDegree(v); i++) {
+                    edges.add(new double[]{expected.getTarget(v, i), expected.getWeight(v, i)});
+                }
+                edges.sort((a, b) -> Double.compare(a[0], b[0]));
+                assertEquals(edges.size(), sorted.getOutDegree(v));
+                int k = 0;
+                for (int i = 0; i < edges.size(); i++) {
+                    assertEquals((int) edges.get(i)[0], sorted.getTarget(v, i));
+                    assertEquals(edges.get(i)[1], sorted.getWeight(v, i));
+                    if (i > 0 && edges.get(i)[0] == edges.get(i - 1)[0]) continue;
+                    assertEquals((int) edges.get(i)[0], distinct.getTarget(v, k));
+                    assertEquals(edges.get(i)[1], distinct.getWeight(v, k++));
+                }
+                assertEquals(k, distinct.getOutDegree(v));
+            }
+            assertTrue(distinct.getEdgeCount() < m);
+
+            // Validation runs over every chunk, in parallel for large inputs
+            to[150_000] = n;
+            assertThrows(IllegalArgumentException.class,
+                    () -> new CsrGraph.Builder(n).pool(pool).addEdges(from, to, weights, m).build());
+            assertThrows(IllegalArgumentException.class, () -> new CsrGraph.Builder(n).addEdge(-1, 0, 1.0).build());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBuilder_EdgeCases() {
+        assertEquals(0, new CsrGraph.Builder(3).build().getEdgeCount());
+        assertEquals(0, new CsrGraph.Builder(0).distinct().build().getN());
+        CsrGraph loops = new CsrGraph.Builder(2).addEdge(1, 1, 2.0).addEdge(1, 0, 1.0).addEdge(1, 1, 3.0).distinct().build();
+        assertArrayEquals(new int[]{0, 0, 2}, loops.getOffsets());
+        assertArrayEquals(new int[]{0, 1}, loops.getTargets());
+        assertArrayEquals(new double[]{1.0, 2.0}, loops.getWeights());
+        assertThrows(IllegalArgumentException.class, () -> new CsrGraph.Builder(-1));
+        assertThrows(IllegalArgumentException.class, () -> new CsrGraph.Builder(2).addEdges(new int[1], new int[2], new double[2], 2));
+    }
+}
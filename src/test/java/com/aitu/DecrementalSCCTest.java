@@ -0,0 +1,95 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Edge;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.DecrementalSCC;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecrementalSCCTest {
+
+    @Test
+    public void testRandomRemovals_MatchRecomputation() {
+        Random rand = new Random(13);
+        for (int trial = 0; trial < 10; trial++) {
+            int n = 10 + rand.nextInt(60);
+            DirectedGraph graph = new GraphFamilies(trial).generate(n, GraphFamilies.VARIANTS[trial % 5], 1);
+            // Extra random edges so there are big components to split, including parallel edges
+            for (int e = 0; e < n * 2; e++) graph.addEdge(rand.nextInt(n), rand.nextInt(n), 1 + rand.nextInt(9));
+            DecrementalSCC dynamic = new DecrementalSCC(graph);
+            assertMatches(graph, dynamic);
+
+            while (graph.getEdgeCount() > 0) {
+                List<Edge> edges = graph.getAllEdges();
+                Edge edge = edges.get(rand.nextInt(edges.size()));
+                int before = dynamic.getNumComponents();
+                boolean split = dynamic.removeEdge(edge.getFrom(), edge.getTo());
+                assertTrue(graph.removeEdge(edge.getFrom(), edge.getTo()));
+                assertEquals(split, dynamic.getNumComponents() > before);
+                assertEquals(graph.getEdgeCount(), dynamic.getEdgeCount());
+                assertMatches(graph, dynamic);
+            }
+            assertEquals(n, dynamic.getNumComponents());
+        }
+    }
+
+    @Test
+    public void testRemoval_OnlyTouchesAffectedComponent() {
+        // A ring over 0..n-2, with a detour 10 -> n-1 -> 11 around the ring edge 10 -> 11
+        int n = 100_000;
+        DirectedGraph graph = new DirectedGraph(n);
+        for (int v = 0; v < n - 1; v++) graph.addEdge(v, (v + 1) % (n - 1), 1.0);
+        graph.addEdge(10, n - 1, 1.0);
+        graph.addEdge(n - 1, 11, 1.0);
+        DecrementalSCC dynamic = new DecrementalSCC(graph);
+        assertEquals(1, dynamic.getNumComponents());
+
+        // The searches meet on the detour without walking the ring
+        assertFalse(dynamic.removeEdge(10, 11));
+        assertEquals(1, dynamic.getNumComponents());
+        assertTrue(dynamic.getMetrics().getTotalOperations() < 20);
+
+        // Cutting the ring leaves a path: every vertex becomes its own component
+        assertTrue(dynamic.removeEdge(20, 21));
+        assertEquals(n, dynamic.getNumComponents());
+        assertEquals(n - 1, dynamic.getCondensation().getEdgeCount());
+
+        assertThrows(IllegalArgumentException.class, () -> dynamic.removeEdge(20, 21));
+        assertFalse(graph.removeEdge(5, 7));
+    }
+
+    private static void assertMatches(DirectedGraph graph, DecrementalSCC dynamic) {
+        SCCResult expected = new TarjanSCC().findSCC(graph);
+        SCCResult actual = dynamic.getSCCResult();
+        assertEquals(expected.getNumComponents(), actual.getNumComponents());
+        int[] expectedId = expected.getComponentId();
+        int[] actualId = actual.getComponentId();
+        for (int v = 0; v < graph.getN(); v++) {
+            assertTrue(actual.getComponents().get(actualId[v]).contains(v));
+            for (int u = 0; u < v; u++) {
+                assertEquals(expectedId[u] == expectedId[v], actualId[u] == actualId[v]);
+            }
+        }
+
+        // Same numbering, so the patched condensation must equal a rebuilt one edge for edge
+        DirectedGraph condensation = dynamic.getCondensation();
+        DirectedGraph reference = new CondensationGraph(graph, actual).getCondensation();
+        assertEquals(reference.getN(), condensation.getN());
+        assertEquals(reference.getEdgeCount(), condensation.getEdgeCount());
+        for (int c = 0; c < reference.getN(); c++) {
+            assertEquals(reference.getOutDegree(c), condensation.getOutDegree(c));
+            for (int i = 0; i < reference.getOutDegree(c); i++) {
+                assertEquals(reference.getTarget(c, i), condensation.getTarget(c, i));
+                assertEquals(reference.getWeight(c, i), condensation.getWeight(c, i));
+            }
+        }
+    }
+}
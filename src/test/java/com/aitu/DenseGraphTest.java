@@ -0,0 +1,169 @@
+package com.aitu;
+
+import com.aitu.core.DenseGraph;
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
+import com.aitu.graph.scc.BitsetSCC;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.utils.InputReader;
+import com.aitu.utils.InputReader.GraphData;
+import com.aitu.utils.PhaseProfiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DenseGraphTest {
+
+    @Test
+    public void testBitsetKernels_MatchListBackend() {
+        Random rand = new Random(3);
+        // Sizes around word boundaries, random and complete graphs, with and without cycles
+        for (int n : new int[]{1, 2, 63, 64, 65, 127, 128, 129, 200}) {
+            for (int kind = 0; kind < 4; kind++) {
+                DirectedGraph graph = new DirectedGraph(n);
+                for (int u = 0; u < n; u++) {
+                    for (int v = 0; v < n; v++) {
+                        boolean edge;
+                        if (kind == 0) edge = u != v;                               // complete
+                        else if (kind == 1) edge = u < v;                           // complete DAG
+                        else if (kind == 2) edge = rand.nextDouble() < 0.5;         // random, self-loops allowed
+                        else edge = u < v ? rand.nextDouble() < 0.6 : rand.nextDouble() < 0.002;
+                        if (edge) graph.addEdge(u, v, rand.nextInt(10));
+                    }
+                }
+                DenseGraph dense = new DenseGraph(graph);
+
+                assertEquals(graph.getEdgeCount(), dense.getEdgeCount());
+                graph.forEachEdge((from, to, weight) -> {
+                    assertTrue(dense.hasEdge(from, to));
+                    assertEquals(weight, dense.getEdgeWeight(from, to));
+                });
+                assertArrayEquals(graph.getInDegrees(), dense.getInDegrees());
+
+                // Edges were added in increasing target order, so the DFS is the same
+                TarjanSCC tarjan = new TarjanSCC();
+                SCCResult expected = tarjan.findSCC(graph);
+                BitsetSCC bitset = new BitsetSCC();
+                SCCResult scc = bitset.findSCC(dense);
+                assertArrayEquals(expected.getComponentId(), scc.getComponentId());
+                assertEquals(expected.getComponents(), scc.getComponents());
+                assertEquals(tarjan.getMetrics().getTotalOperations(), bitset.getMetrics().getTotalOperations());
+
+                // In another edge order the numbering may differ, but the partition and counts do not
+                SCCResult shuffledScc = tarjan.findSCC(shuffled(graph, rand));
+                assertEquals(tarjan.getMetrics().getTotalOperations(), bitset.getMetrics().getTotalOperations());
+                for (int v = 0; v < n; v++) {
+                    for (int u = 0; u < v; u++) {
+                        assertEquals(shuffledScc.getComponentId()[u] == shuffledScc.getComponentId()[v],
+                                scc.getComponentId()[u] == scc.getComponentId()[v]);
+                    }
+                }
+
+                int source = rand.nextInt(n);
+                assertEquals(reachable(graph, source), dense.reachableFrom(source));
+            }
+        }
+    }
+
+    @Test
+    public void testChooseFor_PicksBackendByDensity() throws Exception {
+        DirectedGraph sparse = new DirectedGraph(100);
+        for (int v = 0; v + 1 < 100; v++) sparse.addEdge(v, v + 1, 1.0);
+        assertSame(sparse, DenseGraph.chooseFor(sparse));
+
+        // At the threshold: n^2 / 4 edges in target order pick the matrix, one fewer does not
+        int n = DenseGraph.MIN_VERTICES;
+        DirectedGraph boundary = new DirectedGraph(n);
+        for (int e = 0; e < n * n / 4 - 1; e++) boundary.addEdge(e / n, e % n, 1.0);
+        assertSame(boundary, DenseGraph.chooseFor(boundary));
+        boundary.addEdge(n - 1, n - 1, 1.0);
+        assertInstanceOf(DenseGraph.class, DenseGraph.chooseFor(boundary));
+        // A target out of order or a parallel edge keeps the list backend
+        boundary.addEdge(n - 1, 0, 1.0);
+        assertSame(boundary, DenseGraph.chooseFor(boundary));
+        DirectedGraph parallel = new DirectedGraph(n);
+        for (int e = 0; e < n * n / 2; e++) parallel.addEdge(e / n, e % n, 1.0);
+        parallel.addEdge(n / 2 - 1, n - 1, 2.0);
+        assertSame(parallel, DenseGraph.chooseFor(parallel));
+
+        // Small graphs stay on the list backend however dense they are
+        DirectedGraph small = new DirectedGraph(4);
+        for (int u = 0; u < 4; u++) {
+            for (int v = 0; v < 4; v++) small.addEdge(u, v, 1.0);
+        }
+        assertSame(small, DenseGraph.chooseFor(small));
+        for (String file : new String[]{"data/input_sparse.json", "data/input_dense.json"}) {
+            for (GraphData gd : InputReader.loadAllGraphs(file)) {
+                assertSame(gd.getGraph(), DenseGraph.chooseFor(gd.getGraph()));
+            }
+        }
+    }
+
+    @Test
+    public void testAnalysis_PicksDenseBackendWithSameResults() {
+        Random rand = new Random(11);
+        int n = 150;
+        DirectedGraph graph = new DirectedGraph(n);
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                // Mostly forward edges, so there are several components
+                if (u < v ? rand.nextDouble() < 0.8 : rand.nextDouble() < 0.01) graph.addEdge(u, v, rand.nextInt(10) + 1);
+            }
+        }
+        GraphData gd = new GraphData(1, graph, 0, "dense", "mixed");
+        assertInstanceOf(DenseGraph.class, gd.getAnalysisGraph());
+        assertNotSame(gd.getAnalysisGraph(), gd.getAnalysisGraph()); // not kept alongside the list
+
+        Main.GraphResults results = Main.analyzeGraph(gd, new PhaseProfiler(), false);
+        TarjanSCC tarjan = new TarjanSCC();
+        SCCResult expected = tarjan.findSCC(graph);
+        assertTrue(expected.getNumComponents() > 1);
+        assertArrayEquals(expected.getComponentId(), results.sccResult.getComponentId());
+        assertEquals(expected.getComponents(), results.sccResult.getComponents());
+        assertEquals(tarjan.getMetrics().getTotalOperations(), results.tarjanMetrics.getTotalOperations());
+
+        // Loaded in another order, the same graph stays on the list backend
+        DirectedGraph reordered = shuffled(graph, rand);
+        assertSame(reordered, new GraphData(1, reordered, 0, "dense", "mixed").getAnalysisGraph());
+    }
+
+    /**
+     * Copy of graph with each vertex's edges added in random order.
+     */
+    private static DirectedGraph shuffled(Graph graph, Random rand) {
+        DirectedGraph copy = new DirectedGraph(graph.getN());
+        for (int v = 0; v < graph.getN(); v++) {
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < graph.getOutDegree(v); i++) order.add(i);
+            Collections.shuffle(order, rand);
+            for (int i : order) copy.addEdge(v, graph.getTarget(v, i), graph.getWeight(v, i));
+        }
+        return copy;
+    }
+
+    private static BitSet reachable(Graph graph, int source) {
+        BitSet seen = new BitSet();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        seen.set(source);
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            for (int i = 0; i < graph.getOutDegree(v); i++) {
+                int w = graph.getTarget(v, i);
+                if (!seen.get(w)) {
+                    seen.set(w);
+                    queue.add(w);
+                }
+            }
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,108 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.topo.DynamicDAG;
+import com.aitu.graph.topo.TopologicalSortResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicDAGTest {
+
+    @Test
+    public void testRandomInsertions_KeepValidOrderAndRejectCycles() {
+        Random rand = new Random(4);
+        for (int trial = 0; trial < 10; trial++) {
+            int n = 10 + rand.nextInt(50);
+            DynamicDAG dag = new DynamicDAG(n);
+            DirectedGraph reference = new DirectedGraph(n);
+            int rejected = 0;
+            for (int e = 0; e < n * 4; e++) {
+                int u = rand.nextInt(n);
+                int v = rand.nextInt(n);
+                double w = 1 + rand.nextInt(5);
+                boolean closesCycle = reaches(reference, v, u);
+                assertEquals(!closesCycle, dag.addEdge(u, v, w));
+                if (closesCycle) {
+                    rejected++;
+                    List<Integer> witness = dag.getLastRejectedCycle();
+                    assertEquals(v, (int) witness.get(0));
+                    assertEquals(u, (int) witness.get(witness.size() - 1));
+                    for (int i = 0; i + 1 < witness.size(); i++) {
+                        assertTrue(hasEdge(reference, witness.get(i), witness.get(i + 1)));
+                    }
+                } else {
+                    reference.addEdge(u, v, w);
+                    assertNull(dag.getLastRejectedCycle());
+                }
+                dag.forEachEdge((from, to, weight) -> assertTrue(dag.getPosition(from) < dag.getPosition(to)));
+            }
+            assertTrue(rejected > 0);
+            assertEquals(reference.getEdgeCount(), dag.getEdgeCount());
+
+            // The path engines accept the maintained order and give the same distances
+            TopologicalSortResult order = dag.getTopologicalOrder();
+            PathResult expected = new DAGShortestPath().computeShortestPaths(reference, 0);
+            PathResult actual = new DAGShortestPath().computeShortestPaths(dag, 0, order);
+            assertArrayEquals(expected.getDistances(), actual.getDistances());
+            assertArrayEquals(new DAGLongestPath().computeLongestPaths(reference, 0).getDistances(),
+                    new DAGLongestPath().computeLongestPaths(dag, 0, order).getDistances());
+            CriticalPathResult critical = new DAGLongestPath().findCriticalPath(dag, order);
+            assertEquals(new DAGLongestPath().findCriticalPath(reference).getLength(), critical.getLength());
+        }
+    }
+
+    @Test
+    public void testInsertion_OnlyReordersAffectedRegion() {
+        int n = 100_000;
+        DynamicDAG dag = new DynamicDAG(n);
+        for (int v = 0; v + 1 < n; v += 2) assertTrue(dag.addEdge(v, v + 1, 1.0));
+        assertEquals(0, dag.getLastAffected());
+
+        // 13 -> 10 goes against the order: only the chains 10 -> 11 and 12 -> 13 are reordered
+        assertTrue(dag.addEdge(13, 10, 1.0));
+        assertEquals(4, dag.getLastAffected());
+        assertTrue(dag.getPosition(13) < dag.getPosition(10));
+
+        // 11 -> 12 would close 12 -> 13 -> 10 -> 11 -> 12
+        assertFalse(dag.addEdge(11, 12, 1.0));
+        assertEquals(List.of(12, 13, 10, 11), dag.getLastRejectedCycle());
+        assertFalse(dag.addEdge(5, 5, 1.0));
+        assertEquals(List.of(5), dag.getLastRejectedCycle());
+    }
+
+    private static boolean reaches(DirectedGraph graph, int from, int to) {
+        boolean[] seen = new boolean[graph.getN()];
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(from);
+        seen[from] = true;
+        while (!stack.isEmpty()) {
+            int x = stack.pop();
+            if (x == to) return true;
+            for (int i = 0; i < graph.getOutDegree(x); i++) {
+                int y = graph.getTarget(x, i);
+                if (!seen[y]) {
+                    seen[y] = true;
+                    stack.push(y);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasEdge(DirectedGraph graph, int u, int v) {
+        for (int i = 0; i < graph.getOutDegree(u); i++) {
+            if (graph.getTarget(u, i) == v) return true;
+        }
+        return false;
+    }
+}
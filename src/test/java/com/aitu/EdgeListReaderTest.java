@@ -0,0 +1,125 @@
+package com.aitu;
+
+import com.aitu.core.CsrGraph;
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
+import com.aitu.utils.EdgeListReader;
+import com.aitu.utils.EdgeListReader.Format;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EdgeListReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Fixed parallelism and tiny chunks so chunk splitting and the parallel build run on any machine
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testEdgeList_CommentsSeparatorsAndDefaultWeight() throws IOException {
+        String text = "# SNAP style comment\r\n"
+                + "from,to,weight\n"
+                + "0 1 2.5\n"
+                + "0\t2\n"
+                + "% another comment\n"
+                + "2,3,-1.25e1\r\n"
+                + "3;0;7\n"
+                + "\n"
+                + "1 3 0.1";
+        Path file = tempDir.resolve("g.txt");
+        Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+
+        DirectedGraph expected = new DirectedGraph(4);
+        expected.addEdge(0, 1, 2.5);
+        expected.addEdge(0, 2, 1.0);
+        expected.addEdge(2, 3, -12.5);
+        expected.addEdge(3, 0, 7);
+        expected.addEdge(1, 3, 0.1);
+
+        for (int chunkSize : new int[]{1, 7, 1 << 20}) {
+            CsrGraph graph = new EdgeListReader(Format.EDGE_LIST, pool, chunkSize).read(file);
+            assertSameAdjacency(expected, graph);
+        }
+    }
+
+    @Test
+    public void testDimacs_GzipInput() throws IOException {
+        String text = "c 9th DIMACS challenge format\n"
+                + "p sp 5 3\n"
+                + "a 1 2 10\n"
+                + "a 2 5 3\n"
+                + "a 1 4 1.5\n";
+        Path file = tempDir.resolve("g.gr.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(text.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        DirectedGraph expected = new DirectedGraph(5);
+        expected.addEdge(0, 1, 10);
+        expected.addEdge(1, 4, 3);
+        expected.addEdge(0, 3, 1.5);
+
+        assertSameAdjacency(expected, EdgeListReader.read(file.toString()));
+        assertSameAdjacency(expected, new EdgeListReader(Format.DIMACS, pool, 8).read(file));
+    }
+
+    @Test
+    public void testLargeInput_ParallelBuildKeepsInputOrder() throws IOException {
+        int n = 5000;
+        int m = 200_000;
+        Random rand = new Random(7);
+        DirectedGraph expected = new DirectedGraph(n);
+        StringBuilder text = new StringBuilder();
+        for (int e = 0; e < m; e++) {
+            int u = rand.nextInt(n);
+            int v = rand.nextInt(n);
+            double w = rand.nextInt(1000) / 10.0;
+            expected.addEdge(u, v, w);
+            text.append(u).append(' ').append(v).append(' ').append(w).append('\n');
+        }
+        Path file = tempDir.resolve("large.txt");
+        Files.write(file, text.toString().getBytes(StandardCharsets.US_ASCII));
+
+        CsrGraph graph = new EdgeListReader(Format.EDGE_LIST, pool, 64 * 1024).read(file);
+        assertSameAdjacency(expected, graph);
+    }
+
+    @Test
+    public void testMalformedLine_Throws() throws IOException {
+        Path file = tempDir.resolve("bad.txt");
+        Files.write(file, "0 1 1.0\n1 x 2.0\n".getBytes(StandardCharsets.US_ASCII));
+        IOException e = assertThrows(IOException.class,
+                () -> new EdgeListReader(Format.EDGE_LIST, pool, 1 << 20).read(file));
+        assertTrue(e.getMessage().contains("byte"));
+    }
+
+    private static void assertSameAdjacency(Graph expected, Graph actual) {
+        assertEquals(expected.getN(), actual.getN());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int v = 0; v < expected.getN(); v++) {
+            assertEquals(expected.getOutDegree(v), actual.getOutDegree(v));
+            for (int i = 0; i < expected.getOutDegree(v); i++) {
+                assertEquals(expected.getTarget(v, i), actual.getTarget(v, i));
+                assertEquals(expected.getWeight(v, i), actual.getWeight(v, i));
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.graph.topo.TopologicalSortResult;
+import com.aitu.utils.BinaryGraphFile;
+import com.aitu.utils.EdgeListReader;
+import com.aitu.utils.GraphStreamGenerator;
+import com.aitu.utils.GraphStreamGenerator.Format;
+import com.aitu.utils.InputReader;
+import com.aitu.utils.InputReader.GraphData;
+import com.aitu.utils.WorkloadParams;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphStreamGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testOutput_IndependentOfThreadCount() throws IOException {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            for (String variant : new String[]{"mixed", "many_sccs"}) {
+                Path a = tempDir.resolve(variant + "-1.txt");
+                Path b = tempDir.resolve(variant + "-4.txt");
+                new GraphStreamGenerator(5000, 3, variant, 7, single, 100).write(a, Format.EDGE_LIST, 1, "sparse");
+                new GraphStreamGenerator(5000, 3, variant, 7, parallel, 100).write(b, Format.EDGE_LIST, 1, "sparse");
+                assertArrayEquals(Files.readAllBytes(a), Files.readAllBytes(b), variant);
+            }
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    public void testFormats_RoundTripToSameGraph() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String variant : new String[]{"pure_dag", "one_cycle", "two_cycles", "mixed", "many_sccs"}) {
+                GraphStreamGenerator generator = new GraphStreamGenerator(2000, 4, variant, 11, pool, 256);
+                Path json = tempDir.resolve(variant + ".json");
+                Path edges = tempDir.resolve(variant + ".txt.gz");
+                Path binary = tempDir.resolve(variant + ".bin");
+                long m = generator.write(json, Format.JSON, 3, "dense").getEdgeCount();
+                assertEquals(m, generator.write(edges, Format.EDGE_LIST, 3, "dense").getEdgeCount());
+                assertEquals(m, generator.write(binary, Format.BINARY, 3, "dense").getEdgeCount());
+                assertTrue(m > 2000 * 3, variant + " has " + m + " edges");
+
+                List<GraphData> loaded = InputReader.loadAllGraphs(json.toString());
+                assertEquals(1, loaded.size());
+                GraphData data = loaded.get(0);
+                assertEquals(variant, data.getVariant());
+                assertEquals(generator.getSource(), data.getSource());
+                List<String> expected = edgesOf(data.getGraph());
+                assertEquals(m, expected.size());
+                assertEquals(expected.size(), new HashSet<>(expected).size(), variant + " has duplicate edges");
+
+                assertEquals(expected, edgesOf(EdgeListReader.read(edges.toString())));
+                try (BinaryGraphFile file = BinaryGraphFile.open(binary)) {
+                    assertEquals(2000, file.getGraph().getN());
+                    assertEquals(expected, edgesOf(file.getGraph()));
+                }
+
+                DirectedGraph graph = data.getGraph();
+                Set<Integer> selfLoops = new HashSet<>();
+                graph.forEachEdge((u, v, w) -> {
+                    if (u == v) selfLoops.add(u);
+                });
+                assertTrue(selfLoops.isEmpty(), variant);
+                if (variant.equals("pure_dag")) {
+                    assertTrue(new KahnTopologicalSort().sort(graph).isDAG());
+                } else if (variant.equals("one_cycle")) {
+                    assertEquals(1, new TarjanSCC().findSCC(graph).getNumComponents());
+                } else {
+                    assertFalse(new KahnTopologicalSort().sort(graph).isDAG(), variant);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWorkloadModels_HaveDescribedStructure() throws IOException {
+        int n = 3000;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // web: exactly one giant SCC, every other SCC has at most 3 vertices
+            Graph web = generate(new GraphStreamGenerator(n, 6, "web", 5, pool, 256,
+                    new WorkloadParams().setGiantFraction(0.4)));
+            SCCResult scc = new TarjanSCC().findSCC(web);
+            int giant = 0;
+            for (List<Integer> component : scc.getComponents()) {
+                if (component.size() > 3) {
+                    assertEquals(1200, component.size());
+                    giant++;
+                }
+            }
+            assertEquals(1, giant);
+
+            // build_dag: a DAG whose longest chain crosses every layer
+            Graph build = generate(new GraphStreamGenerator(n, 5, "build_dag", 5, pool, 256,
+                    new WorkloadParams().setLayers(100).setSpan(3)));
+            assertEquals(100, longestChain(build));
+
+            // deep_chain: a DAG through all vertices, or one SCC once back edges are allowed
+            assertEquals(n, longestChain(generate(new GraphStreamGenerator(n, 4, "deep_chain", 5, pool, 256))));
+            Graph cyclic = generate(new GraphStreamGenerator(n, 4, "deep_chain", 5, pool, 256,
+                    new WorkloadParams().setBackFraction(0.3)));
+            assertEquals(1, new TarjanSCC().findSCC(cyclic).getNumComponents());
+
+            // power_law: the top hub collects far more edges than an average vertex
+            GraphStreamGenerator generator = new GraphStreamGenerator(n, 8, "power_law", 5, pool, 256);
+            Graph powerLaw = generate(generator);
+            int[] inDegrees = powerLaw.getInDegrees();
+            assertTrue(inDegrees[generator.getSource()] > 50 * 8, "hub in-degree " + inDegrees[generator.getSource()]);
+            assertTrue(powerLaw.getOutDegree(generator.getSource()) > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Graph generate(GraphStreamGenerator generator) throws IOException {
+        Path file = Files.createTempFile(tempDir, "model", ".json");
+        GraphStreamGenerator.Summary summary = generator.write(file, Format.JSON, 1, "sparse");
+        DirectedGraph graph = InputReader.loadAllGraphs(file.toString()).get(0).getGraph();
+        assertEquals(summary.getEdgeCount(), graph.getEdgeCount());
+        return graph;
+    }
+
+    /**
+     * Vertices on the longest path of a DAG, counting edges rather than weights.
+     */
+    private static int longestChain(Graph dag) {
+        TopologicalSortResult topo = new KahnTopologicalSort().sort(dag);
+        assertTrue(topo.isDAG());
+        int[] depth = new int[dag.getN()];
+        int longest = 0;
+        for (int u : topo.getOrder()) {
+            depth[u] = Math.max(depth[u], 1);
+            longest = Math.max(longest, depth[u]);
+            for (int i = 0; i < dag.getOutDegree(u); i++) {
+                int v = dag.getTarget(u, i);
+                depth[v] = Math.max(depth[v], depth[u] + 1);
+            }
+        }
+        return longest;
+    }
+
+    private static List<String> edgesOf(Graph graph) {
+        List<String> edges = new ArrayList<>();
+        for (int u = 0; u < graph.getN(); u++) {
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                edges.add(u + " " + graph.getTarget(u, i) + " " + graph.getWeight(u, i));
+            }
+        }
+        return edges;
+    }
+}
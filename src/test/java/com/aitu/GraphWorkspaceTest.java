@@ -0,0 +1,95 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.utils.GraphFamilies;
+import com.aitu.utils.GraphWorkspace;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphWorkspaceTest {
+
+    @Test
+    public void testMarks_ClearedBetweenUses() {
+        GraphWorkspace workspace = new GraphWorkspace();
+        GraphWorkspace.Marks marks = workspace.marks(GraphWorkspace.Slot.PATH_REACHED, 10);
+        marks.add(3);
+        assertTrue(marks.contains(3));
+        marks = workspace.marks(GraphWorkspace.Slot.PATH_REACHED, 20);
+        assertFalse(marks.contains(3));
+        marks.add(15);
+        marks.remove(15);
+        assertFalse(marks.contains(15));
+    }
+
+    @Test
+    public void testReusedWorkspace_MatchesFreshOne() {
+        GraphWorkspace shared = new GraphWorkspace();
+        for (String variant : GraphFamilies.VARIANTS) {
+            // Shrinking sizes leave stale data behind in the shared buffers
+            for (int n : new int[]{400, 50, 200}) {
+                DirectedGraph graph = new GraphFamilies(n).generate(n, variant, 2);
+                SCCResult expected = new TarjanSCC().findSCC(graph, new GraphWorkspace());
+                SCCResult actual = new TarjanSCC().findSCC(graph, shared);
+                assertArrayEquals(expected.getComponentId(), actual.getComponentId());
+                assertEquals(expected.getComponents(), actual.getComponents());
+            }
+        }
+        assertTrue(shared.getRetainedBytes() > 0);
+    }
+
+    @Test
+    public void testTarjan_DeepChainDoesNotOverflowStack() {
+        int n = 200_000;
+        DirectedGraph chain = new DirectedGraph(n);
+        for (int v = 0; v + 1 < n; v++) chain.addEdge(v, v + 1, 1.0);
+        chain.addEdge(n - 1, 0, 1.0);
+
+        SCCResult result = new TarjanSCC().findSCC(chain);
+        assertEquals(1, result.getNumComponents());
+    }
+
+    @Test
+    public void testCriticalPath_MatchesPerSourceLongestPaths() {
+        Random rand = new Random(3);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 5 + rand.nextInt(40);
+            DirectedGraph dag = new DirectedGraph(n);
+            for (int e = 0; e < n * 2; e++) {
+                int u = rand.nextInt(n);
+                int v = rand.nextInt(n);
+                // Small integer weights produce ties
+                if (u < v) dag.addEdge(u, v, 1 + rand.nextInt(3));
+            }
+            assertTrue(new KahnTopologicalSort().sort(dag).isDAG());
+
+            // Reference: run the single-source algorithm from every vertex
+            DAGLongestPath reference = new DAGLongestPath();
+            double maxLength = Double.NEGATIVE_INFINITY;
+            int endVertex = -1;
+            PathResult best = null;
+            for (int s = 0; s < n; s++) {
+                PathResult r = reference.computeLongestPaths(dag, s);
+                for (int v = 0; v < n; v++) {
+                    if (r.getDistances()[v] > maxLength) {
+                        maxLength = r.getDistances()[v];
+                        endVertex = v;
+                        best = r;
+                    }
+                }
+            }
+
+            CriticalPathResult result = new DAGLongestPath().findCriticalPath(dag);
+            assertEquals(maxLength, result.getLength());
+            assertEquals(best.getPath(endVertex), result.getCriticalPath());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.IncrementalSCC;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalSCCTest {
+
+    @Test
+    public void testRandomInsertions_MatchRecomputation() {
+        Random rand = new Random(9);
+        for (int trial = 0; trial < 10; trial++) {
+            int n = 10 + rand.nextInt(60);
+            // Half the trials start from a generated graph instead of isolated vertices
+            DirectedGraph graph = trial % 2 == 0 ? new DirectedGraph(n)
+                    : new GraphFamilies(trial).generate(n, GraphFamilies.VARIANTS[trial % 5], 1);
+            IncrementalSCC dynamic = trial % 2 == 0 ? new IncrementalSCC(n) : new IncrementalSCC(graph);
+            assertMatches(graph, dynamic);
+
+            for (int e = 0; e < n * 3; e++) {
+                int u = rand.nextInt(n);
+                int v = rand.nextInt(n);
+                double w = 1 + rand.nextInt(9);
+                int before = dynamic.getNumComponents();
+                boolean merged = dynamic.addEdge(u, v, w);
+                graph.addEdge(u, v, w);
+                assertEquals(merged, dynamic.getNumComponents() < before);
+                assertMatches(graph, dynamic);
+            }
+        }
+    }
+
+    @Test
+    public void testInsertion_OnlyTouchesAffectedRegion() {
+        int n = 100_000;
+        IncrementalSCC dynamic = new IncrementalSCC(n);
+        for (int v = 0; v + 1 < n; v++) assertFalse(dynamic.addEdge(v, v + 1, 1.0));
+        assertEquals(0, dynamic.getMetrics().getTotalOperations());
+
+        // Closing a short cycle near the end only searches the vertices on it
+        assertTrue(dynamic.addEdge(n - 1, n - 3, 1.0));
+        assertEquals(n - 2, dynamic.getNumComponents());
+        assertEquals(3, dynamic.getComponentSize(n - 2));
+        assertTrue(dynamic.getMetrics().getTotalOperations() < 20);
+
+        // Closing the whole chain merges everything
+        assertTrue(dynamic.addEdge(n - 3, 0, 1.0));
+        assertEquals(1, dynamic.getNumComponents());
+        assertEquals(0, dynamic.getCondensation().getEdgeCount());
+    }
+
+    private static void assertMatches(DirectedGraph graph, IncrementalSCC dynamic) {
+        SCCResult expected = new TarjanSCC().findSCC(graph);
+        SCCResult actual = dynamic.getSCCResult();
+        assertEquals(expected.getNumComponents(), actual.getNumComponents());
+        int[] expectedId = expected.getComponentId();
+        int[] actualId = actual.getComponentId();
+        for (int v = 0; v < graph.getN(); v++) {
+            assertEquals(dynamic.find(v), dynamic.find(actual.getComponents().get(actualId[v]).get(0)));
+            for (int u = 0; u < v; u++) {
+                assertEquals(expectedId[u] == expectedId[v], actualId[u] == actualId[v]);
+            }
+        }
+
+        // Same condensation edges and weights; components are numbered in topological order
+        DirectedGraph condensation = dynamic.getCondensation();
+        DirectedGraph reference = new CondensationGraph(graph, expected).getCondensation();
+        assertEquals(reference.getEdgeCount(), condensation.getEdgeCount());
+        assertEquals(edgesByMember(reference, expected), edgesByMember(condensation, actual));
+        condensation.forEachEdge((from, to, weight) -> assertTrue(from < to));
+    }
+
+    /**
+     * Condensation edges keyed by the smallest vertex of each component, so numberings can differ.
+     */
+    private static Set<String> edgesByMember(DirectedGraph condensation, SCCResult scc) {
+        List<List<Integer>> components = scc.getComponents();
+        Set<String> edges = new HashSet<>();
+        condensation.forEachEdge((from, to, weight) -> edges.add(
+                min(components.get(from)) + ">" + min(components.get(to)) + ":" + weight));
+        return edges;
+    }
+
+    private static int min(List<Integer> members) {
+        int m = Integer.MAX_VALUE;
+        for (int v : members) m = Math.min(m, v);
+        return m;
+    }
+}
@@ -0,0 +1,100 @@
+package com.aitu;
+
+import com.aitu.core.Edge;
+import com.aitu.utils.InputReader;
+import com.aitu.utils.InputReader.GraphData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String write(String json) throws IOException {
+        Path file = tempDir.resolve("graphs.json");
+        Files.writeString(file, json);
+        return file.toString();
+    }
+
+    @Test
+    public void testStreamGraphs_MatchesLoadAllGraphs() throws IOException {
+        List<GraphData> all = InputReader.loadAllGraphs("data/input_sparse.json");
+
+        try (Stream<GraphData> stream = InputReader.streamGraphs("data/input_sparse.json")) {
+            List<GraphData> streamed = stream.collect(Collectors.toList());
+            assertEquals(all.size(), streamed.size(), "Both readers should see every graph");
+
+            for (int i = 0; i < all.size(); i++) {
+                GraphData a = all.get(i);
+                GraphData b = streamed.get(i);
+                assertEquals(a.getId(), b.getId());
+                assertEquals(a.getSource(), b.getSource());
+                assertEquals(a.getVariant(), b.getVariant());
+                assertEquals(a.getGraph().getN(), b.getGraph().getN());
+
+                List<Edge> ea = a.getGraph().getAllEdges();
+                List<Edge> eb = b.getGraph().getAllEdges();
+                assertEquals(ea.size(), eb.size(), "Edge counts should match");
+                for (int k = 0; k < ea.size(); k++) {
+                    assertEquals(ea.get(k).getFrom(), eb.get(k).getFrom());
+                    assertEquals(ea.get(k).getTo(), eb.get(k).getTo());
+                    assertEquals(ea.get(k).getWeight(), eb.get(k).getWeight());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIterateGraphs_LazyAndOrderIndependent() throws IOException {
+        String path = write("{\"meta\": {\"x\": [1, 2]}, \"graphs\": ["
+                + "{\"edges\": [{\"u\": 0, \"v\": 1, \"w\": 2.5}, {\"u\": 1, \"v\": 2, \"w\": 1.0}], \"n\": 3, \"id\": 7},"
+                + "{\"id\": 8, \"n\": 2, \"source\": 1, \"edges\": [{\"w\": 4.0, \"v\": 0, \"u\": 1}]}"
+                + "]}");
+
+        try (InputReader.GraphIterator graphs = InputReader.iterateGraphs(path)) {
+            assertTrue(graphs.hasNext());
+            GraphData first = graphs.next();
+            assertEquals(7, first.getId());
+            assertEquals(3, first.getGraph().getN());
+            assertEquals(2, first.getGraph().getAllEdges().size(), "Edges before 'n' should be buffered");
+            assertEquals("unknown", first.getVariant());
+
+            GraphData second = graphs.next();
+            assertEquals(1, second.getSource());
+            assertEquals(1, second.getGraph().getAdjacent(1).get(0).getFrom());
+            assertEquals(4.0, second.getGraph().getAdjacent(1).get(0).getWeight());
+            assertFalse(graphs.hasNext());
+        }
+    }
+
+    @Test
+    public void testLoadAllGraphs_Validation() throws IOException {
+        String noGraphs = write("{\"other\": []}");
+        assertThrows(IOException.class, () -> InputReader.loadAllGraphs(noGraphs));
+
+        String badEdge = write("{\"graphs\": [{\"id\": 1, \"n\": 2, \"edges\": [{\"u\": 0, \"v\": 5, \"w\": 1}]}]}");
+        assertThrows(IllegalArgumentException.class, () -> InputReader.loadAllGraphs(badEdge));
+
+        String badSource = write("{\"graphs\": [{\"id\": 1, \"n\": 2, \"source\": 3, \"edges\": []}]}");
+        assertThrows(IllegalArgumentException.class, () -> InputReader.loadAllGraphs(badSource));
+
+        // Required fields are not defaulted to 0
+        String noId = write("{\"graphs\": [{\"n\": 2, \"edges\": []}]}");
+        assertThrows(IllegalArgumentException.class, () -> InputReader.loadAllGraphs(noId));
+        String noWeight = write("{\"graphs\": [{\"id\": 1, \"n\": 2, \"edges\": [{\"u\": 0, \"v\": 1}]}]}");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> InputReader.loadAllGraphs(noWeight));
+        assertEquals("Missing field 'w' in edge", e.getMessage());
+        String noTarget = write("{\"graphs\": [{\"edges\": [{\"u\": 0, \"w\": 1}], \"id\": 1, \"n\": 2}]}");
+        assertThrows(IllegalArgumentException.class, () -> InputReader.loadAllGraphs(noTarget));
+    }
+}
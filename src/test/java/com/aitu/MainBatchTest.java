@@ -0,0 +1,65 @@
+package com.aitu;
+
+import com.aitu.utils.InputReader;
+import com.aitu.utils.InputReader.GraphData;
+import com.aitu.utils.PhaseProfiler;
+import com.aitu.utils.Pipeline;
+import com.aitu.utils.ResultWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MainBatchTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testBatchMode_MatchesSequentialOrderAndResults() throws IOException {
+        String input = "data/input_dense.json";
+        Path summary = tempDir.resolve("summary.csv");
+
+        List<Pipeline.StageStats> stats;
+        try (ResultWriter writer = new ResultWriter()) {
+            for (String sink : new String[]{Main.SCC_CSV, Main.TOPO_CSV, Main.SHORT_PATH_CSV, Main.CRITICAL_PATH_CSV}) {
+                writer.addCsv(sink, tempDir.resolve(sink + ".csv").toString(), "header");
+            }
+            writer.addCsv(Main.SUMMARY_CSV, summary.toString(), "header");
+            writer.addNdjson("dense", tempDir.resolve("dense.ndjson").toString());
+            // Window smaller than the input so several largest-first windows are scheduled
+            stats = Main.processBatch(new String[][]{{input, "dense"}}, writer, 4, 3);
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (GraphData gd : InputReader.loadAllGraphs(input)) {
+            String[] row = Main.processGraph(gd, "dense", new PhaseProfiler(), false)
+                    .getRows(Main.SUMMARY_CSV).get(0);
+            expected.add(withoutTime(row));
+        }
+
+        List<String> lines = Files.readAllLines(summary);
+        assertEquals(Arrays.asList("load", "analyze", "serialize", "write"),
+                Arrays.asList(stats.stream().map(Pipeline.StageStats::getName).toArray()));
+        for (Pipeline.StageStats stage : stats) {
+            assertEquals(expected.size(), stage.getItems(), stage.getName());
+        }
+
+        assertEquals(expected.size() + 1, lines.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), withoutTime(lines.get(i + 1).split(";")));
+        }
+    }
+
+    private static String withoutTime(String[] row) {
+        // Last column is the execution time
+        return String.join(";", Arrays.copyOf(row, row.length - 1));
+    }
+}
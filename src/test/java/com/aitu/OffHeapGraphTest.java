@@ -0,0 +1,58 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.OffHeapGraph;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapGraphTest {
+
+    @Test
+    public void testCopy_RunsAlgorithmsLikeTheOriginal() {
+        for (String variant : GraphFamilies.VARIANTS) {
+            DirectedGraph graph = new GraphFamilies(11).generate(300, variant, 3);
+            try (OffHeapGraph offHeap = OffHeapGraph.copyOf(graph)) {
+                assertEquals(graph.getEdgeCount(), offHeap.getEdgeCount());
+                assertEquals(4L * (graph.getN() + 1) + 12L * graph.getEdgeCount(), offHeap.getMemoryBytes());
+                for (int v = 0; v < graph.getN(); v++) {
+                    assertEquals(graph.getOutDegree(v), offHeap.getOutDegree(v));
+                    for (int i = 0; i < graph.getOutDegree(v); i++) {
+                        assertEquals(graph.getTarget(v, i), offHeap.getTarget(v, i));
+                        assertEquals(graph.getWeight(v, i), offHeap.getWeight(v, i));
+                    }
+                }
+
+                // Same neighbour order, so results are identical, not just equivalent
+                SCCResult expected = new TarjanSCC().findSCC(graph);
+                assertArrayEquals(expected.getComponentId(), new TarjanSCC().findSCC(offHeap).getComponentId());
+                if (variant.equals("pure_dag")) {
+                    assertArrayEquals(new DAGShortestPath().computeShortestPaths(graph, 0).getDistances(),
+                            new DAGShortestPath().computeShortestPaths(offHeap, 0).getDistances());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testClose_ReleasesMemoryAndRejectsAccess() {
+        DirectedGraph graph = new DirectedGraph(3);
+        graph.addEdge(0, 1, 1.5);
+        graph.addEdge(1, 2, 2.5);
+        OffHeapGraph offHeap = OffHeapGraph.copyOf(graph);
+        assertFalse(offHeap.isClosed());
+        offHeap.close();
+        offHeap.close();
+        assertTrue(offHeap.isClosed());
+        assertEquals(0, offHeap.getMemoryBytes());
+        assertEquals(3, offHeap.getN());
+        assertThrows(IllegalStateException.class, () -> offHeap.getOutDegree(0));
+        assertThrows(IllegalStateException.class, () -> offHeap.getTarget(0, 0));
+        assertThrows(IllegalStateException.class, () -> new TarjanSCC().findSCC(offHeap));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapGraph.copyOf(null));
+    }
+}
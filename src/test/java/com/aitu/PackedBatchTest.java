@@ -0,0 +1,100 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
+import com.aitu.core.PackedGraph;
+import com.aitu.graph.batch.PackedBatch;
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.utils.GraphFamilies;
+import com.aitu.utils.GraphWorkspace;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBatchTest {
+
+    @Test
+    public void testPackedResults_MatchPerGraphResults() {
+        Random rand = new Random(11);
+        GraphFamilies families = new GraphFamilies(5);
+        List<DirectedGraph> graphs = new ArrayList<>();
+        int[] sources = new int[300];
+        for (int k = 0; k < sources.length; k++) {
+            // two_cycles needs at least two vertices per ring
+            int n = 4 + rand.nextInt(30);
+            String variant = GraphFamilies.VARIANTS[rand.nextInt(GraphFamilies.VARIANTS.length)];
+            graphs.add(families.generate(n, variant, 1 + rand.nextInt(3)));
+            sources[k] = rand.nextInt(n);
+        }
+
+        PackedBatch batch = PackedBatch.analyze(graphs, sources);
+        assertEquals(graphs.size(), batch.getGraphCount());
+
+        for (int k = 0; k < graphs.size(); k++) {
+            DirectedGraph graph = graphs.get(k);
+            GraphWorkspace workspace = new GraphWorkspace();
+            SCCResult scc = new TarjanSCC().findSCC(graph, workspace);
+            DirectedGraph dag = new CondensationGraph(graph, scc).getCondensation();
+            int dagSource = scc.getComponentId()[sources[k]];
+            PathResult sp = new DAGShortestPath().computeShortestPaths(dag, dagSource, workspace);
+            CriticalPathResult cp = new DAGLongestPath().findCriticalPath(dag, workspace);
+
+            SCCResult packedScc = batch.getSCCResult(k);
+            assertEquals(scc.getComponents(), packedScc.getComponents(), "graph " + k);
+            assertArrayEquals(scc.getComponentId(), packedScc.getComponentId());
+            assertEquals(adjacency(dag), adjacency(batch.getCondensation(k)));
+            assertEquals(adjacency(dag), adjacency(CondensationGraph.condense(graph, scc.getComponentId(), scc.getNumComponents())));
+            assertEquals(new KahnTopologicalSort().sort(dag, workspace).getOrder(),
+                    batch.getTopologicalOrder(k).getOrder());
+            assertArrayEquals(sp.getDistances(), batch.getShortestPaths(k).getDistances());
+            assertArrayEquals(sp.getParent(), batch.getShortestPaths(k).getParent());
+            assertEquals(cp.getLength(), batch.getCriticalPath(k).getLength());
+            assertEquals(cp.getCriticalPath(), batch.getCriticalPath(k).getCriticalPath());
+        }
+    }
+
+    @Test
+    public void testPackedGraph_OffsetsAndCrossingEdges() {
+        DirectedGraph a = new DirectedGraph(3);
+        a.addEdge(0, 1, 2.0);
+        a.addEdge(1, 2, 3.0);
+        DirectedGraph empty = new DirectedGraph(0);
+        DirectedGraph b = new DirectedGraph(2);
+        b.addEdge(1, 0, 4.0);
+
+        PackedGraph packed = new PackedGraph(Arrays.asList(a, empty, b));
+        assertArrayEquals(new int[]{0, 3, 3, 5}, packed.getVertexOffsets());
+        assertEquals(0, packed.graphOf(2));
+        assertEquals(2, packed.graphOf(3));
+        assertEquals(3, packed.getEdgeCount());
+        assertEquals(3, packed.getTarget(4, 0));
+
+        // A graph whose edge leaves its declared part is rejected
+        assertThrows(IllegalArgumentException.class, () -> new DAGLongestPath()
+                .findCriticalPaths(packed, new int[]{0, 2, 5}, new GraphWorkspace()));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedBatch.analyze(Arrays.asList(a, b), new int[]{0, 2}));
+    }
+
+    private static List<String> adjacency(Graph graph) {
+        List<String> edges = new ArrayList<>();
+        for (int u = 0; u < graph.getN(); u++) {
+            for (int i = 0; i < graph.getOutDegree(u); i++) {
+                edges.add(u + "->" + graph.getTarget(u, i) + ":" + graph.getWeight(u, i));
+            }
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,111 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Edge;
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.partition.PartitionedAnalysis;
+import com.aitu.graph.partition.WeakComponents;
+import com.aitu.graph.scc.CondensationGraph;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.KahnTopologicalSort;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedAnalysisTest {
+
+    @Test
+    public void testWeakComponents_LabelsByLowestVertex() {
+        DirectedGraph graph = new DirectedGraph(6);
+        graph.addEdge(4, 1, 1.0);
+        graph.addEdge(5, 3, 1.0);
+        graph.addEdge(3, 4, 1.0);
+
+        WeakComponents wcc = WeakComponents.find(graph, new ForkJoinPool(4));
+        assertEquals(3, wcc.getCount());
+        assertEquals(0, wcc.getLabel(0));
+        assertEquals(1, wcc.getLabel(1));
+        assertEquals(1, wcc.getLabel(5));
+        assertEquals(2, wcc.getLabel(2));
+        assertEquals(3, wcc.getLocalId(5));
+        assertEquals(4, wcc.getSize(1));
+    }
+
+    @Test
+    public void testMergedResults_MatchSequentialRun() {
+        Random rand = new Random(17);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int trial = 0; trial < 10; trial++) {
+            DirectedGraph graph = interleavedUnion(rand, 5 + rand.nextInt(30));
+            int source = rand.nextInt(graph.getN());
+
+            SCCResult scc = new TarjanSCC().findSCC(graph);
+            DirectedGraph dag = new CondensationGraph(graph, scc).getCondensation();
+            PathResult sp = new DAGShortestPath().computeShortestPaths(dag, scc.getComponentId()[source]);
+            CriticalPathResult cp = new DAGLongestPath().findCriticalPath(dag);
+
+            PartitionedAnalysis analysis = PartitionedAnalysis.analyze(graph, source, pool);
+            assertEquals(scc.getComponents(), analysis.getSCCResult().getComponents());
+            assertArrayEquals(scc.getComponentId(), analysis.getSCCResult().getComponentId());
+            assertArrayEquals(sp.getDistances(), analysis.getShortestPaths().getDistances());
+            assertArrayEquals(sp.getParent(), analysis.getShortestPaths().getParent());
+            assertEquals(cp.getLength(), analysis.getCriticalPath().getLength());
+            assertEquals(cp.getCriticalPath(), analysis.getCriticalPath().getCriticalPath());
+
+            // Any valid order will do, as long as every condensation edge points forward
+            List<Integer> order = analysis.getTopologicalOrder();
+            int[] position = new int[order.size()];
+            for (int i = 0; i < order.size(); i++) position[order.get(i)] = i;
+            assertEquals(dag.getN(), new HashSet<>(order).size());
+            for (Edge e : dag.getAllEdges()) assertTrue(position[e.getFrom()] < position[e.getTo()]);
+            assertTrue(new KahnTopologicalSort().sort(dag).isDAG());
+        }
+    }
+
+    /**
+     * Several generated graphs plus isolated vertices, with vertex ids shuffled across
+     * graphs and edges inserted in random interleaved order.
+     */
+    private static DirectedGraph interleavedUnion(Random rand, int parts) {
+        GraphFamilies families = new GraphFamilies(rand.nextLong());
+        List<DirectedGraph> graphs = new ArrayList<>();
+        int n = 0;
+        for (int p = 0; p < parts; p++) {
+            // two_cycles needs at least two vertices per ring
+            int size = 4 + rand.nextInt(40);
+            graphs.add(families.generate(size, GraphFamilies.VARIANTS[rand.nextInt(5)], 1 + rand.nextInt(3)));
+            n += size;
+        }
+        int isolated = rand.nextInt(10);
+        List<Integer> ids = new ArrayList<>();
+        for (int v = 0; v < n + isolated; v++) ids.add(v);
+        Collections.shuffle(ids, rand);
+
+        List<int[]> edges = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        int base = 0;
+        for (DirectedGraph g : graphs) {
+            for (Edge e : g.getAllEdges()) {
+                edges.add(new int[]{ids.get(base + e.getFrom()), ids.get(base + e.getTo()), edges.size()});
+                weights.add(e.getWeight());
+            }
+            base += g.getN();
+        }
+        Collections.shuffle(edges, rand);
+        DirectedGraph union = new DirectedGraph(n + isolated);
+        for (int[] e : edges) union.addEdge(e[0], e[1], weights.get(e[2]));
+        return union;
+    }
+}
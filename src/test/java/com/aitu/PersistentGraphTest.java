@@ -0,0 +1,105 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.core.Graph;
+import com.aitu.core.PersistentGraph;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentGraphTest {
+
+    @Test
+    public void testForks_MatchDeepCopiesAndLeaveParentsUnchanged() {
+        Random rand = new Random(21);
+        int n = 300;
+        DirectedGraph base = new GraphFamilies(3).generate(n, "pure_dag", 1);
+        PersistentGraph root = PersistentGraph.copyOf(base);
+        assertSameGraph(base, root);
+
+        // A tree of versions: every fork edits a random earlier version
+        List<PersistentGraph> versions = new ArrayList<>();
+        List<DirectedGraph> copies = new ArrayList<>();
+        versions.add(root);
+        copies.add(base);
+        for (int fork = 0; fork < 100; fork++) {
+            int parent = rand.nextInt(versions.size());
+            DirectedGraph copy = copyOf(copies.get(parent));
+            PersistentGraph.Editor editor = versions.get(parent).edit();
+            for (int k = 0; k < 3; k++) {
+                int u = rand.nextInt(n);
+                int v = rand.nextInt(n);
+                if (rand.nextBoolean()) {
+                    double w = 1 + rand.nextInt(9);
+                    editor.addEdge(u, v, w);
+                    copy.addEdge(u, v, w);
+                } else {
+                    assertEquals(copy.removeEdge(u, v), editor.removeEdge(u, v));
+                }
+            }
+            versions.add(editor.build());
+            copies.add(copy);
+            assertThrows(IllegalStateException.class, editor::build);
+        }
+        for (int i = 0; i < versions.size(); i++) assertSameGraph(copies.get(i), versions.get(i));
+
+        assertSame(root, root.withoutEdge(0, 0));
+        assertEquals(root.getEdgeCount() + 1, root.withEdge(0, 1, 2.0).getEdgeCount());
+        assertThrows(IllegalArgumentException.class, () -> root.withEdge(0, n, 1.0));
+    }
+
+    @Test
+    public void testAnalyses_RunConcurrentlyOnVersions() throws Exception {
+        int n = 2000;
+        PersistentGraph plan = PersistentGraph.copyOf(new GraphFamilies(5).generate(n, "pure_dag", 1));
+        List<PersistentGraph> forks = new ArrayList<>();
+        for (int k = 0; k < 16; k++) {
+            // Each fork lengthens one task on a different edge
+            int u = k * (n / 16);
+            forks.add(plan.getOutDegree(u) == 0 ? plan : plan.edit().addEdge(u, plan.getTarget(u, 0), 100 + k).build());
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Double>> lengths = new ArrayList<>();
+            for (PersistentGraph fork : forks) {
+                lengths.add(pool.submit(() -> new DAGLongestPath().findCriticalPath(fork).getLength()));
+            }
+            for (int k = 0; k < forks.size(); k++) {
+                DirectedGraph copy = copyOf(forks.get(k));
+                assertEquals(new DAGLongestPath().findCriticalPath(copy).getLength(), lengths.get(k).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static DirectedGraph copyOf(Graph graph) {
+        DirectedGraph copy = new DirectedGraph(graph.getN());
+        for (int v = 0; v < graph.getN(); v++) {
+            for (int i = 0; i < graph.getOutDegree(v); i++) copy.addEdge(v, graph.getTarget(v, i), graph.getWeight(v, i));
+        }
+        return copy;
+    }
+
+    private static void assertSameGraph(Graph expected, Graph actual) {
+        assertEquals(expected.getN(), actual.getN());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int v = 0; v < expected.getN(); v++) {
+            assertEquals(expected.getOutDegree(v), actual.getOutDegree(v));
+            for (int i = 0; i < expected.getOutDegree(v); i++) {
+                assertEquals(expected.getTarget(v, i), actual.getTarget(v, i));
+                assertEquals(expected.getWeight(v, i), actual.getWeight(v, i));
+            }
+        }
+        assertArrayEquals(expected.getInDegrees(), actual.getInDegrees());
+    }
+}
@@ -0,0 +1,59 @@
+package com.aitu;
+
+import com.aitu.utils.Pipeline;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelineTest {
+
+    @Test
+    public void testOutputKeepsSourceOrderAndBoundsInFlight() throws IOException {
+        int count = 500;
+        int maxInFlight = 8;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Integer> output = new ArrayList<>();
+
+        List<Pipeline.StageStats> stats = Pipeline
+                .source("load", IntStream.range(0, count).boxed().iterator(), maxInFlight)
+                .then("square", 4, 2, (Integer x) -> {
+                    peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    // Uneven work so items finish out of order
+                    if (ThreadLocalRandom.current().nextInt(10) == 0) Thread.sleep(1);
+                    return x * x;
+                })
+                .run("collect", (Integer y) -> {
+                    inFlight.decrementAndGet();
+                    output.add(y);
+                });
+
+        assertEquals(IntStream.range(0, count).map(x -> x * x).boxed().collect(Collectors.toList()), output);
+        assertTrue(peak.get() <= maxInFlight, "peak in flight " + peak.get());
+        assertEquals(3, stats.size());
+        for (Pipeline.StageStats stage : stats) {
+            assertEquals(count, stage.getItems(), stage.getName());
+            assertTrue(stage.getMaxQueueDepth() <= Math.max(stage.getQueueCapacity(), maxInFlight));
+        }
+    }
+
+    @Test
+    public void testFailureInStage_IsRethrown() {
+        Pipeline<Integer> pipeline = Pipeline
+                .source("load", IntStream.range(0, 1000).boxed().iterator(), 4)
+                .then("check", 2, 2, (Integer x) -> {
+                    if (x == 100) throw new IOException("bad item " + x);
+                    return x;
+                });
+        IOException e = assertThrows(IOException.class, () -> pipeline.run("sink", x -> { }));
+        assertEquals("bad item 100", e.getMessage());
+    }
+}
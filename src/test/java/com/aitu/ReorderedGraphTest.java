@@ -0,0 +1,111 @@
+package com.aitu;
+
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.dagsp.CriticalPathResult;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.DAGShortestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.graph.reorder.ReorderedGraph;
+import com.aitu.graph.reorder.ReorderedGraph.Strategy;
+import com.aitu.graph.scc.SCCResult;
+import com.aitu.graph.scc.TarjanSCC;
+import com.aitu.graph.topo.TopologicalSortResult;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReorderedGraphTest {
+
+    @Test
+    public void testReorder_IsPermutationOfSameGraph() {
+        DirectedGraph graph = new GraphFamilies(2).generate(200, "mixed", 1);
+        for (Strategy strategy : Strategy.values()) {
+            ReorderedGraph reordered = ReorderedGraph.reorder(graph, strategy);
+            boolean[] seen = new boolean[graph.getN()];
+            for (int i = 0; i < graph.getN(); i++) {
+                int v = reordered.toOriginal(i);
+                assertFalse(seen[v]);
+                seen[v] = true;
+                assertEquals(i, reordered.toReordered(v));
+                // Same neighbours in the same order, relabeled
+                assertEquals(graph.getOutDegree(v), reordered.getOutDegree(i));
+                for (int j = 0; j < graph.getOutDegree(v); j++) {
+                    assertEquals(graph.getTarget(v, j), reordered.toOriginal(reordered.getTarget(i, j)));
+                    assertEquals(graph.getWeight(v, j), reordered.getWeight(i, j));
+                }
+            }
+        }
+
+        // Degree order puts the busiest vertex first
+        ReorderedGraph byDegree = ReorderedGraph.reorder(graph, Strategy.DEGREE);
+        int[] inDegree = graph.getInDegrees();
+        int first = byDegree.toOriginal(0);
+        for (int v = 0; v < graph.getN(); v++) {
+            assertTrue(inDegree[first] + graph.getOutDegree(first) >= inDegree[v] + graph.getOutDegree(v));
+        }
+    }
+
+    @Test
+    public void testResults_AreTranslatedToOriginalIds() {
+        for (String variant : GraphFamilies.VARIANTS) {
+            DirectedGraph graph = new GraphFamilies(7).generate(150, variant, 1);
+            SCCResult expected = new TarjanSCC().findSCC(graph);
+            for (Strategy strategy : Strategy.values()) {
+                ReorderedGraph reordered = ReorderedGraph.reorder(graph, strategy);
+                SCCResult scc = reordered.findSCC();
+                assertEquals(expected.getNumComponents(), scc.getNumComponents());
+                for (int v = 0; v < graph.getN(); v++) {
+                    assertTrue(scc.getComponents().get(scc.getComponentId()[v]).contains(v));
+                    for (int u = 0; u < v; u++) {
+                        assertEquals(expected.getComponentId()[u] == expected.getComponentId()[v],
+                                scc.getComponentId()[u] == scc.getComponentId()[v]);
+                    }
+                }
+
+                TopologicalSortResult topo = reordered.topologicalSort();
+                assertEquals(variant.equals("pure_dag"), topo.isDAG());
+                if (!topo.isDAG()) continue;
+                List<Integer> order = topo.getOrder();
+                int[] position = new int[graph.getN()];
+                for (int i = 0; i < order.size(); i++) position[order.get(i)] = i;
+                graph.forEachEdge((from, to, weight) -> assertTrue(position[from] < position[to]));
+
+                PathResult shortest = reordered.shortestPaths(0);
+                assertEquals(0, shortest.getSource());
+                assertArrayEquals(new DAGShortestPath().computeShortestPaths(graph, 0).getDistances(), shortest.getDistances());
+                assertArrayEquals(new DAGLongestPath().computeLongestPaths(graph, 0).getDistances(),
+                        reordered.longestPaths(0).getDistances());
+
+                // The translated critical path walks real edges of the original graph
+                CriticalPathResult critical = reordered.criticalPath();
+                assertEquals(new DAGLongestPath().findCriticalPath(graph).getLength(), critical.getLength());
+                List<Integer> path = critical.getCriticalPath();
+                assertEquals(critical.getEndVertex(), (int) path.get(path.size() - 1));
+                double length = 0;
+                for (int i = 0; i + 1 < path.size(); i++) {
+                    double best = Double.NEGATIVE_INFINITY;
+                    for (int j = 0; j < graph.getOutDegree(path.get(i)); j++) {
+                        if (graph.getTarget(path.get(i), j) == path.get(i + 1)) best = Math.max(best, graph.getWeight(path.get(i), j));
+                    }
+                    length += best;
+                }
+                assertEquals(critical.getLength(), length, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testCyclicGraph_PathsAreNull() {
+        DirectedGraph graph = new GraphFamilies(3).generate(100, "one_cycle", 2);
+        CriticalPathResult expected = new DAGLongestPath().findCriticalPath(graph);
+        for (Strategy strategy : Strategy.values()) {
+            ReorderedGraph reordered = ReorderedGraph.reorder(graph, strategy);
+            assertNull(reordered.shortestPaths(0));
+            assertNull(reordered.longestPaths(0));
+            assertEquals(expected == null, reordered.criticalPath() == null);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.aitu;
+
+import com.aitu.utils.ResultWriter;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWritesRowsAndJsonLinesInOrder() throws IOException {
+        Path csv = tempDir.resolve("out.csv");
+        Path ndjson = tempDir.resolve("out.ndjson");
+        int count = 1000;
+
+        // Small queue so the producer has to wait for the writer thread
+        try (ResultWriter writer = new ResultWriter(4)) {
+            writer.addCsv("rows", csv.toString(), "id;value");
+            writer.addNdjson("json", ndjson.toString());
+            for (int i = 0; i < count; i++) {
+                JsonObject json = new JsonObject();
+                json.addProperty("graph_id", i);
+                writer.submit(new ResultWriter.Record()
+                        .addRow("rows", String.valueOf(i), "v" + i)
+                        .addJson("json", json));
+            }
+        }
+
+        List<String> rows = Files.readAllLines(csv);
+        assertEquals(count + 1, rows.size());
+        assertEquals("id;value", rows.get(0));
+        assertEquals("999;v999", rows.get(count));
+
+        List<String> lines = Files.readAllLines(ndjson);
+        assertEquals(count, lines.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, JsonParser.parseString(lines.get(i)).getAsJsonObject().get("graph_id").getAsInt());
+        }
+    }
+
+    @Test
+    public void testUnknownSink_Throws() throws IOException {
+        try (ResultWriter writer = new ResultWriter()) {
+            writer.addCsv("rows", tempDir.resolve("out.csv").toString(), "id");
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.submit(new ResultWriter.Record().addRow("missing", "1")));
+        }
+    }
+
+    @Test
+    public void testRuntimeFailure_ReleasesProducersAndFailsClose() throws IOException {
+        ResultWriter writer = new ResultWriter(2);
+        writer.addCsv("rows", tempDir.resolve("out.csv").toString(), "id");
+
+        // A null cell makes the writer thread throw NullPointerException
+        writer.submit(new ResultWriter.Record().addRow("rows", (String) null));
+        assertThrows(IOException.class, () -> {
+            for (int i = 0; i < 100; i++) {
+                writer.submit(new ResultWriter.Record().addRow("rows", String.valueOf(i)));
+            }
+        });
+        IOException e = assertThrows(IOException.class, writer::close);
+        assertInstanceOf(NullPointerException.class, e.getCause().getCause());
+    }
+}
@@ -0,0 +1,62 @@
+package com.aitu;
+
+import com.aitu.core.CsrGraph;
+import com.aitu.core.DirectedGraph;
+import com.aitu.graph.dagsp.DAGLongestPath;
+import com.aitu.graph.dagsp.PathResult;
+import com.aitu.utils.GraphFamilies;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransposeTest {
+
+    @Test
+    public void testTranspose_ListsPredecessorsAndFollowsChanges() {
+        DirectedGraph graph = new GraphFamilies(13).generate(300, "mixed", 3);
+        CsrGraph transpose = graph.getTranspose();
+        assertSame(transpose, graph.getTranspose());
+        assertArrayEquals(graph.getInDegrees(), CsrGraph.copyOf(graph).getInDegrees());
+
+        // Predecessors in insertion order, weights carried over
+        for (int v = 0; v < graph.getN(); v++) {
+            List<double[]> incoming = new ArrayList<>();
+            int target = v;
+            graph.forEachEdge((from, to, weight) -> {
+                if (to == target) incoming.add(new double[]{from, weight});
+            });
+            assertEquals(incoming.size(), graph.getInDegree(v));
+            int[] predecessors = graph.getPredecessors(v);
+            assertEquals(incoming.size(), predecessors.length);
+            for (int i = 0; i < incoming.size(); i++) {
+                assertEquals((int) incoming.get(i)[0], predecessors[i]);
+                assertEquals(incoming.get(i)[1], transpose.getWeight(v, i));
+            }
+        }
+
+        // Any change drops the cached transpose
+        graph.addEdge(5, 7, 2.0);
+        CsrGraph afterAdd = graph.getTranspose();
+        assertNotSame(transpose, afterAdd);
+        int[] predecessors = graph.getPredecessors(7);
+        assertEquals(5, predecessors[predecessors.length - 1]);
+        assertTrue(graph.removeEdge(5, 7));
+        assertNotSame(afterAdd, graph.getTranspose());
+        assertEquals(transpose.getOutDegree(7), graph.getInDegree(7));
+        assertThrows(IllegalArgumentException.class, () -> graph.getPredecessors(300));
+    }
+
+    @Test
+    public void testBackwardPass_GivesLongestPathsToTarget() {
+        DirectedGraph graph = new GraphFamilies(17).generate(200, "pure_dag", 3);
+        int target = graph.getN() - 1;
+        PathResult backward = new DAGLongestPath().computeLongestPaths(graph.getTranspose(), target);
+        for (int v = 0; v < graph.getN(); v++) {
+            double forward = new DAGLongestPath().computeLongestPaths(graph, v).getDistances()[target];
+            assertEquals(forward, backward.getDistances()[v], 1e-9);
+        }
+    }
+}